@@ -0,0 +1,73 @@
+package logic;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the balance calculation on synthetic events of production scale.
+ *
+ * Both throughput and sampled latency (p99 and friends) are reported; run through
+ * {@code ./gradlew jmh} to also get the allocation rate from the gc profiler.
+ * The {@code shape} parameter is {@code <participants>x<categories>}, so a single
+ * shape can be measured with {@code -PjmhArgs="-p shape=100000x5000"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CalculationEngineBenchmark {
+
+    @Param({"10x5", "1000x50", "10000x500", "100000x5000"})
+    private String shape;
+
+    @Param({"0.01", "0.1"})
+    private double density;
+
+    private Event event;
+    private EventMatrix matrix;
+    private CalculationEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] size = SyntheticEvents.parseShape(shape);
+        event = SyntheticEvents.create(size[0], size[1], density);
+
+        // fill the category maps once, so the event looks like a finalized one
+        event.fillConsumedPerCategory();
+        event.fillExpensePerCategory();
+        event.fillTotalExpensePerCategory();
+        matrix = EventMatrix.compile(event);
+        engine = new CalculationEngine();
+    }
+
+    /**
+     * Measures the array-only pass over an already compiled event.
+     */
+    @Benchmark
+    public void calculateCompiled(Blackhole blackhole) {
+        engine.calculate(matrix);
+        blackhole.consume(matrix);
+    }
+
+    /**
+     * Measures the engine alone: consumption shares, net balances and debt generation.
+     */
+    @Benchmark
+    public void calculateBalances(Blackhole blackhole) {
+        engine.calculateBalances(event);
+        blackhole.consume(event.getDebts());
+    }
+
+    /**
+     * Measures the full recalculation, including rebuilding the per-category maps.
+     */
+    @Benchmark
+    public void finalizeCalculations(Blackhole blackhole) {
+        event.finalizeCalculations();
+        blackhole.consume(event.getDebts());
+    }
+}
@@ -0,0 +1,60 @@
+package logic;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the settlement strategies on participants whose balances are already calculated.
+ * Balances are drawn from 100000 distinct cent amounts, so larger events contain more
+ * zero-sum pairs and triples for {@link MinTransactionSettlementStrategy} to find.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SettlementBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int participants;
+
+    private List<Participant> people;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Event event = SyntheticEvents.create(participants, 1, 0);
+        people = event.getParticipants();
+
+        Random random = new Random(42);
+        long sum = 0;
+        for (int i = 0; i < participants - 1; i++) {
+            long balance = random.nextInt(100000) - 50000;
+            people.get(i).setBalance(balance);
+            sum += balance;
+        }
+        people.get(participants - 1).setBalance(-sum);
+    }
+
+    @Benchmark
+    public List<Debt> greedy() {
+        return new GreedySettlementStrategy().settle(people);
+    }
+
+    @Benchmark
+    public List<Debt> sortedArray() {
+        return new SortedArraySettlementStrategy().settle(people);
+    }
+
+    /**
+     * The zero-sum search with its default 50 ms budget, including the fallback settlement
+     * it compares against.
+     */
+    @Benchmark
+    public List<Debt> minTransaction() {
+        return new MinTransactionSettlementStrategy().settle(people);
+    }
+}
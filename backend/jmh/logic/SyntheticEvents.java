@@ -0,0 +1,79 @@
+package logic;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Builds synthetic events for the benchmark suite.
+ * Events are generated from a fixed seed, so every run (and every commit) measures the same data.
+ */
+public class SyntheticEvents {
+
+    private static final long SEED = 42L;
+
+    /**
+     * Creates an event with the given number of participants and categories.
+     * Every participant pays for one random category with probability 0.5 and consumes
+     * roughly {@code density * categories} distinct random categories (at least one).
+     *
+     * @param participantCount number of participants in the event
+     * @param categoryCount    number of categories in the event
+     * @param density          fraction of the categories consumed by each participant
+     * @return the generated event, not yet calculated
+     */
+    public static Event create(int participantCount, int categoryCount, double density) {
+        Random random = new Random(SEED);
+        Event event = new Event("Synthetic " + participantCount + "x" + categoryCount, 1000, LocalDate.of(2025, 1, 1));
+
+        Category[] categories = new Category[categoryCount];
+        for (int i = 0; i < categoryCount; i++) {
+            Category category = new Category("Category " + i);
+            category.setId(i + 1);
+            categories[i] = category;
+            event.addCategory(category);
+        }
+
+        int consumedPerParticipant = Math.max(1, (int) Math.round(density * categoryCount));
+        int[] order = new int[categoryCount];
+        for (int i = 0; i < categoryCount; i++) {
+            order[i] = i;
+        }
+
+        for (int i = 0; i < participantCount; i++) {
+            Participant participant = new Participant("Participant " + i, "05" + i);
+            participant.setId(i + 1);
+
+            if (random.nextBoolean()) {
+                Category paidFor = categories[random.nextInt(categoryCount)];
+                participant.addExpense(paidFor, 100 + random.nextInt(50000));
+            }
+
+            // partial Fisher-Yates shuffle picks distinct consumed categories
+            for (int j = 0; j < consumedPerParticipant; j++) {
+                int swap = j + random.nextInt(categoryCount - j);
+                int tmp = order[j];
+                order[j] = order[swap];
+                order[swap] = tmp;
+                participant.addConsumedCategory(categories[order[j]]);
+            }
+
+            event.addParticipant(participant);
+        }
+
+        return event;
+    }
+
+    /**
+     * Parses a benchmark shape of the form {@code <participants>x<categories>}, e.g. {@code 1000x50}.
+     *
+     * @param shape the shape string
+     * @return a two-element array holding the participant count and the category count
+     */
+    public static int[] parseShape(String shape) {
+        String[] parts = shape.split("x");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Shape must look like <participants>x<categories>: " + shape);
+        }
+        return new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+}
@@ -0,0 +1,43 @@
+-- Indexes for the lookups the DAOs run on every load, save and listing.
+
+-- loading and replacing an event's debts, netting debts of several events
+CREATE INDEX IF NOT EXISTS debts_event_pair_idx
+    ON debts (event_id, from_participant_id, to_participant_id);
+
+-- reverse lookups of the link tables, also used by ON DELETE CASCADE from participants and categories
+CREATE INDEX IF NOT EXISTS event_participants_participant_id_idx ON event_participants (participant_id);
+CREATE INDEX IF NOT EXISTS event_categories_category_id_idx ON event_categories (category_id);
+
+-- the event list ordered by date and date range queries
+CREATE INDEX IF NOT EXISTS events_date_idx ON events (date, id);
+
+-- category names are resolved set-based; databases created before the index was added to init.sql lack it
+-- and may hold the same name more than once. Such categories are merged into the one with the lowest
+-- ID: their link, expense and consumption rows move to it, expenses of a participant on several of
+-- them are added up, and the other categories are deleted.
+CREATE TEMP TABLE category_merges ON COMMIT DROP AS
+SELECT c.id AS old_id, kept.id AS kept_id
+FROM categories c
+JOIN (SELECT name, min(id) AS id FROM categories GROUP BY name HAVING count(*) > 1) kept
+    ON kept.name = c.name AND kept.id <> c.id;
+
+INSERT INTO event_categories (event_id, category_id)
+SELECT DISTINCT ec.event_id, m.kept_id
+FROM event_categories ec JOIN category_merges m ON m.old_id = ec.category_id
+ON CONFLICT DO NOTHING;
+
+INSERT INTO expenses (event_id, participant_id, category_id, amount)
+SELECT x.event_id, x.participant_id, m.kept_id, SUM(x.amount)
+FROM expenses x JOIN category_merges m ON m.old_id = x.category_id
+GROUP BY x.event_id, x.participant_id, m.kept_id
+ON CONFLICT (event_id, participant_id, category_id) DO UPDATE SET amount = expenses.amount + EXCLUDED.amount;
+
+INSERT INTO consumptions (event_id, participant_id, category_id)
+SELECT DISTINCT c.event_id, c.participant_id, m.kept_id
+FROM consumptions c JOIN category_merges m ON m.old_id = c.category_id
+ON CONFLICT DO NOTHING;
+
+-- the old rows go with their categories through ON DELETE CASCADE
+DELETE FROM categories WHERE id IN (SELECT old_id FROM category_merges);
+
+CREATE UNIQUE INDEX IF NOT EXISTS categories_name_key ON categories (name);
@@ -0,0 +1,3 @@
+-- case-insensitive name prefix search of the event listing; text_pattern_ops lets LIKE 'prefix%'
+-- use the index under any collation
+CREATE INDEX IF NOT EXISTS events_lower_name_idx ON events (lower(name) text_pattern_ops);
@@ -0,0 +1,24 @@
+-- Stored calculation results of an event, and the content version of the event they were
+-- calculated for. Databases created from docker/init.sql have them already.
+
+ALTER TABLE events ADD COLUMN IF NOT EXISTS results_version BIGINT;
+
+CREATE TABLE IF NOT EXISTS participant_results (
+    event_id INT NOT NULL,
+    participant_id INT NOT NULL,
+    total_consumed DECIMAL(12, 2) NOT NULL,
+    balance DECIMAL(12, 2) NOT NULL,
+    PRIMARY KEY (event_id, participant_id),
+    FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE,
+    FOREIGN KEY (participant_id) REFERENCES participants(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS category_results (
+    event_id INT NOT NULL,
+    category_id INT NOT NULL,
+    total_expense DECIMAL(12, 2) NOT NULL,
+    adjusted_expense DECIMAL(12, 2) NOT NULL,
+    PRIMARY KEY (event_id, category_id),
+    FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE,
+    FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE CASCADE
+);
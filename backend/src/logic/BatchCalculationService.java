@@ -0,0 +1,299 @@
+package logic;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * BatchCalculationService recalculates many stored events in parallel, e.g. for the
+ * month-end recomputation.
+ *
+ * The event IDs are split recursively on a {@link ForkJoinPool}; every leaf loads its events
+ * with one call of the batch loader and calculates them with
+ * {@link CalculationEngine#calculateResult(Event)}. Each event is loaded and calculated by a
+ * single task, and the results are immutable {@link CalculationResult}s, so nothing is shared
+ * between tasks. A loader of single events is called once per ID instead.
+ */
+public class BatchCalculationService implements AutoCloseable {
+
+    private final Function<List<Integer>, List<Event>> batchLoader;
+    private final CalculationEngine engine;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a service that uses one worker per available processor.
+     *
+     * @param eventLoader loads a full event by its ID, returning null if it cannot be loaded
+     *                    (e.g. {@code EventDao::loadEventById})
+     */
+    public BatchCalculationService(IntFunction<Event> eventLoader) {
+        this(eventLoader, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a service with the given number of workers.
+     *
+     * @param eventLoader loads a full event by its ID, returning null if it cannot be loaded
+     * @param parallelism the number of events loaded and calculated at the same time
+     */
+    public BatchCalculationService(IntFunction<Event> eventLoader, int parallelism) {
+        this(eventLoader, parallelism, new CalculationEngine());
+    }
+
+    /**
+     * Creates a service with the given number of workers and calculation engine.
+     *
+     * @param eventLoader loads a full event by its ID, returning null if it cannot be loaded
+     * @param parallelism the number of events loaded and calculated at the same time
+     * @param engine      the engine used to calculate every event
+     */
+    public BatchCalculationService(IntFunction<Event> eventLoader, int parallelism, CalculationEngine engine) {
+        this(singleLoads(eventLoader), parallelism, engine);
+    }
+
+    private BatchCalculationService(Function<List<Integer>, List<Event>> batchLoader, int parallelism,
+                                    CalculationEngine engine) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, got " + parallelism);
+        }
+        this.batchLoader = batchLoader;
+        this.engine = engine;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Creates a service that loads the events of each task with one call.
+     *
+     * @param batchLoader loads the events with the given IDs, returning them in the same order
+     *                    with null for each event that cannot be loaded
+     *                    (e.g. {@code EventDao::loadEventsById})
+     * @param parallelism the number of tasks loading and calculating events at the same time
+     * @return the service
+     */
+    public static BatchCalculationService ofBatchLoader(Function<List<Integer>, List<Event>> batchLoader,
+                                                        int parallelism) {
+        return new BatchCalculationService(batchLoader, parallelism, new CalculationEngine());
+    }
+
+    /**
+     * Adapts a loader of single events; an event that fails to load does not fail the others.
+     */
+    private static Function<List<Integer>, List<Event>> singleLoads(IntFunction<Event> eventLoader) {
+        return ids -> {
+            List<Event> events = new ArrayList<>(ids.size());
+            for (int id : ids) {
+                Event event = null;
+                try {
+                    event = eventLoader.apply(id);
+                } catch (RuntimeException e) {
+                    System.err.println("Failed to recalculate event " + id + ": " + e.getMessage());
+                }
+                events.add(event);
+            }
+            return events;
+        };
+    }
+
+    /**
+     * Loads and recalculates the given events. Blocks until every event is done.
+     * Events that cannot be loaded or calculated are reported as failed instead of
+     * failing the whole batch.
+     *
+     * @param eventIds the IDs of the events to recalculate
+     * @return the results in the order of the IDs, and the timing of the batch
+     */
+    public BatchResult recalculate(List<Integer> eventIds) {
+        int[] ids = eventIds.stream().mapToInt(Integer::intValue).toArray();
+        CalculationResult[] results = new CalculationResult[ids.length];
+        long[] loadNanos = new long[ids.length];
+        long[] calculationNanos = new long[ids.length];
+
+        // a few leaves per worker keep the workers busy when some events are much larger
+        int leafSize = Math.max(1, ids.length / (pool.getParallelism() * 4));
+
+        long start = System.nanoTime();
+        pool.invoke(new RecalculateTask(ids, 0, ids.length, leafSize, results, loadNanos, calculationNanos));
+        long wallNanos = System.nanoTime() - start;
+
+        List<CalculationResult> calculated = new ArrayList<>(ids.length);
+        List<Integer> failed = new ArrayList<>();
+        long totalLoadNanos = 0;
+        long totalCalculationNanos = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (results[i] != null) {
+                calculated.add(results[i]);
+            } else {
+                failed.add(ids[i]);
+            }
+            totalLoadNanos += loadNanos[i];
+            totalCalculationNanos += calculationNanos[i];
+        }
+
+        return new BatchResult(calculated, failed, wallNanos, totalLoadNanos, totalCalculationNanos);
+    }
+
+    /**
+     * @return the number of events loaded and calculated at the same time
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Stops the workers. Batches that are already running complete first.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Splits a range of event IDs in halves until it is small enough to load and calculate.
+     * Every event writes only its own slot of the result arrays.
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private class RecalculateTask extends RecursiveAction {
+
+        private final int[] ids;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final CalculationResult[] results;
+        private final long[] loadNanos;
+        private final long[] calculationNanos;
+
+        RecalculateTask(int[] ids, int from, int to, int leafSize, CalculationResult[] results,
+                        long[] loadNanos, long[] calculationNanos) {
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.results = results;
+            this.loadNanos = loadNanos;
+            this.calculationNanos = calculationNanos;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                recalculateLeaf();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RecalculateTask(ids, from, middle, leafSize, results, loadNanos, calculationNanos),
+                    new RecalculateTask(ids, middle, to, leafSize, results, loadNanos, calculationNanos));
+        }
+
+        private void recalculateLeaf() {
+            List<Integer> leafIds = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                leafIds.add(ids[i]);
+            }
+
+            long start = System.nanoTime();
+            List<Event> events;
+            try {
+                events = batchLoader.apply(leafIds);
+                if (events == null || events.size() != leafIds.size()) {
+                    throw new IllegalStateException("the loader returned " + (events == null ? "no" : events.size())
+                            + " events for " + leafIds.size() + " IDs");
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Failed to load events " + leafIds + ": " + e.getMessage());
+                return;
+            }
+            // the batch is timed as a whole and its time shared among its events
+            long loadNanosPerEvent = (System.nanoTime() - start) / leafIds.size();
+
+            for (int i = from; i < to; i++) {
+                loadNanos[i] = loadNanosPerEvent;
+                Event event = events.get(i - from);
+                if (event != null) {
+                    recalculate(i, event);
+                }
+            }
+        }
+
+        private void recalculate(int i, Event event) {
+            try {
+                long start = System.nanoTime();
+                results[i] = engine.calculateResult(event);
+                calculationNanos[i] = System.nanoTime() - start;
+            } catch (RuntimeException e) {
+                System.err.println("Failed to recalculate event " + ids[i] + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The results of one batch together with its timing.
+     */
+    public static class BatchResult {
+
+        private final List<CalculationResult> results;
+        private final List<Integer> failedEventIds;
+        private final long wallNanos;
+        private final long loadNanos;
+        private final long calculationNanos;
+
+        BatchResult(List<CalculationResult> results, List<Integer> failedEventIds,
+                    long wallNanos, long loadNanos, long calculationNanos) {
+            this.results = Collections.unmodifiableList(results);
+            this.failedEventIds = Collections.unmodifiableList(failedEventIds);
+            this.wallNanos = wallNanos;
+            this.loadNanos = loadNanos;
+            this.calculationNanos = calculationNanos;
+        }
+
+        /**
+         * @return the results of the events that were recalculated, in the order of the IDs
+         */
+        public List<CalculationResult> getResults() {
+            return results;
+        }
+
+        /**
+         * @return the IDs of the events that could not be loaded or calculated
+         */
+        public List<Integer> getFailedEventIds() {
+            return failedEventIds;
+        }
+
+        /**
+         * @return the elapsed time of the whole batch, in nanoseconds
+         */
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /**
+         * @return the time spent loading events summed over all workers, in nanoseconds
+         */
+        public long getLoadNanos() {
+            return loadNanos;
+        }
+
+        /**
+         * @return the time spent calculating events summed over all workers, in nanoseconds
+         */
+        public long getCalculationNanos() {
+            return calculationNanos;
+        }
+
+        /**
+         * @return the number of recalculated events per second of elapsed time
+         */
+        public double getEventsPerSecond() {
+            return wallNanos == 0 ? 0.0 : results.size() * 1_000_000_000.0 / wallNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d events recalculated, %d failed in %d ms (load %d ms, calculate %d ms summed over workers)",
+                    results.size(), failedEventIds.size(), wallNanos / 1_000_000,
+                    loadNanos / 1_000_000, calculationNanos / 1_000_000);
+        }
+    }
+}
@@ -5,223 +5,165 @@ import java.util.*;
 /**
  * CalculationEngine handles the logic for computing the financial balances
  * of participants in an event, including expenses, consumption, and resulting debts.
+ *
+ * The event is first compiled into an {@link EventMatrix}; all arithmetic then runs over
+ * the matrix's primitive arrays and the results are written back to the event.
  */
 public class CalculationEngine {
 
+    private final SettlementStrategy settlementStrategy;
+
     /**
-     * Main entry point to compute all balances and debts for the given event.
-     * It calculates expenses, adjusts for participation fees, determines balances,
-     * and sets the resulting list of debts in the event.
-     *
-     * @param event the event for which to perform the calculations
+     * Constructs an engine that settles balances with the {@link SortedArraySettlementStrategy}.
      */
-    public void calculateBalances(Event event) {
-        Map<Participant, Double> totalExpensesByParticipant = calculateTotalExpensesByParticipant(event);
-
-
-        calculateTotalConsumedByParticipant(event);
-
-        Map<Participant, Double> totalConsumedByParticipant = new HashMap<>();
-        for (Participant p : event.getParticipants()) {
-            totalConsumedByParticipant.put(p, p.getTotalConsumed());
-        }
-
-        updateEventDebts(event, totalExpensesByParticipant, totalConsumedByParticipant);
+    public CalculationEngine() {
+        this(new SortedArraySettlementStrategy());
     }
 
-
     /**
-     * Updates the list of debts in the event based on net balances between participants.
+     * Constructs an engine that settles balances with the given strategy.
+     *
+     * @param settlementStrategy the strategy used to turn balances into debts
      */
-    private void updateEventDebts(Event event,
-                                  Map<Participant, Double> totalExpensesByParticipant,
-                                  Map<Participant, Double> totalConsumedByParticipant) {
-
-        List<Participant> creditors = new ArrayList<>();
-        List<Participant> debtors = new ArrayList<>();
-
-        calculateNetBalances(
-                totalExpensesByParticipant,
-                totalConsumedByParticipant,
-                creditors,
-                debtors,
-                event.getParticipationFee(),
-                event
-        );
-
-        event.setDebts(generateDebts(creditors, debtors));
+    public CalculationEngine(SettlementStrategy settlementStrategy) {
+        this.settlementStrategy = settlementStrategy;
     }
 
     /**
-     * Calculates the total amount paid by each participant.
+     * Main entry point to compute all balances and debts for the given event.
+     * It calculates expenses, adjusts for participation fees, determines balances,
+     * and sets the resulting list of debts in the event.
      *
-     * @param event the event to analyze
-     * @return a map of participants to their total expenses
+     * @param event the event for which to perform the calculations
      */
-    private Map<Participant, Double> calculateTotalExpensesByParticipant(Event event) {
-        Map<Participant, Double> totalExpenseByParticipant = new HashMap<>();
-        for (Participant participant : event.getParticipants()) {
-            totalExpenseByParticipant.put(participant, participant.getTotalExpense());
-        }
-        return totalExpenseByParticipant;
+    public void calculateBalances(Event event) {
+        calculateResult(event).applyTo(event);
     }
 
     /**
-     * Calculates and sets the total amount consumed by each participant,
-     * based on category-level adjusted expenses.
+     * Calculates the event without writing anything back to it.
+     * The engine keeps no state between calls, so one engine can calculate several events
+     * on different threads as long as each event is not modified while it is calculated.
      *
-     * @param event the event to analyze
+     * @param event the event to calculate
+     * @return the immutable result of the calculation
      */
-    private void calculateTotalConsumedByParticipant(Event event) {
-        Map<Category, Double> totalExpensePerCategory = event.getTotalExpensePerCategory();
-        List<Participant> participants = event.getParticipants();
-        double participationFee = event.getParticipationFee();
-        double totalParticipationFee = participationFee * participants.size();
-
-        double totalExpenses = calculateTotalExpenses(totalExpensePerCategory);
-
-        Map<Category, Double> adjustedCategoryExpense =
-                calculateAdjustedCategoryExpenses(totalExpensePerCategory, totalParticipationFee, totalExpenses);
-        event.setAdjustedTotalExpensePerCategory(adjustedCategoryExpense);
+    public CalculationResult calculateResult(Event event) {
+        EventMatrix matrix = EventMatrix.compile(event);
+        calculate(matrix);
 
-        Map<Participant, Double> totalConsumedMap = calculateParticipantConsumption(adjustedCategoryExpense, event.getConsumedPerCategory());
-
-        // update each participant's field directly
-        for (Map.Entry<Participant, Double> entry : totalConsumedMap.entrySet()) {
-            entry.getKey().setTotalConsumed(entry.getValue());
-        }
+        List<Debt> debts = settlementStrategy.settle(matrix.participants(), matrix.balanceByParticipant());
+        return new CalculationResult(event.getId(), matrix.participants(), matrix.categories(),
+                matrix.consumedByParticipant(), matrix.balanceByParticipant(), matrix.adjustedByCategory(), debts);
     }
 
     /**
-     * Computes the total expenses across all categories.
+     * Calculates adjusted category expenses, consumption and net balances in place.
+     * Runs over the matrix's arrays only and does not allocate.
+     *
+     * @param matrix the compiled event
      */
-    private double calculateTotalExpenses(Map<Category, Double> totalExpensePerCategory) {
-        return totalExpensePerCategory.values().stream()
-                .mapToDouble(Double::doubleValue)
-                .sum();
+    public void calculate(EventMatrix matrix) {
+        calculateAdjustedCategoryExpenses(matrix);
+        calculateParticipantConsumption(matrix);
+        calculateNetBalances(matrix);
     }
 
     /**
-     * Adjusts category expenses by subtracting proportional participation fee.
-     *
-     * @param totalExpensePerCategory raw expenses per category
-     * @param totalParticipationFee total participation fee for all participants
-     * @param totalExpenses sum of all raw expenses
-     * @return map of categories to adjusted expenses
+     * Adjusts category expenses by subtracting a proportional share of the total participation fee,
+     * rounded to the cent.
      */
-    private Map<Category, Double> calculateAdjustedCategoryExpenses(
-            Map<Category, Double> totalExpensePerCategory,
-            double totalParticipationFee,
-            double totalExpenses) {
-
-        Map<Category, Double> adjusted = new HashMap<>();
-
-        for (Map.Entry<Category, Double> entry : totalExpensePerCategory.entrySet()) {
-            Category category = entry.getKey();
-            double categoryExpense = entry.getValue();
-            double proportion = categoryExpense / totalExpenses;
-            double subsidy = totalParticipationFee * proportion;
-            double adjustedExpense = categoryExpense - subsidy;
-            adjusted.put(category, adjustedExpense);
+    private void calculateAdjustedCategoryExpenses(EventMatrix matrix) {
+        long[] expenseByCategory = matrix.expenseByCategory();
+        long[] adjusted = matrix.adjustedByCategory();
+        long totalParticipationFee = matrix.getParticipationFee() * matrix.getParticipantCount();
+        long totalExpenses = totalExpenses(expenseByCategory);
+
+        for (int c = 0; c < expenseByCategory.length; c++) {
+            adjusted[c] = expenseByCategory[c] - subsidy(totalParticipationFee, expenseByCategory[c], totalExpenses);
         }
-        return adjusted;
     }
 
     /**
      * Distributes adjusted expenses across participants who consumed each category.
-     * Each consumer pays an equal share of the category's adjusted cost.
+     * Each consumer pays an equal share of the category's adjusted cost. The shares are summed
+     * unrounded and the participant's total is rounded to the cent once.
      */
-    private Map<Participant, Double> calculateParticipantConsumption(
-            Map<Category, Double> adjustedCategoryExpense,
-            Map<Category, List<Participant>> consumedPerCategory) {
-
-        Map<Participant, Double> totalConsumed = new HashMap<>();
-
-        for (Map.Entry<Category, Double> entry : adjustedCategoryExpense.entrySet()) {
-            Category category = entry.getKey();
-            double expenseToShare = entry.getValue();
-
-            List<Participant> consumers = consumedPerCategory.get(category);
-            if (consumers == null || consumers.isEmpty()) continue;
-
-            double sharePerParticipant = expenseToShare / consumers.size();
-
-            for (Participant participant : consumers) {
-                totalConsumed.put(
-                        participant,
-                        totalConsumed.getOrDefault(participant, 0.0) + sharePerParticipant
-                );
+    private void calculateParticipantConsumption(EventMatrix matrix) {
+        long[] expenseByCategory = matrix.expenseByCategory();
+        ConsumptionMatrix consumption = matrix.getConsumption();
+        int[] consumerCount = consumption.consumerCounts();
+        long[] rows = consumption.rows();
+        long[] consumed = matrix.consumedByParticipant();
+        int words = consumption.wordsPerParticipant();
+        double adjustmentFactor = adjustmentFactor(
+                matrix.getParticipationFee() * matrix.getParticipantCount(), totalExpenses(expenseByCategory));
+
+        for (int p = 0; p < consumed.length; p++) {
+            double total = 0.0;
+            int rowStart = p * words;
+
+            // walk the set bits of the participant's consumption row
+            for (int w = 0; w < words; w++) {
+                long bits = rows[rowStart + w];
+                while (bits != 0) {
+                    int c = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    total += (double) expenseByCategory[c] / consumerCount[c];
+                    bits &= bits - 1;
+                }
             }
+            consumed[p] = Math.round(total * adjustmentFactor);
         }
-        return totalConsumed;
     }
 
     /**
-     * Calculates net balances for each participant and classifies them as creditors or debtors.
+     * Calculates the net balance of each participant.
      * A positive balance indicates a creditor, negative indicates a debtor.
      */
-    private void calculateNetBalances(
-            Map<Participant, Double> totalExpensesByParticipant,
-            Map<Participant, Double> totalConsumedByParticipant,
-            List<Participant> creditors,
-            List<Participant> debtors, double participationFee,
-            Event event
-    ) {
-        for (Participant participant : event.getParticipants()) {
-            double totalPaid = totalExpensesByParticipant.getOrDefault(participant, 0.0);
-            double totalConsumed = totalConsumedByParticipant.getOrDefault(participant, 0.0);
-            double netBalance = totalPaid - (totalConsumed + participationFee);
-
-            participant.setBalance(netBalance);
-
-            if (netBalance > 0) {
-                creditors.add(participant);
-            } else if (netBalance < 0) {
-                debtors.add(participant);
-            }
+    private void calculateNetBalances(EventMatrix matrix) {
+        long[] paid = matrix.paidByParticipant();
+        long[] consumed = matrix.consumedByParticipant();
+        long[] balances = matrix.balanceByParticipant();
+        long participationFee = matrix.getParticipationFee();
+
+        for (int p = 0; p < balances.length; p++) {
+            balances[p] = paid[p] - (consumed[p] + participationFee);
         }
-
-        // Sort to ensure deterministic order for debt generation
-        Collections.sort(creditors);
-        Collections.sort(debtors);
     }
 
     /**
-     * Creates a list of debts between debtors and creditors based on their net balances.
-     * Transfers minimal amounts until all balances are close to zero.
+     * The participation fee lowers every category by the same proportion, so every share of a
+     * category expense is scaled by {@code 1 - totalParticipationFee / totalExpenses}.
+     *
+     * @param totalParticipationFee the fee of all participants together, in cents
+     * @param totalExpenses         the expenses of all categories together, in cents
+     * @return the factor applied to unadjusted shares
      */
-    private List<Debt> generateDebts(List<Participant> creditors, List<Participant> debtors) {
-        List<Debt> debts = new ArrayList<>();
-
-        // Temporary balances to avoid modifying the original participants
-        Map<Participant, Double> tempBalances = new HashMap<>();
-        creditors.forEach(c -> tempBalances.put(c, c.getBalance()));
-        debtors.forEach(d -> tempBalances.put(d, d.getBalance()));
-
-        while (!creditors.isEmpty() && !debtors.isEmpty()) {
-            Participant creditor = creditors.get(0);
-            Participant debtor = debtors.get(0);
-
-            double amountToReceive = tempBalances.get(creditor);
-            double amountToPay = -tempBalances.get(debtor);
-
-            double transferAmount = Math.min(amountToReceive, amountToPay);
-
-            debts.add(new Debt(debtor, creditor, transferAmount));
-
-            // Update temporary balances instead of real participant balance
-            tempBalances.put(creditor, tempBalances.get(creditor) - transferAmount);
-            tempBalances.put(debtor, tempBalances.get(debtor) + transferAmount);
-
-            if (Math.abs(tempBalances.get(creditor)) < 0.1) {
-                creditors.remove(0);
-            }
+    static double adjustmentFactor(long totalParticipationFee, long totalExpenses) {
+        if (totalExpenses == 0) {
+            return 0.0;
+        }
+        return 1.0 - (double) totalParticipationFee / totalExpenses;
+    }
 
-            if (Math.abs(tempBalances.get(debtor)) < 0.1) {
-                debtors.remove(0);
-            }
+    /**
+     * @param totalParticipationFee the fee of all participants together, in cents
+     * @param categoryExpense       the expense of one category, in cents
+     * @param totalExpenses         the expenses of all categories together, in cents
+     * @return the part of the total fee that goes to the category, rounded to the cent
+     */
+    static long subsidy(long totalParticipationFee, long categoryExpense, long totalExpenses) {
+        if (totalExpenses == 0) {
+            return 0;
         }
+        return Math.round((double) totalParticipationFee * categoryExpense / totalExpenses);
+    }
 
-        return debts;
+    private static long totalExpenses(long[] expenseByCategory) {
+        long totalExpenses = 0;
+        for (long expense : expenseByCategory) {
+            totalExpenses += expense;
+        }
+        return totalExpenses;
     }
 }
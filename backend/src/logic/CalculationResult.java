@@ -0,0 +1,127 @@
+package logic;
+
+import java.util.*;
+
+/**
+ * CalculationResult holds the outcome of calculating one event: every participant's total
+ * consumed and balance, the adjusted expense of every category and the debts settling the
+ * balances.
+ *
+ * A result is immutable and never touches the event it was calculated from, so results can
+ * be produced and read on any thread. {@link #applyTo(Event)} copies it into the event's
+ * participants and maps when the event itself should show the results.
+ */
+public final class CalculationResult {
+
+    private final int eventId;
+    private final Participant[] participants;
+    private final Category[] categories;
+    private final long[] consumedByParticipant;
+    private final long[] balanceByParticipant;
+    private final long[] adjustedByCategory;
+    private final List<Debt> debts;
+
+    /**
+     * Takes ownership of the given arrays; callers must not modify them afterwards.
+     */
+    CalculationResult(int eventId, Participant[] participants, Category[] categories,
+                      long[] consumedByParticipant, long[] balanceByParticipant,
+                      long[] adjustedByCategory, List<Debt> debts) {
+        this.eventId = eventId;
+        this.participants = participants;
+        this.categories = categories;
+        this.consumedByParticipant = consumedByParticipant;
+        this.balanceByParticipant = balanceByParticipant;
+        this.adjustedByCategory = adjustedByCategory;
+        this.debts = Collections.unmodifiableList(new ArrayList<>(debts));
+    }
+
+    /**
+     * @return the ID of the calculated event (0 if it was never saved)
+     */
+    public int getEventId() {
+        return eventId;
+    }
+
+    /**
+     * @return the number of participants in the result
+     */
+    public int getParticipantCount() {
+        return participants.length;
+    }
+
+    /**
+     * @param ordinal the participant's position in the event
+     * @return the participant
+     */
+    public Participant getParticipant(int ordinal) {
+        return participants[ordinal];
+    }
+
+    /**
+     * @param ordinal the participant's position in the event
+     * @return the participant's total consumed, in cents
+     */
+    public long getTotalConsumed(int ordinal) {
+        return consumedByParticipant[ordinal];
+    }
+
+    /**
+     * @param ordinal the participant's position in the event
+     * @return the participant's net balance, in cents
+     */
+    public long getBalance(int ordinal) {
+        return balanceByParticipant[ordinal];
+    }
+
+    /**
+     * @return the number of categories in the result
+     */
+    public int getCategoryCount() {
+        return categories.length;
+    }
+
+    /**
+     * @param ordinal the category's position in the event
+     * @return the category
+     */
+    public Category getCategory(int ordinal) {
+        return categories[ordinal];
+    }
+
+    /**
+     * @param ordinal the category's position in the event
+     * @return the category's expense after the participation fee adjustment, in cents
+     */
+    public long getAdjustedExpense(int ordinal) {
+        return adjustedByCategory[ordinal];
+    }
+
+    /**
+     * @return the unmodifiable list of debts settling the balances
+     */
+    public List<Debt> getDebts() {
+        return debts;
+    }
+
+    /**
+     * Writes the result to the event: each participant's total consumed and balance,
+     * the adjusted expense per category and the debts settling the balances.
+     *
+     * @param event the event the result was calculated from
+     */
+    public void applyTo(Event event) {
+        for (int p = 0; p < participants.length; p++) {
+            participants[p].setTotalConsumed(consumedByParticipant[p]);
+            participants[p].setBalance(balanceByParticipant[p]);
+        }
+
+        Map<Category, Long> adjustedCategoryExpense = new HashMap<>();
+        for (int c = 0; c < categories.length; c++) {
+            adjustedCategoryExpense.put(categories[c], adjustedByCategory[c]);
+        }
+        event.setAdjustedTotalExpensePerCategory(adjustedCategoryExpense);
+
+        event.setDebts(new ArrayList<>(debts));
+    }
+}
@@ -0,0 +1,182 @@
+package logic;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * ConsumptionMatrix records which participants consumed which categories of an event.
+ *
+ * Each participant has a bitset row keyed by category ordinal (the category's position in
+ * the event), and the consumers of each category are indexed in participant order.
+ * Building the matrix is linear in participants, categories and consumptions, and
+ * membership checks, consumer counts and consumer iteration need no scanning.
+ */
+public class ConsumptionMatrix {
+
+    private final int participantCount;
+    private final int categoryCount;
+    private final int wordsPerParticipant;
+    private final long[] rows;
+    private final int[] consumerCount;
+
+    // consumers of category c are consumers[consumerStart[c] .. consumerStart[c + 1])
+    private final int[] consumerStart;
+    private final int[] consumers;
+
+    private ConsumptionMatrix(int participantCount, int categoryCount, long[] rows, int[] consumerCount) {
+        this.participantCount = participantCount;
+        this.categoryCount = categoryCount;
+        this.wordsPerParticipant = wordsFor(categoryCount);
+        this.rows = rows;
+        this.consumerCount = consumerCount;
+        this.consumerStart = new int[categoryCount + 1];
+
+        for (int c = 0; c < categoryCount; c++) {
+            consumerStart[c + 1] = consumerStart[c] + consumerCount[c];
+        }
+        this.consumers = new int[consumerStart[categoryCount]];
+
+        // counting sort of the set bits, so every category's consumers stay in participant order
+        int[] next = new int[categoryCount];
+        System.arraycopy(consumerStart, 0, next, 0, categoryCount);
+        for (int p = 0; p < participantCount; p++) {
+            int rowStart = p * wordsPerParticipant;
+            for (int w = 0; w < wordsPerParticipant; w++) {
+                long bits = rows[rowStart + w];
+                while (bits != 0) {
+                    int c = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    consumers[next[c]++] = p;
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the consumption matrix of the given participants over the given categories.
+     * Consumed categories that are not in the list are ignored, and a category listed
+     * more than once uses the ordinal of its first occurrence.
+     *
+     * @param participants the participants, in ordinal order
+     * @param categories   the categories, in ordinal order
+     * @return the consumption matrix
+     */
+    public static ConsumptionMatrix of(List<Participant> participants, List<Category> categories) {
+        return of(participants.toArray(new Participant[0]), ordinals(categories), categories.size());
+    }
+
+    /**
+     * Builds the consumption matrix using an existing category ordinal index.
+     */
+    static ConsumptionMatrix of(Participant[] participants, Map<Category, Integer> categoryOrdinals, int categoryCount) {
+        int words = wordsFor(categoryCount);
+        long[] rows = new long[participants.length * words];
+        int[] consumerCount = new int[categoryCount];
+
+        for (int p = 0; p < participants.length; p++) {
+            int rowStart = p * words;
+            for (Category category : participants[p].getConsumedCategories()) {
+                Integer c = categoryOrdinals.get(category);
+                if (c == null) {
+                    continue;
+                }
+                long bit = 1L << c;
+                int word = rowStart + (c >>> 6);
+                if ((rows[word] & bit) == 0) {
+                    rows[word] |= bit;
+                    consumerCount[c]++;
+                }
+            }
+        }
+
+        return new ConsumptionMatrix(participants.length, categoryCount, rows, consumerCount);
+    }
+
+    /**
+     * Maps each category to its ordinal, keeping the first position of repeated categories.
+     *
+     * @param categories the categories, in ordinal order
+     * @return the category ordinal index
+     */
+    static Map<Category, Integer> ordinals(List<Category> categories) {
+        Map<Category, Integer> ordinals = new HashMap<>();
+        for (int c = 0; c < categories.size(); c++) {
+            ordinals.putIfAbsent(categories.get(c), c);
+        }
+        return ordinals;
+    }
+
+    private static int wordsFor(int categoryCount) {
+        return (categoryCount + 63) >>> 6;
+    }
+
+    /**
+     * Checks whether a participant consumed a category.
+     *
+     * @param participant the participant ordinal
+     * @param category    the category ordinal
+     * @return true if the participant consumed the category
+     */
+    public boolean consumes(int participant, int category) {
+        return (rows[participant * wordsPerParticipant + (category >>> 6)] & (1L << category)) != 0;
+    }
+
+    /**
+     * @param category the category ordinal
+     * @return the number of participants who consumed the category
+     */
+    public int getConsumerCount(int category) {
+        return consumerCount[category];
+    }
+
+    /**
+     * Returns the participant ordinal of the i-th consumer of a category, in participant order.
+     *
+     * @param category the category ordinal
+     * @param index    the consumer index, from 0 to the consumer count (exclusive)
+     * @return the participant ordinal
+     */
+    public int getConsumer(int category, int index) {
+        return consumers[consumerStart[category] + index];
+    }
+
+    /**
+     * Calls the action with the ordinal of every consumer of a category, in participant order.
+     *
+     * @param category the category ordinal
+     * @param action   the action to run for each consumer
+     */
+    public void forEachConsumer(int category, IntConsumer action) {
+        for (int i = consumerStart[category]; i < consumerStart[category + 1]; i++) {
+            action.accept(consumers[i]);
+        }
+    }
+
+    /**
+     * @return the number of participants in the matrix
+     */
+    public int getParticipantCount() {
+        return participantCount;
+    }
+
+    /**
+     * @return the number of categories in the matrix
+     */
+    public int getCategoryCount() {
+        return categoryCount;
+    }
+
+    long[] rows() {
+        return rows;
+    }
+
+    int wordsPerParticipant() {
+        return wordsPerParticipant;
+    }
+
+    int[] consumerCounts() {
+        return consumerCount;
+    }
+}
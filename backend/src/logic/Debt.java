@@ -9,16 +9,16 @@ public class Debt {
 
     private Participant debtor;
     private Participant creditor;
-    private double amount;
+    private long amount;
 
     /**
      * Constructs a Debt object representing an amount owed from one participant to another.
      *
      * @param debtor   the participant who owes the money
      * @param creditor the participant to whom the money is owed
-     * @param amount   the amount of money owed
+     * @param amount   the amount of money owed, in cents
      */
-    public Debt(Participant debtor, Participant creditor, double amount) {
+    public Debt(Participant debtor, Participant creditor, long amount) {
         this.debtor = debtor;
         this.creditor = creditor;
         this.amount = amount;
@@ -39,9 +39,9 @@ public class Debt {
     }
 
     /**
-     * @return the amount of money owed
+     * @return the amount of money owed, in cents
      */
-    public double getAmount() {
+    public long getAmount() {
         return amount;
     }
 
@@ -52,6 +52,6 @@ public class Debt {
      * @return formatted string representation of the debt
      */
     public String toString() {
-        return String.format("%s owes %.2f to %s", debtor.getName(), amount, creditor.getName()) ;
+        return String.format("%s owes %s to %s", debtor.getName(), Money.format(amount), creditor.getName()) ;
     }
 }
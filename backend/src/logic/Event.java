@@ -13,26 +13,34 @@ public class Event {
     private int id;
     private String eventName;
     private LocalDate date;
-    private double participationFee;
+    private long participationFee;
 
     private List<Participant> participants;
     private List<Category> categories;
     private List<Debt> debts;
 
-    private Map<Category, Double> totalExpensePerCategory;
-    private Map<Category, Double> adjustedTotalExpensePerCategory;
+    private Map<Category, Long> totalExpensePerCategory;
+    private Map<Category, Long> adjustedTotalExpensePerCategory;
     private Map<Category, List<Participant>> consumedPerCategory;
-    private Map<Category, Map<Participant, Double>> expensePerCategory;
+    private Map<Category, Map<Participant, Long>> expensePerCategory;
 
+    // created on the first single edit, dropped whenever participants or categories change
+    private IncrementalCalculationEngine incrementalEngine;
+
+    // the rows as of the last save or load, null if the event was never saved
+    private EventSnapshot persistedSnapshot;
+
+    // true while the results loaded from the database still match the event
+    private boolean resultsLoaded;
 
     /**
      * Constructs a new Event with the given name, participation fee, and date.
      *
      * @param name             the name of the event
-     * @param participationFee the fee each participant pays
+     * @param participationFee the fee each participant pays, in cents
      * @param date             the date of the event
      */
-    public Event(String name, double participationFee, LocalDate date) {
+    public Event(String name, long participationFee, LocalDate date) {
         this.eventName = name;
         this.participationFee = participationFee;
         this.date = date;
@@ -54,6 +62,8 @@ public class Event {
      */
     public void addParticipant(Participant participant) {
         participants.add(participant);
+        incrementalEngine = null;
+        resultsLoaded = false;
     }
 
     /**
@@ -63,6 +73,121 @@ public class Event {
      */
     public void addCategory(Category category) {
         categories.add(category);
+        // incremental updates keep the per-category maps, so the new category needs its entries
+        consumedPerCategory.putIfAbsent(category, new ArrayList<>());
+        expensePerCategory.putIfAbsent(category, new HashMap<>());
+        incrementalEngine = null;
+        resultsLoaded = false;
+    }
+
+    /**
+     * Removes a participant from the event.
+     *
+     * @param participant the participant to remove
+     */
+    public void removeParticipant(Participant participant) {
+        participants.remove(participant);
+        incrementalEngine = null;
+        resultsLoaded = false;
+    }
+
+    /**
+     * Removes a category from the event, together with every participant's expense on it
+     * and consumption of it.
+     *
+     * @param category the category to remove
+     */
+    public void removeCategory(Category category) {
+        categories.removeIf(eventCategory -> eventCategory.equals(category));
+        for (Participant participant : participants) {
+            participant.getExpenses().keySet().removeIf(expenseCategory -> expenseCategory.equals(category));
+            participant.getConsumedCategories().removeIf(consumedCategory -> consumedCategory.equals(category));
+        }
+        incrementalEngine = null;
+        resultsLoaded = false;
+    }
+
+    /**
+     * Renames every category of the event that equals the given one.
+     *
+     * @param category the category to rename
+     * @param newName  the new name of the category
+     */
+    public void renameCategory(Category category, String newName) {
+        for (Category eventCategory : categories) {
+            if (eventCategory.equals(category)) {
+                eventCategory.setName(newName);
+            }
+        }
+        // unsaved categories are hashed by name, so the compiled ordinals no longer apply
+        incrementalEngine = null;
+    }
+
+    /**
+     * Sets the amount a participant spent on a category and updates the calculation incrementally.
+     *
+     * @param participant a participant of the event
+     * @param category    the category of the expense
+     * @param amount      the new amount, in cents
+     */
+    public void setExpense(Participant participant, Category category, long amount) {
+        IncrementalCalculationEngine engine = getIncrementalEngine();
+        resultsLoaded = false;
+        Long previous = participant.getExpenses().put(category, amount);
+        engine.expenseChanged(participant, category, previous == null ? 0 : previous, amount);
+
+        Map<Participant, Long> participantExpenses = expensePerCategory.computeIfAbsent(category, c -> new HashMap<>());
+        if (amount > 0) {
+            participantExpenses.put(participant, amount);
+        } else {
+            participantExpenses.remove(participant);
+        }
+    }
+
+    /**
+     * Marks whether a participant consumed a category and updates the calculation incrementally.
+     *
+     * @param participant a participant of the event
+     * @param category    the category
+     * @param consumed    true to add the category to the participant's consumption, false to remove it
+     */
+    public void setConsumed(Participant participant, Category category, boolean consumed) {
+        IncrementalCalculationEngine engine = getIncrementalEngine();
+        resultsLoaded = false;
+        List<Category> consumedCategories = participant.getConsumedCategories();
+        List<Participant> consumers = consumedPerCategory.computeIfAbsent(category, c -> new ArrayList<>());
+
+        if (consumed) {
+            if (!consumedCategories.contains(category)) {
+                consumedCategories.add(category);
+                engine.consumptionAdded(participant, category);
+                consumers.add(participant);
+            }
+        } else if (consumedCategories.removeIf(consumedCategory -> consumedCategory.equals(category))) {
+            engine.consumptionRemoved(participant, category);
+            consumers.remove(participant);
+        }
+    }
+
+    /**
+     * Brings balances, category totals and debts up to date.
+     * After single edits only the incremental results are written back; results loaded
+     * from the database are kept as long as the event was not changed; otherwise the
+     * event is fully recalculated.
+     */
+    public void updateCalculations() {
+        if (incrementalEngine != null) {
+            incrementalEngine.applyTo(this);
+        } else if (!resultsLoaded) {
+            finalizeCalculations();
+        }
+    }
+
+    private IncrementalCalculationEngine getIncrementalEngine() {
+        if (incrementalEngine == null) {
+            incrementalEngine = new IncrementalCalculationEngine(this);
+        }
+        return incrementalEngine;
     }
 
     // ---------------------- Getters and Setters ----------------------
@@ -87,7 +212,7 @@ public class Event {
         return debts;
     }
 
-    public double getParticipationFee() {
+    public long getParticipationFee() {
         return participationFee;
     }
 
@@ -95,8 +220,12 @@ public class Event {
         this.eventName = name;
     }
 
-    public void setParticipationFee(double amount) {
+    public void setParticipationFee(long amount) {
         this.participationFee = amount;
+        this.resultsLoaded = false;
+        if (incrementalEngine != null) {
+            incrementalEngine.participationFeeChanged(amount);
+        }
     }
 
     public void setDate(LocalDate date) {
@@ -105,10 +234,14 @@ public class Event {
 
     public void setParticipants(List<Participant> participants) {
         this.participants = participants;
+        this.incrementalEngine = null;
+        this.resultsLoaded = false;
     }
 
     public void setCategories(List<Category> categories) {
         this.categories = categories;
+        this.incrementalEngine = null;
+        this.resultsLoaded = false;
     }
 
     public int getId() {
@@ -119,15 +252,38 @@ public class Event {
         this.id = id;
     }
 
+    /**
+     * @return the rows of the event as of the last save or load, or null if it was never saved
+     */
+    public EventSnapshot getPersistedSnapshot() {
+        return persistedSnapshot;
+    }
+
+    /**
+     * Records the rows of the event that are now in the database.
+     *
+     * @param persistedSnapshot the snapshot taken when the event was saved or loaded
+     */
+    public void setPersistedSnapshot(EventSnapshot persistedSnapshot) {
+        this.persistedSnapshot = persistedSnapshot;
+    }
+
+    /**
+     * @return true if the results were loaded from the database and the event was not changed since
+     */
+    public boolean hasLoadedResults() {
+        return resultsLoaded;
+    }
+
     public Map<Category, List<Participant>> getConsumedPerCategory() {
         return consumedPerCategory;
     }
 
-    public Map<Category, Map<Participant, Double>> getExpensePerCategory() {
+    public Map<Category, Map<Participant, Long>> getExpensePerCategory() {
         return expensePerCategory;
     }
 
-    public Map<Category, Double> getTotalExpensePerCategory() {
+    public Map<Category, Long> getTotalExpensePerCategory() {
         return totalExpensePerCategory;
     }
 
@@ -135,11 +291,11 @@ public class Event {
         return date;
     }
 
-    public void setAdjustedTotalExpensePerCategory(Map<Category, Double> adjustedTotalExpensePerCategory) {
+    public void setAdjustedTotalExpensePerCategory(Map<Category, Long> adjustedTotalExpensePerCategory) {
         this.adjustedTotalExpensePerCategory = adjustedTotalExpensePerCategory;
     }
 
-    public Map<Category, Double> getAdjustedTotalExpensePerCategory() {
+    public Map<Category, Long> getAdjustedTotalExpensePerCategory() {
         return adjustedTotalExpensePerCategory;
     }
 
@@ -147,46 +303,47 @@ public class Event {
 
     /**
      * Populates the expensePerCategory map with participant expenses per category.
+     * Walks each participant's own expenses once instead of probing every category.
      */
     public void fillExpensePerCategory() {
         expensePerCategory.clear();
 
         // iterate throw all categories in this event
         for (Category category : categories) {
-            Map<Participant, Double> participantExpenses = new HashMap<>();
+            expensePerCategory.putIfAbsent(category, new HashMap<>());
+        }
 
-            // iterate throw all participants in this event
-            for (Participant participant : participants) {
+        // iterate throw all participants in this event
+        for (Participant participant : participants) {
 
-                // getExpenses returns Map<Category, Double> - it's all the category that the participant spent money on
-                // and the amount of money that he spent on the category
-                Double amount = participant.getExpenses().get(category);
-                if (amount != null && amount > 0) {
+            // getExpenses returns Map<Category, Long> - it's all the category that the participant spent money on
+            // and the amount of money that he spent on the category
+            for (Map.Entry<Category, Long> expense : participant.getExpenses().entrySet()) {
+                Map<Participant, Long> participantExpenses = expensePerCategory.get(expense.getKey());
+                Long amount = expense.getValue();
+                if (participantExpenses != null && amount != null && amount > 0) {
                     // put the amount of money that participant spent money on the current category int participantExpenses map
                     participantExpenses.put(participant, amount);
                 }
             }
-            expensePerCategory.put(category, participantExpenses);
         }
     }
 
     /**
      * Populates the consumedPerCategory map with participants who consumed each category.
+     * Runs in linear time using a {@link ConsumptionMatrix} of the event.
      */
     public void fillConsumedPerCategory() {
         consumedPerCategory.clear();
+        ConsumptionMatrix consumption = ConsumptionMatrix.of(participants, categories);
 
         // iterate throw all categories in this event
-        for (Category category : categories) {
-            List<Participant> consumers = new ArrayList<>();
+        for (int c = 0; c < categories.size(); c++) {
+            List<Participant> consumers = new ArrayList<>(consumption.getConsumerCount(c));
+            consumption.forEachConsumer(c, p -> consumers.add(participants.get(p)));
 
-            // iterate throw all participants in this event
-            for (Participant participant : participants) {
-                if (participant.getConsumedCategories().contains(category)) {
-                    consumers.add(participant);
-                }
-            }
-            consumedPerCategory.put(category, consumers);
+            // a category listed twice keeps the consumers of its first occurrence
+            consumedPerCategory.putIfAbsent(categories.get(c), consumers);
         }
     }
 
@@ -195,12 +352,12 @@ public class Event {
      */
     public void fillTotalExpensePerCategory() {
         totalExpensePerCategory.clear();
-        for (Map.Entry<Category, Map<Participant, Double>> entry : expensePerCategory.entrySet()) {
+        for (Map.Entry<Category, Map<Participant, Long>> entry : expensePerCategory.entrySet()) {
             Category category = entry.getKey();
-            Map<Participant, Double> participantExpenses = entry.getValue();
+            Map<Participant, Long> participantExpenses = entry.getValue();
 
-            double total = 0.0;
-            for (double amount : participantExpenses.values()) {
+            long total = 0;
+            for (long amount : participantExpenses.values()) {
                 total += amount;
             }
 
@@ -220,6 +377,24 @@ public class Event {
         engine.calculateBalances(this);
     }
 
+    /**
+     * Takes over results stored with the event instead of calculating them. The participants'
+     * totals and balances and the debts must already be set; only the per-category maps are
+     * grouped from the participants' rows, which involves no arithmetic.
+     *
+     * @param totalExpensePerCategory         the stored total expense of every category, in cents
+     * @param adjustedTotalExpensePerCategory the stored adjusted expense of every category, in cents
+     */
+    public void applyLoadedResults(Map<Category, Long> totalExpensePerCategory,
+                                   Map<Category, Long> adjustedTotalExpensePerCategory) {
+        fillConsumedPerCategory();
+        fillExpensePerCategory();
+        this.totalExpensePerCategory.clear();
+        this.totalExpensePerCategory.putAll(totalExpensePerCategory);
+        this.adjustedTotalExpensePerCategory = adjustedTotalExpensePerCategory;
+        this.resultsLoaded = true;
+    }
+
     // ---------------------- equals, hashCode, toString ----------------------
 
     /**
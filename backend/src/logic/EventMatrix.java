@@ -0,0 +1,146 @@
+package logic;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EventMatrix is the compiled, array-based form of an event used by the calculation engine.
+ *
+ * Participants and categories get dense ordinals (their position in the event's lists),
+ * amounts are held in primitive arrays of cents and consumption in a {@link ConsumptionMatrix}.
+ * Once compiled, the engine can recalculate the matrix any number of times without
+ * allocating or hashing entities.
+ */
+public class EventMatrix {
+
+    private final Participant[] participants;
+    private final Category[] categories;
+    private final long participationFee;
+
+    private final long[] paidByParticipant;
+    private final long[] expenseByCategory;
+    private final ConsumptionMatrix consumption;
+
+    // calculation results, filled in place by the engine
+    private final long[] adjustedByCategory;
+    private final long[] consumedByParticipant;
+    private final long[] balanceByParticipant;
+
+    private EventMatrix(Participant[] participants, Category[] categories, long participationFee,
+                        ConsumptionMatrix consumption) {
+        this.participants = participants;
+        this.categories = categories;
+        this.participationFee = participationFee;
+        this.consumption = consumption;
+
+        this.paidByParticipant = new long[participants.length];
+        this.expenseByCategory = new long[categories.length];
+
+        this.adjustedByCategory = new long[categories.length];
+        this.consumedByParticipant = new long[participants.length];
+        this.balanceByParticipant = new long[participants.length];
+    }
+
+    /**
+     * Compiles the current participants, categories, expenses and consumptions of the event.
+     * Expenses and consumptions of categories that are not part of the event are counted in the
+     * participant's total paid but not in any category, the same as the category maps of the event.
+     *
+     * @param event the event to compile
+     * @return the compiled matrix
+     */
+    public static EventMatrix compile(Event event) {
+        List<Category> categoryList = event.getCategories();
+        Participant[] participants = event.getParticipants().toArray(new Participant[0]);
+        Map<Category, Integer> categoryOrdinals = ConsumptionMatrix.ordinals(categoryList);
+
+        EventMatrix matrix = new EventMatrix(
+                participants,
+                categoryList.toArray(new Category[0]),
+                event.getParticipationFee(),
+                ConsumptionMatrix.of(participants, categoryOrdinals, categoryList.size()));
+
+        for (int p = 0; p < matrix.participants.length; p++) {
+            Participant participant = matrix.participants[p];
+
+            for (Map.Entry<Category, Long> entry : participant.getExpenses().entrySet()) {
+                long amount = entry.getValue();
+                matrix.paidByParticipant[p] += amount;
+
+                Integer c = categoryOrdinals.get(entry.getKey());
+                if (c != null && amount > 0) {
+                    matrix.expenseByCategory[c] += amount;
+                }
+            }
+        }
+
+        return matrix;
+    }
+
+    /**
+     * Checks whether a participant consumed a category.
+     *
+     * @param participant the participant ordinal
+     * @param category    the category ordinal
+     * @return true if the participant consumed the category
+     */
+    public boolean consumes(int participant, int category) {
+        return consumption.consumes(participant, category);
+    }
+
+    /**
+     * @return the consumption matrix of the event
+     */
+    public ConsumptionMatrix getConsumption() {
+        return consumption;
+    }
+
+    /**
+     * @return the number of participants in the matrix
+     */
+    public int getParticipantCount() {
+        return participants.length;
+    }
+
+    /**
+     * @return the number of categories in the matrix
+     */
+    public int getCategoryCount() {
+        return categories.length;
+    }
+
+    /**
+     * @return the fee each participant pays, in cents
+     */
+    public long getParticipationFee() {
+        return participationFee;
+    }
+
+    Participant[] participants() {
+        return participants;
+    }
+
+    Category[] categories() {
+        return categories;
+    }
+
+    long[] paidByParticipant() {
+        return paidByParticipant;
+    }
+
+    long[] expenseByCategory() {
+        return expenseByCategory;
+    }
+
+    long[] adjustedByCategory() {
+        return adjustedByCategory;
+    }
+
+    long[] consumedByParticipant() {
+        return consumedByParticipant;
+    }
+
+    long[] balanceByParticipant() {
+        return balanceByParticipant;
+    }
+}
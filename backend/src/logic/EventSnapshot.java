@@ -0,0 +1,189 @@
+package logic;
+
+import java.util.*;
+
+/**
+ * EventSnapshot records the rows of an event as they were last saved, keyed by database IDs.
+ *
+ * Comparing the snapshot of the last save with a snapshot of the current state tells which
+ * expense, consumption and debt rows have to be inserted, updated or deleted, so a save
+ * touches only what changed instead of rewriting the whole event. Expenses and consumptions
+ * are keyed by {@link #key(int, int)} of participant and category ID, debts by the key of
+ * debtor and creditor ID.
+ *
+ * The snapshot also carries a content version: a hash of everything the calculation depends
+ * on (participation fee, participants, categories, expenses and consumptions). Results stored
+ * with the same version are still valid for the event.
+ */
+public final class EventSnapshot {
+
+    private final int eventId;
+    private final Map<Integer, String> participantPhones;
+    private final Map<Integer, String> categoryNames;
+    private final Map<Long, Long> expenses;
+    private final Set<Long> consumptions;
+    private final Map<Long, List<Long>> debts;
+    private final long contentVersion;
+
+    private EventSnapshot(int eventId, Map<Integer, String> participantPhones, Map<Integer, String> categoryNames,
+                          Map<Long, Long> expenses, Set<Long> consumptions, Map<Long, List<Long>> debts,
+                          long contentVersion) {
+        this.eventId = eventId;
+        this.participantPhones = Collections.unmodifiableMap(participantPhones);
+        this.categoryNames = Collections.unmodifiableMap(categoryNames);
+        this.expenses = Collections.unmodifiableMap(expenses);
+        this.consumptions = Collections.unmodifiableSet(consumptions);
+        this.debts = Collections.unmodifiableMap(debts);
+        this.contentVersion = contentVersion;
+    }
+
+    /**
+     * Takes a snapshot of the event. The event, its participants and its categories must
+     * already have their database IDs.
+     *
+     * @param event the saved event
+     * @return the rows of the event
+     */
+    public static EventSnapshot of(Event event) {
+        Map<Integer, String> participantPhones = new HashMap<>();
+        Map<Long, Long> expenses = new HashMap<>();
+        Set<Long> consumptions = new HashSet<>();
+        for (Participant participant : event.getParticipants()) {
+            participantPhones.put(participant.getId(), participant.getPhoneNumber());
+            for (Map.Entry<Category, Long> entry : participant.getExpenses().entrySet()) {
+                expenses.put(key(participant.getId(), entry.getKey().getId()), entry.getValue());
+            }
+            for (Category category : participant.getConsumedCategories()) {
+                consumptions.add(key(participant.getId(), category.getId()));
+            }
+        }
+
+        Map<Integer, String> categoryNames = new HashMap<>();
+        for (Category category : event.getCategories()) {
+            categoryNames.put(category.getId(), category.getName());
+        }
+
+        Map<Long, List<Long>> debts = new HashMap<>();
+        for (Debt debt : event.getDebts()) {
+            debts.computeIfAbsent(key(debt.getDebtor().getId(), debt.getCreditor().getId()), pair -> new ArrayList<>())
+                    .add(debt.getAmount());
+        }
+        for (List<Long> amounts : debts.values()) {
+            Collections.sort(amounts);
+        }
+
+        long contentVersion = contentVersion(event.getParticipationFee(), participantPhones.keySet(),
+                categoryNames.keySet(), expenses, consumptions);
+        return new EventSnapshot(event.getId(), participantPhones, categoryNames, expenses, consumptions, debts,
+                contentVersion);
+    }
+
+    /**
+     * Hashes the inputs of the calculation. Every row is hashed on its own and the hashes are
+     * added up, so the version does not depend on the order of participants, categories or
+     * rows. Phone numbers, category names and debts do not affect the version.
+     */
+    private static long contentVersion(long participationFee, Set<Integer> participantIds, Set<Integer> categoryIds,
+                                       Map<Long, Long> expenses, Set<Long> consumptions) {
+        long version = mix(participationFee);
+        for (int participantId : participantIds) {
+            version += mix(mix(participantId) + 1);
+        }
+        for (int categoryId : categoryIds) {
+            version += mix(mix(categoryId) + 2);
+        }
+        for (Map.Entry<Long, Long> expense : expenses.entrySet()) {
+            version += mix(mix(mix(expense.getKey()) + expense.getValue()) + 3);
+        }
+        for (long consumption : consumptions) {
+            version += mix(mix(consumption) + 4);
+        }
+        return version;
+    }
+
+    /**
+     * The SplitMix64 finalizer, which spreads every input bit over the whole result.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Packs two IDs into one key.
+     *
+     * @param first  the participant or debtor ID
+     * @param second the category or creditor ID
+     * @return the key of the pair
+     */
+    public static long key(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param key a key made by {@link #key(int, int)}
+     * @return the participant or debtor ID of the key
+     */
+    public static int firstId(long key) {
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * @param key a key made by {@link #key(int, int)}
+     * @return the category or creditor ID of the key
+     */
+    public static int secondId(long key) {
+        return (int) key;
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    /**
+     * @return the hash of the calculation inputs of the event
+     */
+    public long getContentVersion() {
+        return contentVersion;
+    }
+
+    public Set<Integer> getParticipantIds() {
+        return participantPhones.keySet();
+    }
+
+    /**
+     * @return the phone number of every participant of the event, by participant ID
+     */
+    public Map<Integer, String> getParticipantPhones() {
+        return participantPhones;
+    }
+
+    /**
+     * @return the name of every category of the event, by category ID
+     */
+    public Map<Integer, String> getCategoryNames() {
+        return categoryNames;
+    }
+
+    /**
+     * @return the expense amount in cents, by participant and category key
+     */
+    public Map<Long, Long> getExpenses() {
+        return expenses;
+    }
+
+    /**
+     * @return the participant and category keys of all consumptions
+     */
+    public Set<Long> getConsumptions() {
+        return consumptions;
+    }
+
+    /**
+     * @return the ascending debt amounts in cents, by debtor and creditor key
+     */
+    public Map<Long, List<Long>> getDebts() {
+        return debts;
+    }
+}
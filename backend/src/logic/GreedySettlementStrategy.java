@@ -0,0 +1,80 @@
+package logic;
+
+import java.util.*;
+
+/**
+ * The original list-based settlement: creditors and debtors are sorted by balance and
+ * paired from the front of each list until all balances are settled.
+ *
+ * Kept for reference and comparison; {@link SortedArraySettlementStrategy} produces the
+ * same debts without the list shifting and boxed lookups.
+ */
+public class GreedySettlementStrategy implements SettlementStrategy {
+
+    /**
+     * Classifies the participants as creditors or debtors and pairs them greedily.
+     *
+     * @param participants the participants, in the order of {@code balances}
+     * @param balances     the net balance of each participant, in cents
+     * @return the list of debts between debtors and creditors
+     */
+    @Override
+    public List<Debt> settle(Participant[] participants, long[] balances) {
+        List<Participant> creditors = new ArrayList<>();
+        List<Participant> debtors = new ArrayList<>();
+
+        // Temporary balances to avoid modifying the original participants
+        Map<Participant, Long> tempBalances = new HashMap<>();
+
+        for (int i = 0; i < participants.length; i++) {
+            if (balances[i] > 0) {
+                creditors.add(participants[i]);
+                tempBalances.put(participants[i], balances[i]);
+            } else if (balances[i] < 0) {
+                debtors.add(participants[i]);
+                tempBalances.put(participants[i], balances[i]);
+            }
+        }
+
+        // Sort to ensure deterministic order for debt generation
+        creditors.sort(Comparator.comparingLong(tempBalances::get));
+        debtors.sort(Comparator.comparingLong(tempBalances::get));
+
+        return generateDebts(creditors, debtors, tempBalances);
+    }
+
+    /**
+     * Creates a list of debts between debtors and creditors based on their net balances.
+     * Transfers minimal amounts until one side has no open balance left.
+     */
+    private List<Debt> generateDebts(List<Participant> creditors, List<Participant> debtors,
+                                     Map<Participant, Long> tempBalances) {
+        List<Debt> debts = new ArrayList<>();
+
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            Participant creditor = creditors.get(0);
+            Participant debtor = debtors.get(0);
+
+            long amountToReceive = tempBalances.get(creditor);
+            long amountToPay = -tempBalances.get(debtor);
+
+            long transferAmount = Math.min(amountToReceive, amountToPay);
+
+            debts.add(new Debt(debtor, creditor, transferAmount));
+
+            // Update temporary balances instead of real participant balance
+            tempBalances.put(creditor, tempBalances.get(creditor) - transferAmount);
+            tempBalances.put(debtor, tempBalances.get(debtor) + transferAmount);
+
+            if (tempBalances.get(creditor) == 0) {
+                creditors.remove(0);
+            }
+
+            if (tempBalances.get(debtor) == 0) {
+                debtors.remove(0);
+            }
+        }
+
+        return debts;
+    }
+}
@@ -0,0 +1,275 @@
+package logic;
+
+import java.util.*;
+
+/**
+ * IncrementalCalculationEngine keeps the calculation state of one event up to date while
+ * single expenses and consumptions are edited, instead of recalculating the whole event.
+ *
+ * Every participant's consumption is an unadjusted share sum (category total divided by its
+ * number of consumers, summed over the consumed categories) that is rounded to the cent only
+ * when read. An edit marks the consumers of the edited category; a marked participant's sum is
+ * computed again from the current totals, in category order, the next time it is read. The
+ * floating-point steps are thus exactly those of {@link CalculationEngine}, and so are the
+ * cents. The participation fee adjustment is the same factor
+ * {@code 1 - totalFee / totalExpenses} for every category, so it is applied when results are
+ * read. Adding or removing participants or categories requires a new engine.
+ */
+public class IncrementalCalculationEngine {
+
+    private final Participant[] participants;
+    private final Category[] categories;
+    private final Map<Participant, Integer> participantOrdinals;
+    private final Map<Category, Integer> categoryOrdinals;
+    private final SettlementStrategy settlementStrategy;
+
+    private long participationFee;
+    private long totalExpenses;
+    private final long[] paid;
+    private final long[] categoryTotal;
+    private final double[] rawConsumed;
+    // participants whose share sum must be computed again before it is read
+    private final boolean[] stale;
+
+    // consumers of category c are consumers[c][0 .. consumerCount[c]), in no particular order
+    private final int[][] consumers;
+    private final int[] consumerCount;
+    private final long[] rows;
+    private final int wordsPerParticipant;
+
+    /**
+     * Compiles the event's current state using the {@link SortedArraySettlementStrategy}.
+     *
+     * @param event the event to track
+     */
+    public IncrementalCalculationEngine(Event event) {
+        this(event, new SortedArraySettlementStrategy());
+    }
+
+    /**
+     * Compiles the event's current state.
+     *
+     * @param event              the event to track
+     * @param settlementStrategy the strategy used to turn balances into debts
+     */
+    public IncrementalCalculationEngine(Event event, SettlementStrategy settlementStrategy) {
+        EventMatrix matrix = EventMatrix.compile(event);
+        ConsumptionMatrix consumption = matrix.getConsumption();
+
+        this.participants = matrix.participants();
+        this.categories = matrix.categories();
+        this.settlementStrategy = settlementStrategy;
+        this.participationFee = matrix.getParticipationFee();
+
+        this.participantOrdinals = new IdentityHashMap<>();
+        for (int p = 0; p < participants.length; p++) {
+            participantOrdinals.put(participants[p], p);
+        }
+        this.categoryOrdinals = ConsumptionMatrix.ordinals(event.getCategories());
+
+        this.paid = matrix.paidByParticipant().clone();
+        this.categoryTotal = matrix.expenseByCategory().clone();
+        for (long total : categoryTotal) {
+            totalExpenses += total;
+        }
+
+        this.wordsPerParticipant = consumption.wordsPerParticipant();
+        this.rows = consumption.rows().clone();
+        this.consumerCount = consumption.consumerCounts().clone();
+        this.consumers = new int[categories.length][];
+        for (int c = 0; c < categories.length; c++) {
+            int[] categoryConsumers = new int[Math.max(4, consumerCount[c])];
+            for (int i = 0; i < consumerCount[c]; i++) {
+                categoryConsumers[i] = consumption.getConsumer(c, i);
+            }
+            consumers[c] = categoryConsumers;
+        }
+
+        this.rawConsumed = new double[participants.length];
+        this.stale = new boolean[participants.length];
+        Arrays.fill(stale, true);
+    }
+
+    /**
+     * Records that a participant's expense on a category changed.
+     * Only positive amounts count towards the category total, as in the full calculation.
+     * Runs in O(consumers of the category).
+     *
+     * @param participant    the participant whose expense changed
+     * @param category       the category of the expense
+     * @param previousAmount the amount before the change, in cents (0 if there was none)
+     * @param newAmount      the amount after the change, in cents (0 if it was removed)
+     */
+    public void expenseChanged(Participant participant, Category category, long previousAmount, long newAmount) {
+        int p = participantOrdinal(participant);
+        paid[p] += newAmount - previousAmount;
+
+        Integer c = categoryOrdinals.get(category);
+        if (c == null) {
+            return;
+        }
+
+        long delta = Math.max(newAmount, 0) - Math.max(previousAmount, 0);
+        if (delta == 0) {
+            return;
+        }
+        categoryTotal[c] += delta;
+        totalExpenses += delta;
+        markConsumers(c);
+    }
+
+    /**
+     * Records that a participant started consuming a category.
+     * Runs in O(consumers of the category).
+     *
+     * @param participant the participant
+     * @param category    the consumed category
+     */
+    public void consumptionAdded(Participant participant, Category category) {
+        int p = participantOrdinal(participant);
+        Integer c = categoryOrdinals.get(category);
+        if (c == null || consumes(p, c)) {
+            return;
+        }
+
+        int count = consumerCount[c];
+        if (count == consumers[c].length) {
+            consumers[c] = Arrays.copyOf(consumers[c], count * 2);
+        }
+        consumers[c][count] = p;
+        consumerCount[c] = count + 1;
+        rows[p * wordsPerParticipant + (c >>> 6)] |= 1L << c;
+        markConsumers(c);
+    }
+
+    /**
+     * Records that a participant stopped consuming a category.
+     * Runs in O(consumers of the category).
+     *
+     * @param participant the participant
+     * @param category    the category no longer consumed
+     */
+    public void consumptionRemoved(Participant participant, Category category) {
+        int p = participantOrdinal(participant);
+        Integer c = categoryOrdinals.get(category);
+        if (c == null || !consumes(p, c)) {
+            return;
+        }
+
+        int count = consumerCount[c];
+        int[] categoryConsumers = consumers[c];
+
+        // swap-remove the participant from the category's consumers
+        for (int i = 0; i < count; i++) {
+            if (categoryConsumers[i] == p) {
+                categoryConsumers[i] = categoryConsumers[count - 1];
+                break;
+            }
+        }
+        consumerCount[c] = count - 1;
+        rows[p * wordsPerParticipant + (c >>> 6)] &= ~(1L << c);
+        stale[p] = true;
+        markConsumers(c);
+    }
+
+    /**
+     * Records a new participation fee. Runs in O(1).
+     *
+     * @param participationFee the new fee each participant pays, in cents
+     */
+    public void participationFeeChanged(long participationFee) {
+        this.participationFee = participationFee;
+    }
+
+    /**
+     * @param participant a participant of the event
+     * @return the participant's current total consumed after the fee adjustment, in cents
+     */
+    public long getTotalConsumed(Participant participant) {
+        return totalConsumed(participantOrdinal(participant));
+    }
+
+    /**
+     * @param participant a participant of the event
+     * @return the participant's current net balance, in cents
+     */
+    public long getBalance(Participant participant) {
+        int p = participantOrdinal(participant);
+        return paid[p] - (totalConsumed(p) + participationFee);
+    }
+
+    /**
+     * Writes the current results to the event: every participant's total consumed and balance,
+     * the total and adjusted expense per category, and the debts settling the balances.
+     * This is the only O(event size) step and is meant to run when results are shown.
+     *
+     * @param event the tracked event
+     */
+    public void applyTo(Event event) {
+        for (int p = 0; p < participants.length; p++) {
+            long consumed = totalConsumed(p);
+            participants[p].setTotalConsumed(consumed);
+            participants[p].setBalance(paid[p] - (consumed + participationFee));
+        }
+
+        long totalParticipationFee = participationFee * participants.length;
+        Map<Category, Long> adjustedCategoryExpense = new HashMap<>();
+        for (int c = 0; c < categories.length; c++) {
+            long subsidy = CalculationEngine.subsidy(totalParticipationFee, categoryTotal[c], totalExpenses);
+            adjustedCategoryExpense.put(categories[c], categoryTotal[c] - subsidy);
+            event.getTotalExpensePerCategory().put(categories[c], categoryTotal[c]);
+        }
+        event.setAdjustedTotalExpensePerCategory(adjustedCategoryExpense);
+
+        event.setDebts(settlementStrategy.settle(event.getParticipants()));
+    }
+
+    private long totalConsumed(int p) {
+        if (stale[p]) {
+            rawConsumed[p] = shareSum(p);
+            stale[p] = false;
+        }
+        double adjustmentFactor = CalculationEngine.adjustmentFactor(participationFee * participants.length, totalExpenses);
+        return Math.round(rawConsumed[p] * adjustmentFactor);
+    }
+
+    /**
+     * Sums the participant's shares over their consumption row in category order, like
+     * {@link CalculationEngine} does, so both round to the same cent.
+     */
+    private double shareSum(int p) {
+        double total = 0.0;
+        int rowStart = p * wordsPerParticipant;
+        for (int w = 0; w < wordsPerParticipant; w++) {
+            long bits = rows[rowStart + w];
+            while (bits != 0) {
+                int c = (w << 6) + Long.numberOfTrailingZeros(bits);
+                total += (double) categoryTotal[c] / consumerCount[c];
+                bits &= bits - 1;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Marks every current consumer of the category for a new share sum. Runs in
+     * O(consumers of the category).
+     */
+    private void markConsumers(int c) {
+        for (int i = 0; i < consumerCount[c]; i++) {
+            stale[consumers[c][i]] = true;
+        }
+    }
+
+    private boolean consumes(int p, int c) {
+        return (rows[p * wordsPerParticipant + (c >>> 6)] & (1L << c)) != 0;
+    }
+
+    private int participantOrdinal(Participant participant) {
+        Integer p = participantOrdinals.get(participant);
+        if (p == null) {
+            throw new IllegalArgumentException("Participant is not part of the tracked event: " + participant.getName());
+        }
+        return p;
+    }
+}
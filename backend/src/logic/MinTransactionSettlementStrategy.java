@@ -0,0 +1,241 @@
+package logic;
+
+import java.util.*;
+
+/**
+ * Settles balances with fewer transfers by first looking for small groups of participants
+ * whose balances add up to exactly zero.
+ *
+ * A zero-sum group of k participants settles with k - 1 transfers among themselves, so every
+ * group found saves one transfer compared to settling everyone together. The search looks up
+ * balance buckets for pairs (a creditor and a debtor with opposite balances) and then triples
+ * (two participants on one side matching one on the other). Whatever is left is settled by
+ * the fallback strategy.
+ *
+ * The search stops when the time budget runs out; the remaining participants are then settled
+ * by the fallback as well. The result is never longer than the fallback's own result for
+ * the same balances, which is returned instead when the search did not help.
+ */
+public class MinTransactionSettlementStrategy implements SettlementStrategy {
+
+    private static final long DEFAULT_TIME_BUDGET_MILLIS = 50;
+
+    // how many search steps run between two checks of the clock
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private final long timeBudgetNanos;
+    private final SettlementStrategy fallback;
+
+    /**
+     * Constructs an optimizer with a 50 ms budget that falls back to the
+     * {@link SortedArraySettlementStrategy}.
+     */
+    public MinTransactionSettlementStrategy() {
+        this(DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * Constructs an optimizer with the given budget that falls back to the
+     * {@link SortedArraySettlementStrategy}.
+     *
+     * @param timeBudgetMillis the time the zero-sum search may take per settlement
+     */
+    public MinTransactionSettlementStrategy(long timeBudgetMillis) {
+        this(timeBudgetMillis, new SortedArraySettlementStrategy());
+    }
+
+    /**
+     * Constructs an optimizer with the given budget and fallback strategy.
+     *
+     * @param timeBudgetMillis the time the zero-sum search may take per settlement
+     * @param fallback         the strategy settling the participants outside zero-sum groups
+     */
+    public MinTransactionSettlementStrategy(long timeBudgetMillis, SettlementStrategy fallback) {
+        if (timeBudgetMillis < 0) {
+            throw new IllegalArgumentException("Time budget cannot be negative: " + timeBudgetMillis);
+        }
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Settles zero-sum pairs and triples among themselves and the rest with the fallback.
+     *
+     * @param participants the participants, in the order of {@code balances}
+     * @param balances     the net balance of each participant, in cents
+     * @return the list of debts between debtors and creditors
+     */
+    @Override
+    public List<Debt> settle(Participant[] participants, long[] balances) {
+        Search search = new Search(participants, balances, System.nanoTime() + timeBudgetNanos);
+        search.matchPairs();
+        search.matchTriples();
+
+        List<Debt> baseline = fallback.settle(participants, balances);
+        if (search.groupCount == 0) {
+            return baseline;
+        }
+
+        List<Debt> optimized = search.settleRemainder(fallback);
+        return optimized.size() < baseline.size() ? optimized : baseline;
+    }
+
+    /**
+     * The state of one zero-sum search: which participants are already in a group,
+     * the debts of the groups found so far and the remaining budget.
+     */
+    private static class Search {
+
+        private final Participant[] participants;
+        private final long[] balances;
+        private final long deadline;
+        private final boolean[] grouped;
+        private final List<Debt> debts = new ArrayList<>();
+        private int groupCount;
+        private int steps;
+        private boolean outOfTime;
+
+        // ascending index lists of the open creditors and debtors
+        private final List<Integer> creditors = new ArrayList<>();
+        private final List<Integer> debtors = new ArrayList<>();
+
+        Search(Participant[] participants, long[] balances, long deadline) {
+            this.participants = participants;
+            this.balances = balances;
+            this.deadline = deadline;
+            this.grouped = new boolean[participants.length];
+
+            for (int i = 0; i < balances.length; i++) {
+                if (balances[i] > 0) {
+                    creditors.add(i);
+                } else if (balances[i] < 0) {
+                    debtors.add(i);
+                }
+            }
+        }
+
+        /**
+         * Pairs every creditor with a debtor owing exactly the same amount.
+         */
+        void matchPairs() {
+            Map<Long, ArrayDeque<Integer>> debtorsByAmount = bucketByAmount(debtors);
+
+            for (int creditor : creditors) {
+                if (tick()) {
+                    break;
+                }
+                ArrayDeque<Integer> bucket = debtorsByAmount.get(balances[creditor]);
+                if (bucket != null && !bucket.isEmpty()) {
+                    int debtor = bucket.poll();
+                    addGroup(creditor, debtor);
+                    debts.add(new Debt(participants[debtor], participants[creditor], balances[creditor]));
+                }
+            }
+            removeGrouped();
+        }
+
+        /**
+         * Matches two creditors with one debtor and two debtors with one creditor.
+         */
+        void matchTriples() {
+            matchTwoAgainstOne(creditors, debtors, true);
+            matchTwoAgainstOne(debtors, creditors, false);
+        }
+
+        private void matchTwoAgainstOne(List<Integer> pairSide, List<Integer> singleSide, boolean pairSideIsCreditor) {
+            Map<Long, ArrayDeque<Integer>> singlesByAmount = bucketByAmount(singleSide);
+
+            for (int a = 0; a < pairSide.size() && !outOfTime; a++) {
+                int first = pairSide.get(a);
+                if (grouped[first]) {
+                    continue;
+                }
+                for (int b = a + 1; b < pairSide.size(); b++) {
+                    if (tick()) {
+                        break;
+                    }
+                    int second = pairSide.get(b);
+                    if (grouped[second]) {
+                        continue;
+                    }
+                    ArrayDeque<Integer> bucket = singlesByAmount.get(Math.abs(balances[first] + balances[second]));
+                    if (bucket == null || bucket.isEmpty()) {
+                        continue;
+                    }
+
+                    int single = bucket.poll();
+                    addGroup(first, second, single);
+                    for (int member : new int[]{first, second}) {
+                        long amount = Math.abs(balances[member]);
+                        if (pairSideIsCreditor) {
+                            debts.add(new Debt(participants[single], participants[member], amount));
+                        } else {
+                            debts.add(new Debt(participants[member], participants[single], amount));
+                        }
+                    }
+                    break;
+                }
+            }
+            removeGrouped();
+        }
+
+        /**
+         * Appends the fallback's debts for everyone who is not in a zero-sum group.
+         */
+        List<Debt> settleRemainder(SettlementStrategy fallback) {
+            int remaining = 0;
+            for (boolean inGroup : grouped) {
+                if (!inGroup) {
+                    remaining++;
+                }
+            }
+
+            Participant[] restParticipants = new Participant[remaining];
+            long[] restBalances = new long[remaining];
+            int next = 0;
+            for (int i = 0; i < participants.length; i++) {
+                if (!grouped[i]) {
+                    restParticipants[next] = participants[i];
+                    restBalances[next++] = balances[i];
+                }
+            }
+
+            List<Debt> result = new ArrayList<>(debts);
+            result.addAll(fallback.settle(restParticipants, restBalances));
+            return result;
+        }
+
+        /**
+         * Buckets open participants by the absolute value of their balance, in index order.
+         */
+        private Map<Long, ArrayDeque<Integer>> bucketByAmount(List<Integer> indexes) {
+            Map<Long, ArrayDeque<Integer>> buckets = new HashMap<>();
+            for (int index : indexes) {
+                buckets.computeIfAbsent(Math.abs(balances[index]), amount -> new ArrayDeque<>()).add(index);
+            }
+            return buckets;
+        }
+
+        private void addGroup(int... members) {
+            for (int member : members) {
+                grouped[member] = true;
+            }
+            groupCount++;
+        }
+
+        private void removeGrouped() {
+            creditors.removeIf(index -> grouped[index]);
+            debtors.removeIf(index -> grouped[index]);
+        }
+
+        /**
+         * Counts a search step and reports whether the budget is used up.
+         */
+        private boolean tick() {
+            if (!outOfTime && ++steps % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+                outOfTime = true;
+            }
+            return outOfTime;
+        }
+    }
+}
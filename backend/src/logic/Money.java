@@ -0,0 +1,108 @@
+package logic;
+
+/**
+ * Money amounts are held as a primitive {@code long} number of cents.
+ *
+ * Cents are exact for sums and differences, need no boxing in arrays and compare to zero
+ * without an epsilon. This class converts between cents and the decimal amounts used by
+ * the console, Excel and the {@code DECIMAL(10, 2)} columns of the database.
+ */
+public final class Money {
+
+    /**
+     * The number of cents in one unit of currency.
+     */
+    public static final long CENTS_PER_UNIT = 100;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a decimal amount to cents, rounding to the nearest cent.
+     *
+     * @param amount the amount in units of currency
+     * @return the amount in cents
+     */
+    public static long ofAmount(double amount) {
+        return Math.round(amount * CENTS_PER_UNIT);
+    }
+
+    /**
+     * Converts cents to a decimal amount, for display and spreadsheet cells only.
+     *
+     * @param cents the amount in cents
+     * @return the amount in units of currency
+     */
+    public static double toAmount(long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    /**
+     * Formats cents as a decimal amount with two fraction digits, e.g. {@code -12.05}.
+     *
+     * @param cents the amount in cents
+     * @return the formatted amount
+     */
+    public static String format(long cents) {
+        long units = Math.abs(cents / CENTS_PER_UNIT);
+        long fraction = Math.abs(cents % CENTS_PER_UNIT);
+        return (cents < 0 ? "-" : "") + units + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    /**
+     * Parses a decimal amount such as {@code 12}, {@code 12.5} or {@code -0.05} into cents
+     * without going through floating point. Digits after the second fraction digit are
+     * rounded half up.
+     *
+     * @param text the amount to parse
+     * @return the amount in cents
+     * @throws NumberFormatException if the text is not a decimal amount or does not fit in cents
+     */
+    public static long parse(String text) {
+        String value = text.trim();
+        int start = 0;
+        boolean negative = false;
+        if (!value.isEmpty() && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            start = 1;
+        }
+
+        int point = value.indexOf('.', start);
+        int unitsEnd = point < 0 ? value.length() : point;
+        if (unitsEnd == start && (point < 0 || point == value.length() - 1)) {
+            throw new NumberFormatException("Not an amount: \"" + text + "\"");
+        }
+
+        try {
+            long cents = 0;
+            for (int i = start; i < unitsEnd; i++) {
+                cents = Math.addExact(Math.multiplyExact(cents, 10), digit(value, i, text));
+            }
+            cents = Math.multiplyExact(cents, CENTS_PER_UNIT);
+
+            if (point >= 0) {
+                long scale = CENTS_PER_UNIT / 10;
+                for (int i = point + 1; i < value.length(); i++) {
+                    int digit = digit(value, i, text);
+                    if (scale > 0) {
+                        cents = Math.addExact(cents, digit * scale);
+                        scale /= 10;
+                    } else if (i == point + 3 && digit >= 5) {
+                        cents = Math.addExact(cents, 1);
+                    }
+                }
+            }
+            return negative ? -cents : cents;
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: \"" + text + "\"");
+        }
+    }
+
+    private static int digit(String value, int index, String text) {
+        char ch = value.charAt(index);
+        if (ch < '0' || ch > '9') {
+            throw new NumberFormatException("Not an amount: \"" + text + "\"");
+        }
+        return ch - '0';
+    }
+}
@@ -6,10 +6,10 @@ import java.util.*;
  */
 public class Participant implements Comparable<Participant> {
     private String name;
-    private Map<Category, Double> expenses;
+    private Map<Category, Long> expenses;
     private List<Category> consumedCategories;
-    private double totalConsumed;
-    private double balance;
+    private long totalConsumed;
+    private long balance;
     private String email;
     private String phoneNumber;
     private int id;
@@ -24,10 +24,10 @@ public class Participant implements Comparable<Participant> {
         this.name = name;
         this.expenses = new HashMap<>();
         this.consumedCategories = new ArrayList<>();
-        this.balance = 0.0;
+        this.balance = 0;
         email = "";
         this.phoneNumber = phoneNumber;
-        totalConsumed = 0.0;
+        totalConsumed = 0;
     }
 
     /**
@@ -43,10 +43,10 @@ public class Participant implements Comparable<Participant> {
      * Adds an expense in a specific category.
      *
      * @param category the category of the expense
-     * @param amount the amount spent
+     * @param amount the amount spent, in cents
      */
-    public void addExpense(Category category, Double amount) {
-        if (amount < 0.1)
+    public void addExpense(Category category, long amount) {
+        if (amount <= 0)
             return;
         expenses.put(category, amount);
     }
@@ -78,9 +78,9 @@ public class Participant implements Comparable<Participant> {
     public String getPhoneNumber() {return phoneNumber;}
 
     /**
-     * @return a map of expenses by category
+     * @return a map of expenses by category, in cents
      */
-    public Map<Category, Double> getExpenses() {
+    public Map<Category, Long> getExpenses() {
         return expenses;
     }
 
@@ -94,10 +94,10 @@ public class Participant implements Comparable<Participant> {
     /**
      * Calculates the total amount of money spent by the participant.
      *
-     * @return the total expenses
+     * @return the total expenses, in cents
      */
-    public double getTotalExpense() {
-        double totalExpense = 0.0;
+    public long getTotalExpense() {
+        long totalExpense = 0;
         for (Category category: expenses.keySet()) {
            totalExpense += expenses.get(category);
         }
@@ -107,16 +107,16 @@ public class Participant implements Comparable<Participant> {
     /**
      * Sets the participant's balance (e.g., debt or credit).
      *
-     * @param balance the updated balance
+     * @param balance the updated balance, in cents
      */
-    public void setBalance(double balance) {
+    public void setBalance(long balance) {
         this.balance = balance;
     }
 
     /**
-     * @return the participant's current balance
+     * @return the participant's current balance, in cents
      */
-    public double getBalance() {
+    public long getBalance() {
         return balance;
     }
 
@@ -175,16 +175,16 @@ public class Participant implements Comparable<Participant> {
     /**
      * Sets the total consumption value.
      *
-     * @param totalConsumed the total value of consumption
+     * @param totalConsumed the total value of consumption, in cents
      */
-    public void setTotalConsumed(double totalConsumed) {
+    public void setTotalConsumed(long totalConsumed) {
         this.totalConsumed = totalConsumed;
     }
 
     /**
-     * @return the total consumption value
+     * @return the total consumption value, in cents
      */
-    public double getTotalConsumed() {
+    public long getTotalConsumed() {
         return totalConsumed;
     }
 
@@ -228,7 +228,7 @@ public class Participant implements Comparable<Participant> {
      */
     @Override
     public int compareTo(Participant other) {
-        return Double.compare(this.balance, other.balance);
+        return Long.compare(this.balance, other.balance);
     }
 
     /**
@@ -0,0 +1,38 @@
+package logic;
+
+import java.util.List;
+
+/**
+ * A SettlementStrategy turns the net balances of an event's participants into
+ * the list of debts that settles them.
+ * A positive balance marks a creditor and a negative balance marks a debtor.
+ */
+public interface SettlementStrategy {
+
+    /**
+     * Generates the debts that settle the given balances.
+     * Implementations read neither the participants' own balances nor modify anything,
+     * so the same strategy can settle several events at the same time.
+     *
+     * @param participants the participants, in the order of {@code balances}
+     * @param balances     the net balance of each participant, in cents
+     * @return the list of debts between debtors and creditors
+     */
+    List<Debt> settle(Participant[] participants, long[] balances);
+
+    /**
+     * Generates the debts that settle the current balances of the given participants.
+     * Implementations must not modify the participants' balances.
+     *
+     * @param participants the participants whose balances are already calculated
+     * @return the list of debts between debtors and creditors
+     */
+    default List<Debt> settle(List<Participant> participants) {
+        Participant[] people = participants.toArray(new Participant[0]);
+        long[] balances = new long[people.length];
+        for (int i = 0; i < people.length; i++) {
+            balances[i] = people[i].getBalance();
+        }
+        return settle(people, balances);
+    }
+}
@@ -0,0 +1,109 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settles balances using two sorted arrays of participant indexes and a cursor into each.
+ *
+ * The greedy pairing only ever settles the head of the creditor and debtor lists, so
+ * advancing a cursor gives exactly the same debts as {@link GreedySettlementStrategy}
+ * while running in O(n log n) on primitive balances.
+ */
+public class SortedArraySettlementStrategy implements SettlementStrategy {
+
+    /**
+     * Sorts creditors and debtors by balance and pairs them from the front of each array.
+     *
+     * @param people   the participants, in the order of {@code balances}
+     * @param balances the net balance of each participant, in cents
+     * @return the list of debts between debtors and creditors
+     */
+    @Override
+    public List<Debt> settle(Participant[] people, long[] balances) {
+        int size = people.length;
+        balances = balances.clone();
+        int[] creditors = new int[size];
+        int[] debtors = new int[size];
+        int creditorCount = 0;
+        int debtorCount = 0;
+
+        for (int i = 0; i < size; i++) {
+            long balance = balances[i];
+            if (balance > 0) {
+                creditors[creditorCount++] = i;
+            } else if (balance < 0) {
+                debtors[debtorCount++] = i;
+            }
+        }
+
+        // Stable sort keeps the participants' order for equal balances, like Collections.sort
+        int[] buffer = new int[Math.max(creditorCount, debtorCount)];
+        sortByBalance(creditors, creditorCount, balances, buffer);
+        sortByBalance(debtors, debtorCount, balances, buffer);
+
+        List<Debt> debts = new ArrayList<>(creditorCount + debtorCount);
+        int creditorCursor = 0;
+        int debtorCursor = 0;
+
+        while (creditorCursor < creditorCount && debtorCursor < debtorCount) {
+            int creditor = creditors[creditorCursor];
+            int debtor = debtors[debtorCursor];
+
+            long transferAmount = Math.min(balances[creditor], -balances[debtor]);
+            debts.add(new Debt(people[debtor], people[creditor], transferAmount));
+
+            balances[creditor] -= transferAmount;
+            balances[debtor] += transferAmount;
+
+            if (balances[creditor] == 0) {
+                creditorCursor++;
+            }
+
+            if (balances[debtor] == 0) {
+                debtorCursor++;
+            }
+        }
+
+        return debts;
+    }
+
+    /**
+     * Stable bottom-up merge sort of the first {@code count} indexes by ascending balance.
+     */
+    private static void sortByBalance(int[] indexes, int count, long[] balances, int[] buffer) {
+        int[] source = indexes;
+        int[] target = buffer;
+
+        for (int width = 1; width < count; width *= 2) {
+            for (int left = 0; left < count; left += 2 * width) {
+                int middle = Math.min(left + width, count);
+                int right = Math.min(left + 2 * width, count);
+                int i = left;
+                int j = middle;
+                int k = left;
+                while (i < middle && j < right) {
+                    // take from the left run on ties to keep the sort stable
+                    if (balances[source[i]] <= balances[source[j]]) {
+                        target[k++] = source[i++];
+                    } else {
+                        target[k++] = source[j++];
+                    }
+                }
+                while (i < middle) {
+                    target[k++] = source[i++];
+                }
+                while (j < right) {
+                    target[k++] = source[j++];
+                }
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+
+        if (source != indexes) {
+            System.arraycopy(source, 0, indexes, 0, count);
+        }
+    }
+}
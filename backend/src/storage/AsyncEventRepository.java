@@ -0,0 +1,210 @@
+package storage;
+
+import logic.Event;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AsyncEventRepository runs the blocking storage calls in the background and returns
+ * {@link CompletableFuture}s, so the caller can keep going while an event is saved or loaded
+ * and several events can be loaded at once.
+ *
+ * Every call runs on its own virtual thread when the runtime has them (Java 21 and later);
+ * otherwise on a fixed pool of daemon threads. At most as many calls as the connection pool
+ * has connections touch the database at the same time; the others wait for a permit instead
+ * of holding a thread in the pool's borrow queue.
+ *
+ * The futures complete like the synchronous methods return: a failed save completes with
+ * false and a missing event with null. Cancelling a future whose call has not started
+ * prevents it from running; a call that already runs is interrupted, which aborts a wait for
+ * a permit or a connection, but a statement already sent to the database finishes.
+ */
+public class AsyncEventRepository implements AutoCloseable {
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    /**
+     * Creates a repository that allows as many concurrent calls as the connection pool has
+     * connections.
+     */
+    public AsyncEventRepository() {
+        this(DatabaseConfig.fromEnvironment().getPoolSize());
+    }
+
+    /**
+     * @param maxConcurrentCalls the maximum number of calls using the database at the same time
+     */
+    AsyncEventRepository(int maxConcurrentCalls) {
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("At least one concurrent call is needed, got " + maxConcurrentCalls);
+        }
+        this.executor = newTaskExecutor(maxConcurrentCalls);
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+    }
+
+    /**
+     * Saves the event in the background with {@link EventRepository#save(Event)}. The event
+     * must not be changed until the future completes.
+     *
+     * @param event the event to save
+     * @return a future completing with true if the event was saved
+     */
+    public CompletableFuture<Boolean> save(Event event) {
+        return submit(() -> EventRepository.save(event));
+    }
+
+    /**
+     * Loads an event in the background with {@link EventDao#loadEventById(int)}.
+     *
+     * @param eventId the ID of the event
+     * @return a future completing with the event, or with null if it was not found
+     */
+    public CompletableFuture<Event> load(int eventId) {
+        return submit(() -> EventDao.loadEventById(eventId));
+    }
+
+    /**
+     * Loads several events concurrently.
+     *
+     * @param eventIds the IDs of the events
+     * @return a future completing with the events in the order of the IDs, null for missing ones
+     */
+    public CompletableFuture<List<Event>> loadAll(List<Integer> eventIds) {
+        List<CompletableFuture<Event>> loads = new ArrayList<>(eventIds.size());
+        for (int eventId : eventIds) {
+            loads.add(load(eventId));
+        }
+
+        CompletableFuture<List<Event>> all = CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> {
+                    List<Event> events = new ArrayList<>(loads.size());
+                    for (CompletableFuture<Event> load : loads) {
+                        events.add(load.join());
+                    }
+                    return events;
+                });
+        // cancelling the combined load cancels the single loads
+        all.whenComplete((events, error) -> {
+            if (all.isCancelled()) {
+                loads.forEach(load -> load.cancel(true));
+            }
+        });
+        return all;
+    }
+
+    /**
+     * Lists a page of events in the background with
+     * {@link EventDao#listEvents(EventDao.EventFilter, EventDao.EventSummary, int)}.
+     *
+     * @return a future completing with the page
+     */
+    public CompletableFuture<EventDao.EventPage> listEvents(EventDao.EventFilter filter, EventDao.EventSummary after,
+                                                            int pageSize) {
+        return submit(() -> EventDao.listEvents(filter, after, pageSize));
+    }
+
+    /**
+     * Runs a storage call in the background once a permit is free.
+     *
+     * @param call the blocking call
+     * @return a future completing with the result of the call; cancelling it cancels the call
+     */
+    <T> CompletableFuture<T> submit(Callable<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    result.cancel(false);
+                    return;
+                }
+                T value = null;
+                Throwable failure = null;
+                try {
+                    if (!result.isDone()) {
+                        value = call.call();
+                    }
+                } catch (Throwable e) {
+                    failure = e;
+                } finally {
+                    // the permit is free again by the time the caller sees the result
+                    permits.release();
+                }
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(value);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return the number of calls that could start right now
+     */
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Stops accepting calls and waits for the running and queued ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Background storage calls did not finish in time, they are interrupted.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor if the runtime supports it. It is looked up
+     * reflectively so the application still builds and runs on Java 17.
+     */
+    private static ExecutorService newTaskExecutor(int platformThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            // before Java 21, or with virtual threads as a disabled preview feature
+            return Executors.newFixedThreadPool(platformThreads, task -> {
+                Thread thread = new Thread(task, "async-storage");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
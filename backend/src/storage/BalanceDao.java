@@ -0,0 +1,225 @@
+package storage;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * BalanceDao calculates the balances of an event inside the database, for reports that need
+ * the numbers of an event but not its participants, categories and debts as objects.
+ *
+ * The calculation is the one of {@link logic.CalculationEngine}, written as one query over
+ * the event's expenses and consumptions; only the resulting arrays are sent back. The query
+ * repeats the engine's floating-point steps in the same order and rounds half up like
+ * {@link Math#round(double)}, so both give the same cents. Each participant's shares are
+ * added in category ID order, the order of an event loaded by {@link EventDao#loadEventById(int)}.
+ */
+public class BalanceDao {
+
+    /**
+     * Calculates the balances of one event. Amounts are converted to cents first, so all
+     * arithmetic on money is exact up to the fee adjustment, which is done in float8 like the
+     * engine's doubles. Returns no row if the event does not exist.
+     */
+    static final String CALCULATE_BALANCES_SQL = """
+        WITH ev AS (
+            SELECT id, (participation_fee * 100)::bigint AS fee
+            FROM events
+            WHERE id = ?
+        ), members AS (
+            SELECT ep.participant_id
+            FROM event_participants ep JOIN ev ON ep.event_id = ev.id
+        ), paid AS (
+            SELECT m.participant_id, COALESCE((SUM(x.amount) * 100)::bigint, 0) AS paid
+            FROM members m
+            CROSS JOIN ev
+            LEFT JOIN expenses x ON x.event_id = ev.id AND x.participant_id = m.participant_id
+            GROUP BY m.participant_id
+        ), category_totals AS (
+            SELECT ec.category_id,
+                COALESCE((SUM(x.amount) FILTER (WHERE x.amount > 0) * 100)::bigint, 0) AS expense
+            FROM event_categories ec
+            JOIN ev ON ec.event_id = ev.id
+            LEFT JOIN (expenses x JOIN members m ON m.participant_id = x.participant_id)
+                ON x.event_id = ev.id AND x.category_id = ec.category_id
+            GROUP BY ec.category_id
+        ), totals AS (
+            SELECT ev.fee,
+                ev.fee * (SELECT count(*) FROM members) AS total_fee,
+                COALESCE((SELECT SUM(expense) FROM category_totals), 0)::bigint AS total_expenses
+            FROM ev
+        ), subsidies AS (
+            SELECT c.category_id, c.expense,
+                CASE WHEN t.total_expenses = 0 THEN 0::float8
+                     ELSE t.total_fee::float8 * c.expense::float8 / t.total_expenses::float8 END AS subsidy
+            FROM category_totals c CROSS JOIN totals t
+        ), adjusted AS (
+            SELECT category_id, expense,
+                expense - (floor(subsidy) + CASE WHEN subsidy - floor(subsidy) >= 0.5 THEN 1 ELSE 0 END)::bigint AS adjusted
+            FROM subsidies
+        ), shares AS (
+            SELECT c.participant_id, c.category_id,
+                a.expense::float8 / count(*) OVER (PARTITION BY c.category_id) AS share
+            FROM consumptions c
+            JOIN ev ON c.event_id = ev.id
+            JOIN members m ON m.participant_id = c.participant_id
+            JOIN adjusted a ON a.category_id = c.category_id
+        ), consumed AS (
+            SELECT p.participant_id, p.paid,
+                COALESCE(SUM(s.share ORDER BY s.category_id), 0)
+                    * CASE WHEN t.total_expenses = 0 THEN 0::float8
+                           ELSE 1::float8 - t.total_fee::float8 / t.total_expenses::float8 END AS consumed
+            FROM paid p
+            CROSS JOIN totals t
+            LEFT JOIN shares s ON s.participant_id = p.participant_id
+            GROUP BY p.participant_id, p.paid, t.total_fee, t.total_expenses
+        ), balances AS (
+            SELECT participant_id, paid,
+                (floor(consumed) + CASE WHEN consumed - floor(consumed) >= 0.5 THEN 1 ELSE 0 END)::bigint AS consumed
+            FROM consumed
+        )
+        SELECT b.participant_ids, b.consumed, b.balances, c.category_ids, c.expenses, c.adjusted
+        FROM totals t,
+            LATERAL (SELECT array_agg(participant_id ORDER BY participant_id) AS participant_ids,
+                            array_agg(consumed ORDER BY participant_id) AS consumed,
+                            array_agg(paid - (consumed + t.fee) ORDER BY participant_id) AS balances
+                     FROM balances) b,
+            LATERAL (SELECT array_agg(category_id ORDER BY category_id) AS category_ids,
+                            array_agg(expense ORDER BY category_id) AS expenses,
+                            array_agg(adjusted ORDER BY category_id) AS adjusted
+                     FROM adjusted) c
+    """;
+
+    /**
+     * Calculates the balances of a saved event in the database.
+     *
+     * @param eventId the ID of the event
+     * @return the balances, or null if the event was not found or on error
+     */
+    public static EventBalances calculateBalances(int eventId) {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(CALCULATE_BALANCES_SQL)) {
+
+            stmt.setInt(1, eventId);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return new EventBalances(eventId,
+                        toIntArray(rs.getArray("participant_ids")),
+                        toLongArray(rs.getArray("consumed")),
+                        toLongArray(rs.getArray("balances")),
+                        toIntArray(rs.getArray("category_ids")),
+                        toLongArray(rs.getArray("expenses")),
+                        toLongArray(rs.getArray("adjusted")));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to calculate balances of event: " + e.getMessage());
+        }
+
+        return null;
+    }
+
+    private static int[] toIntArray(Array array) throws SQLException {
+        if (array == null) {
+            return new int[0];
+        }
+        Integer[] values = (Integer[]) array.getArray();
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
+
+    private static long[] toLongArray(Array array) throws SQLException {
+        if (array == null) {
+            return new long[0];
+        }
+        Long[] values = (Long[]) array.getArray();
+        long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
+
+    /**
+     * The balances of an event as calculated by the database. Participants and categories are
+     * identified by their IDs and ordered by them; all amounts are in cents.
+     */
+    public static final class EventBalances {
+
+        private final int eventId;
+        private final int[] participantIds;
+        private final long[] consumedByParticipant;
+        private final long[] balanceByParticipant;
+        private final int[] categoryIds;
+        private final long[] expenseByCategory;
+        private final long[] adjustedByCategory;
+
+        EventBalances(int eventId, int[] participantIds, long[] consumedByParticipant, long[] balanceByParticipant,
+                      int[] categoryIds, long[] expenseByCategory, long[] adjustedByCategory) {
+            this.eventId = eventId;
+            this.participantIds = participantIds;
+            this.consumedByParticipant = consumedByParticipant;
+            this.balanceByParticipant = balanceByParticipant;
+            this.categoryIds = categoryIds;
+            this.expenseByCategory = expenseByCategory;
+            this.adjustedByCategory = adjustedByCategory;
+        }
+
+        public int getEventId() {
+            return eventId;
+        }
+
+        public int getParticipantCount() {
+            return participantIds.length;
+        }
+
+        /**
+         * @param ordinal the position of the participant, in ID order
+         */
+        public int getParticipantId(int ordinal) {
+            return participantIds[ordinal];
+        }
+
+        /**
+         * @return the participant's share of the fee-adjusted expenses of what they consumed
+         */
+        public long getTotalConsumed(int ordinal) {
+            return consumedByParticipant[ordinal];
+        }
+
+        /**
+         * @return what the participant paid minus what they consumed and their participation fee
+         */
+        public long getBalance(int ordinal) {
+            return balanceByParticipant[ordinal];
+        }
+
+        public int getCategoryCount() {
+            return categoryIds.length;
+        }
+
+        /**
+         * @param ordinal the position of the category, in ID order
+         */
+        public int getCategoryId(int ordinal) {
+            return categoryIds[ordinal];
+        }
+
+        public long getTotalExpense(int ordinal) {
+            return expenseByCategory[ordinal];
+        }
+
+        /**
+         * @return the category's expense less its share of the participation fees
+         */
+        public long getAdjustedExpense(int ordinal) {
+            return adjustedByCategory[ordinal];
+        }
+    }
+}
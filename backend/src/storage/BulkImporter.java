@@ -0,0 +1,327 @@
+package storage;
+
+import logic.Money;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * BulkImporter loads large events imported from other systems: the participant links,
+ * expenses and consumptions of an event, streamed from the caller's rows.
+ *
+ * Rows are sent with PostgreSQL's {@code COPY ... FROM STDIN} through the pgjdbc
+ * {@link CopyManager}, in text format and in chunks of {@value #CHUNK_SIZE} bytes, so only one
+ * chunk is held in memory however many rows the caller's iterables produce. When the
+ * connection is not a PostgreSQL connection the rows are inserted in JDBC batches of
+ * {@value #BATCH_SIZE} instead.
+ *
+ * The categories used by the imported rows are linked to the event afterwards in one
+ * statement. The participants and categories must already exist, and the imported rows must
+ * not: like a plain INSERT, COPY fails on a duplicate key, and the whole import is rolled back.
+ */
+public class BulkImporter {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * An expense row to import.
+     */
+    public static final class Expense {
+        private final int participantId;
+        private final int categoryId;
+        private final long amount;
+
+        /**
+         * @param participantId the ID of the participant who paid
+         * @param categoryId    the ID of the category paid for
+         * @param amount        the amount, in cents
+         */
+        public Expense(int participantId, int categoryId, long amount) {
+            this.participantId = participantId;
+            this.categoryId = categoryId;
+            this.amount = amount;
+        }
+    }
+
+    /**
+     * A consumption row to import.
+     */
+    public static final class Consumption {
+        private final int participantId;
+        private final int categoryId;
+
+        /**
+         * @param participantId the ID of the participant who consumed
+         * @param categoryId    the ID of the consumed category
+         */
+        public Consumption(int participantId, int categoryId) {
+            this.participantId = participantId;
+            this.categoryId = categoryId;
+        }
+    }
+
+    /**
+     * Imports the rows of an event in one transaction. The iterables are read once, in order,
+     * and may produce their rows lazily.
+     *
+     * @param eventId        the ID of the saved event
+     * @param participantIds the IDs of the participants to link to the event
+     * @param expenses       the expenses to import
+     * @param consumptions   the consumptions to import
+     * @return true if all rows were imported, false if the import was rolled back
+     */
+    public static boolean importEvent(int eventId, Iterable<Integer> participantIds,
+                                      Iterable<Expense> expenses, Iterable<Consumption> consumptions) {
+        if (eventId == 0) {
+            throw new IllegalArgumentException("Event must be saved before importing rows.");
+        }
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                CopyManager copyManager = copyManager(conn);
+                importParticipants(conn, copyManager, eventId, participantIds);
+                importExpenses(conn, copyManager, eventId, expenses);
+                importConsumptions(conn, copyManager, eventId, consumptions);
+                linkCategories(conn, eventId);
+                conn.commit();
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to import event, nothing was written: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return the COPY API of the connection, or null if it is not a PostgreSQL connection
+     */
+    static CopyManager copyManager(Connection conn) throws SQLException {
+        if (!conn.isWrapperFor(PGConnection.class)) {
+            return null;
+        }
+        return conn.unwrap(PGConnection.class).getCopyAPI();
+    }
+
+    /**
+     * Links participants to an event.
+     *
+     * @param copyManager the COPY API of the connection, or null to insert in batches
+     * @return the number of rows written
+     */
+    static long importParticipants(Connection conn, CopyManager copyManager, int eventId,
+                                   Iterable<Integer> participantIds) throws SQLException {
+        if (copyManager != null) {
+            try (CopyWriter out = new CopyWriter(copyManager.copyIn(
+                    "COPY event_participants (event_id, participant_id) FROM STDIN"))) {
+                for (int participantId : participantIds) {
+                    out.field(eventId).field(participantId).endRow();
+                }
+                return out.finish();
+            }
+        }
+
+        String insertSql = "INSERT INTO event_participants (event_id, participant_id) VALUES (?, ?)";
+        try (BatchWriter out = new BatchWriter(conn.prepareStatement(insertSql))) {
+            for (int participantId : participantIds) {
+                out.stmt.setInt(1, eventId);
+                out.stmt.setInt(2, participantId);
+                out.add();
+            }
+            return out.finish();
+        }
+    }
+
+    /**
+     * Imports the expenses of an event.
+     *
+     * @param copyManager the COPY API of the connection, or null to insert in batches
+     * @return the number of rows written
+     */
+    static long importExpenses(Connection conn, CopyManager copyManager, int eventId,
+                               Iterable<Expense> expenses) throws SQLException {
+        if (copyManager != null) {
+            try (CopyWriter out = new CopyWriter(copyManager.copyIn(
+                    "COPY expenses (event_id, participant_id, category_id, amount) FROM STDIN"))) {
+                for (Expense expense : expenses) {
+                    // the DECIMAL column parses the formatted cents exactly
+                    out.field(eventId).field(expense.participantId).field(expense.categoryId)
+                            .field(Money.format(expense.amount)).endRow();
+                }
+                return out.finish();
+            }
+        }
+
+        String insertSql = "INSERT INTO expenses (event_id, participant_id, category_id, amount) VALUES (?, ?, ?, ?::numeric / 100)";
+        try (BatchWriter out = new BatchWriter(conn.prepareStatement(insertSql))) {
+            for (Expense expense : expenses) {
+                out.stmt.setInt(1, eventId);
+                out.stmt.setInt(2, expense.participantId);
+                out.stmt.setInt(3, expense.categoryId);
+                out.stmt.setLong(4, expense.amount);
+                out.add();
+            }
+            return out.finish();
+        }
+    }
+
+    /**
+     * Imports the consumptions of an event.
+     *
+     * @param copyManager the COPY API of the connection, or null to insert in batches
+     * @return the number of rows written
+     */
+    static long importConsumptions(Connection conn, CopyManager copyManager, int eventId,
+                                   Iterable<Consumption> consumptions) throws SQLException {
+        if (copyManager != null) {
+            try (CopyWriter out = new CopyWriter(copyManager.copyIn(
+                    "COPY consumptions (event_id, participant_id, category_id) FROM STDIN"))) {
+                for (Consumption consumption : consumptions) {
+                    out.field(eventId).field(consumption.participantId).field(consumption.categoryId).endRow();
+                }
+                return out.finish();
+            }
+        }
+
+        String insertSql = "INSERT INTO consumptions (event_id, participant_id, category_id) VALUES (?, ?, ?)";
+        try (BatchWriter out = new BatchWriter(conn.prepareStatement(insertSql))) {
+            for (Consumption consumption : consumptions) {
+                out.stmt.setInt(1, eventId);
+                out.stmt.setInt(2, consumption.participantId);
+                out.stmt.setInt(3, consumption.categoryId);
+                out.add();
+            }
+            return out.finish();
+        }
+    }
+
+    /**
+     * Links every category that the event's expenses or consumptions refer to.
+     */
+    static void linkCategories(Connection conn, int eventId) throws SQLException {
+        String linkSql = """
+            INSERT INTO event_categories (event_id, category_id)
+            SELECT ?, category_id FROM expenses WHERE event_id = ?
+            UNION
+            SELECT ?, category_id FROM consumptions WHERE event_id = ?
+            ON CONFLICT DO NOTHING
+        """;
+        try (PreparedStatement stmt = conn.prepareStatement(linkSql)) {
+            for (int i = 1; i <= 4; i++) {
+                stmt.setInt(i, eventId);
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Encodes rows in COPY text format (tab-separated fields, one row per line) into a buffer
+     * that is sent to the server whenever it fills up. Only numbers are written, so no field
+     * needs escaping. Closing the writer before {@link #finish()} cancels the COPY.
+     */
+    private static final class CopyWriter implements AutoCloseable {
+        private final CopyIn copyIn;
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private int length;
+        private boolean firstField = true;
+
+        CopyWriter(CopyIn copyIn) {
+            this.copyIn = copyIn;
+        }
+
+        CopyWriter field(int value) throws SQLException {
+            return field(Integer.toString(value));
+        }
+
+        CopyWriter field(String value) throws SQLException {
+            // a field is at most a formatted long, far below the chunk size
+            if (length + value.length() + 2 > buffer.length) {
+                flush();
+            }
+            if (!firstField) {
+                buffer[length++] = '\t';
+            }
+            for (int i = 0; i < value.length(); i++) {
+                buffer[length++] = (byte) value.charAt(i);
+            }
+            firstField = false;
+            return this;
+        }
+
+        void endRow() throws SQLException {
+            if (length == buffer.length) {
+                flush();
+            }
+            buffer[length++] = '\n';
+            firstField = true;
+        }
+
+        long finish() throws SQLException {
+            flush();
+            return copyIn.endCopy();
+        }
+
+        private void flush() throws SQLException {
+            if (length > 0) {
+                copyIn.writeToCopy(buffer, 0, length);
+                length = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * Adds rows to a prepared INSERT and executes it every {@value #BATCH_SIZE} rows.
+     */
+    private static final class BatchWriter implements AutoCloseable {
+        private final PreparedStatement stmt;
+        private int pending;
+        private long written;
+
+        BatchWriter(PreparedStatement stmt) {
+            this.stmt = stmt;
+        }
+
+        void add() throws SQLException {
+            stmt.addBatch();
+            if (++pending == BATCH_SIZE) {
+                execute();
+            }
+        }
+
+        long finish() throws SQLException {
+            execute();
+            return written;
+        }
+
+        private void execute() throws SQLException {
+            if (pending > 0) {
+                stmt.executeBatch();
+                written += pending;
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            stmt.close();
+        }
+    }
+}
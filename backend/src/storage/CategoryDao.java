@@ -4,8 +4,7 @@ import logic.Category;
 import logic.Event;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * Data access object for handling categories in the database.
@@ -15,110 +14,257 @@ import java.util.List;
 public class CategoryDao {
 
     /**
-     * Retrieves the category ID from the database or inserts a new one if not found.
-     * If the category already has an ID, attempts to update its name.
+     * Saves all categories related to the event by inserting them (if needed)
+     * and linking them to the event in the join table.
      *
-     * @param category the category to find or insert
-     * @return the category ID in the database, or -1 if an error occurred
+     * @param event the event whose categories should be saved
      */
-    private static int getOrCreateCategory(Category category) {
-        if (category.getName() == null || category.getName().isBlank()) {
-            throw new IllegalArgumentException("Category name cannot be null or empty");
+    public static void saveEventCategories(Event event) {
+        if (event.getId() == 0) {
+            throw new IllegalArgumentException("Event must be saved before linking categories");
         }
 
         try (Connection conn = DatabaseManager.getConnection()) {
+            saveEventCategories(conn, event.getId(), event.getCategories());
+        } catch (SQLException e) {
+            System.err.println("Failed to save/link categories of event: " + e.getMessage());
+        }
+    }
 
-            // Attempt update if ID is known
-            if (category.getId() != 0) {
-                String updateSql = "UPDATE categories SET name = ? WHERE id = ?";
-                try (PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
-                    updateStmt.setString(1, category.getName());
-                    updateStmt.setInt(2, category.getId());
-                    int affected = updateStmt.executeUpdate();
-                    if (affected > 0) {
-                        return category.getId();
-                    }
+    /**
+     * Saves categories and links them to an event on the given connection.
+     * Categories with a known ID are renamed in one batch; all other names are resolved in
+     * one query and the missing ones inserted in one statement. The links to the event are
+     * written in one batch.
+     *
+     * @param conn       the connection, possibly inside a transaction
+     * @param eventId    the ID of the saved event
+     * @param categories the categories to save and link
+     * @throws SQLException if a database access error occurs
+     */
+    static void saveEventCategories(Connection conn, int eventId, List<Category> categories) throws SQLException {
+        if (eventId == 0) {
+            throw new IllegalArgumentException("Event must be saved before linking categories");
+        }
 
-                }
+        for (Category category : categories) {
+            if (category.getName() == null || category.getName().isBlank()) {
+                throw new IllegalArgumentException("Category name cannot be null or empty");
             }
+        }
 
-            // Check if category already exists by name
-            String selectSql = "SELECT id FROM categories WHERE name = ?";
-            try (PreparedStatement selectStmt = conn.prepareStatement(selectSql)) {
-                selectStmt.setString(1, category.getName());
-                ResultSet rs = selectStmt.executeQuery();
+        List<Category> unresolved = updateKnownCategories(conn, categories);
+        if (!unresolved.isEmpty()) {
+            Map<String, Integer> idsByName = resolveNames(conn, unresolved, true);
+            for (Category category : unresolved) {
+                category.setId(idsByName.get(category.getName()));
+            }
+        }
 
-                if (rs.next()) {
-                    int existingId = rs.getInt("id");
-                    category.setId(existingId);
-                    return existingId;
-                }
+        List<Category> stale = link(conn, eventId, categories);
+        if (!stale.isEmpty()) {
+            // cached IDs of categories that were deleted in the meantime
+            Map<String, Integer> idsByName = resolveNames(conn, stale, false);
+            for (Category category : stale) {
+                category.setId(idsByName.get(category.getName()));
+            }
+            stale = link(conn, eventId, stale);
+            if (!stale.isEmpty()) {
+                throw new SQLException("Category " + stale.get(0).getName() + " was deleted while saving.");
             }
+        }
+    }
 
-            // Insert new category if not found
-            String insertSql = "INSERT INTO categories (name) VALUES (?)";
-            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
-                insertStmt.setString(1, category.getName());
-                insertStmt.executeUpdate();
-
-                ResultSet keys = insertStmt.getGeneratedKeys();
-                if (keys.next()) {
-                    int newId = keys.getInt(1);
-                    category.setId(newId);
-                    return newId;
-                } else {
-                    throw new SQLException("Category insertion failed, no ID returned.");
+    /**
+     * Links the categories to an event in one statement. Only IDs that still exist are linked.
+     *
+     * @return the categories whose ID does not exist, after dropping them from the cache
+     */
+    private static List<Category> link(Connection conn, int eventId, List<Category> categories) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        for (Category category : categories) {
+            ids.add(category.getId());
+        }
+
+        String linkSql = """
+            WITH existing AS (
+                SELECT id FROM categories WHERE id = ANY(?)
+            ), linked AS (
+                INSERT INTO event_categories (event_id, category_id)
+                SELECT ?, id FROM existing
+                ON CONFLICT DO NOTHING
+            )
+            SELECT id FROM existing
+        """;
+        Set<Integer> linked = new HashSet<>();
+        try (PreparedStatement linkStmt = conn.prepareStatement(linkSql)) {
+            linkStmt.setArray(1, conn.createArrayOf("integer", ids.toArray()));
+            linkStmt.setInt(2, eventId);
+            try (ResultSet rs = linkStmt.executeQuery()) {
+                while (rs.next()) {
+                    linked.add(rs.getInt("id"));
                 }
             }
+        }
 
-        } catch (SQLException e) {
-            System.err.println("Error in getOrCreateCategory: " + e.getMessage());
-            return -1;
+        List<Category> stale = new ArrayList<>();
+        for (Category category : categories) {
+            if (!linked.contains(category.getId())) {
+                LookupCache.invalidateCategory(category.getId());
+                stale.add(category);
+            }
         }
+        return stale;
     }
 
     /**
-     * Links a category to an event in the join table.
+     * Removes the links of the given categories to an event. The categories themselves are
+     * kept, since they may be used by other events.
      *
-     * @param categoryId the ID of the category
-     * @param eventId the ID of the event
+     * @param conn        the connection, possibly inside a transaction
+     * @param eventId     the ID of the event
+     * @param categoryIds the IDs of the categories removed from the event
+     * @throws SQLException if a database access error occurs
      */
-    private static void linkCategoryToEvent(int categoryId, int eventId) {
-        String sql = "INSERT INTO event_categories (event_id, category_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
-
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-
+    static void unlinkCategories(Connection conn, int eventId, Collection<Integer> categoryIds) throws SQLException {
+        if (categoryIds.isEmpty()) {
+            return;
+        }
+        String sql = "DELETE FROM event_categories WHERE event_id = ? AND category_id = ANY(?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, eventId);
-            stmt.setInt(2, categoryId);
+            stmt.setArray(2, conn.createArrayOf("integer", categoryIds.toArray()));
             stmt.executeUpdate();
+        }
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Failed to link category to event: " + e.getMessage());
+    /**
+     * Renames the categories that already have an ID in one batch. A category is not renamed
+     * to a name another category already has; it is resolved by that name instead. Categories
+     * whose name is cached for their ID are unchanged and skipped.
+     *
+     * @return the categories without an ID, whose ID no longer exists or whose new name is taken
+     */
+    private static List<Category> updateKnownCategories(Connection conn, List<Category> categories) throws SQLException {
+        List<Category> known = new ArrayList<>();
+        List<Category> unresolved = new ArrayList<>();
+        for (Category category : categories) {
+            if (category.getId() == 0) {
+                unresolved.add(category);
+            } else if (!category.getName().equals(LookupCache.getCategoryName(category.getId()))) {
+                known.add(category);
+            }
+        }
+        if (known.isEmpty()) {
+            return unresolved;
+        }
+
+        String updateSql = """
+            UPDATE categories SET name = ?
+            WHERE id = ? AND NOT EXISTS (SELECT 1 FROM categories WHERE name = ? AND id <> ?)
+        """;
+        try (PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
+            for (Category category : known) {
+                updateStmt.setString(1, category.getName());
+                updateStmt.setInt(2, category.getId());
+                updateStmt.setString(3, category.getName());
+                updateStmt.setInt(4, category.getId());
+                updateStmt.addBatch();
+            }
+            int[] affected = updateStmt.executeBatch();
+            for (int i = 0; i < affected.length; i++) {
+                Category category = known.get(i);
+                if (affected[i] == 0) {
+                    LookupCache.invalidateCategory(category.getId());
+                    unresolved.add(category);
+                } else {
+                    LookupCache.putCategory(category.getId(), category.getName());
+                }
+            }
         }
+        return unresolved;
     }
 
     /**
-     * Saves all categories related to the event by inserting them (if needed)
-     * and linking them to the event in the join table.
+     * Finds the IDs of the categories with the given names, inserting the names that do not
+     * exist yet. The resolved IDs are cached.
      *
-     * @param event the event whose categories should be saved
+     * @param useCache whether names cached in the {@link LookupCache} are taken from there
+     * @return the category ID of every name
      */
-    public static void saveEventCategories(Event event) {
-        int eventId = event.getId();
+    private static Map<String, Integer> resolveNames(Connection conn, List<Category> categories, boolean useCache)
+            throws SQLException {
+        Set<String> names = new TreeSet<>();
+        for (Category category : categories) {
+            names.add(category.getName());
+        }
 
-        if (eventId == 0) {
-            throw new IllegalArgumentException("Event must be saved before linking categories");
+        Map<String, Integer> idsByName = new HashMap<>();
+        List<String> uncached = new ArrayList<>();
+        for (String name : names) {
+            Integer cachedId = useCache ? LookupCache.getCategoryId(name) : null;
+            if (cachedId != null) {
+                idsByName.put(name, cachedId);
+            } else {
+                uncached.add(name);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            idsByName.putAll(findIdsByName(conn, uncached));
+        }
+        if (idsByName.size() == names.size()) {
+            return idsByName;
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (String name : names) {
+            if (!idsByName.containsKey(name)) {
+                missing.add(name);
+            }
         }
 
-        for (Category category: event.getCategories()) {
-            try {
-                int categoryId = getOrCreateCategory(category);
-                linkCategoryToEvent(categoryId, eventId);
-            } catch (Exception e) {
-                System.err.println("Failed to save/link categories: " + category.getName() + ". Reason: " +e.getMessage());
+        String insertSql = """
+            INSERT INTO categories (name)
+            SELECT name FROM unnest(?::varchar[]) AS t(name)
+            ON CONFLICT DO NOTHING
+            RETURNING id, name
+        """;
+        try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
+            insertStmt.setArray(1, conn.createArrayOf("varchar", missing.toArray()));
+            try (ResultSet rs = insertStmt.executeQuery()) {
+                while (rs.next()) {
+                    idsByName.put(rs.getString("name"), rs.getInt("id"));
+                    LookupCache.putCategory(rs.getInt("id"), rs.getString("name"));
+                }
             }
         }
+
+        // names skipped by ON CONFLICT were inserted by a concurrent save in the meantime
+        if (idsByName.size() < names.size()) {
+            missing.removeIf(idsByName::containsKey);
+            idsByName.putAll(findIdsByName(conn, missing));
+        }
+        if (idsByName.size() < names.size()) {
+            throw new SQLException("Category insertion failed, no ID returned.");
+        }
+        return idsByName;
+    }
+
+    private static Map<String, Integer> findIdsByName(Connection conn, Collection<String> names) throws SQLException {
+        Map<String, Integer> idsByName = new HashMap<>();
+        String selectSql = "SELECT id, name FROM categories WHERE name = ANY(?)";
+
+        try (PreparedStatement selectStmt = conn.prepareStatement(selectSql)) {
+            selectStmt.setArray(1, conn.createArrayOf("varchar", names.toArray()));
+            try (ResultSet rs = selectStmt.executeQuery()) {
+                while (rs.next()) {
+                    if (idsByName.putIfAbsent(rs.getString("name"), rs.getInt("id")) == null) {
+                        LookupCache.putCategory(rs.getInt("id"), rs.getString("name"));
+                    }
+                }
+            }
+        }
+        return idsByName;
     }
 
     /**
@@ -128,6 +274,18 @@ public class CategoryDao {
      * @return list of categories linked to the event
      */
     public static List<Category> getCategoriesForEvent(int eventId) {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            return getCategoriesForEvent(conn, eventId);
+        } catch (SQLException e) {
+            System.err.println("Failed to load categories for event: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Retrieves all categories associated with an event on the given connection.
+     */
+    static List<Category> getCategoriesForEvent(Connection conn, int eventId) throws SQLException {
         List<Category> categories = new ArrayList<>();
         String sql = """
         SELECT c.id, c.name
@@ -136,9 +294,7 @@ public class CategoryDao {
         WHERE ec.event_id = ?
     """;
 
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, eventId);
             ResultSet rs = stmt.executeQuery();
 
@@ -147,26 +303,9 @@ public class CategoryDao {
                 category.setId(rs.getInt("id"));
                 categories.add(category);
             }
-
-        } catch (SQLException e) {
-            System.err.println("Failed to load categories for event: " + e.getMessage());
         }
 
         return categories;
     }
 
-    /**
-     * Finds a category in the list by its ID.
-     *
-     * @param categories list of categories to search
-     * @param id the ID to find
-     * @return the category with the given ID, or null if not found
-     */
-    public static Category findCategoryById(List<Category> categories, int id) {
-        for (Category category : categories) {
-            if (category.getId() == id) return category;
-        }
-        return null;
-    }
-
 }
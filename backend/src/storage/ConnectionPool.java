@@ -0,0 +1,365 @@
+package storage;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ConnectionPool keeps a bounded number of open database connections and lends them out.
+ *
+ * Borrowed connections are proxies whose {@code close()} returns the underlying connection to
+ * the pool, so DAO code keeps using try-with-resources unchanged. Before a connection is lent
+ * out it is checked with {@link Connection#isValid(int)}; connections that were idle longer
+ * than the idle timeout or open longer than the max lifetime are closed instead of reused.
+ * A background thread evicts such connections while they sit idle.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DatabaseConfig config;
+    private final Semaphore permits;
+    private final ScheduledExecutorService evictor;
+
+    // most recently returned first, so a small working set of connections stays warm
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private boolean closed;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Creates an empty pool; connections are opened on demand.
+     *
+     * @param config the database and pool settings
+     */
+    public ConnectionPool(DatabaseConfig config) {
+        this.config = config;
+        this.permits = new Semaphore(config.getPoolSize(), true);
+
+        long evictionInterval = Math.max(1_000, Math.min(config.getIdleTimeoutMillis(), config.getMaxLifetimeMillis()) / 2);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdle, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the borrow timeout for one to become free.
+     * Closing the returned connection gives it back to the pool.
+     *
+     * @return a valid connection
+     * @throws SQLException if no connection became free in time or a new one cannot be opened
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.getBorrowTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + config.getBorrowTimeoutMillis()
+                        + " ms waiting for a database connection (pool size " + config.getPoolSize() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword()));
+                createdCount.incrementAndGet();
+            }
+            borrowCount.incrementAndGet();
+            return pooled.lend();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the settings the pool was created with
+     */
+    public DatabaseConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return a snapshot of the pool's counters
+     */
+    public Stats getStats() {
+        int idleCount;
+        synchronized (this) {
+            idleCount = idle.size();
+        }
+        long borrows = borrowCount.get();
+        return new Stats(
+                config.getPoolSize() - permits.availablePermits(),
+                idleCount,
+                createdCount.get(),
+                evictedCount.get(),
+                borrows,
+                borrows == 0 ? 0 : totalWaitNanos.get() / borrows,
+                maxWaitNanos.get());
+    }
+
+    /**
+     * Closes all idle connections and stops lending new ones.
+     * Connections that are still borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        synchronized (this) {
+            closed = true;
+            while (!idle.isEmpty()) {
+                closeQuietly(idle.poll().physical);
+            }
+        }
+    }
+
+    /**
+     * Closes idle connections past their idle timeout or max lifetime.
+     */
+    void evictIdle() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            idle.removeIf(pooled -> {
+                if (pooled.isExpired(now)) {
+                    closeQuietly(pooled.physical);
+                    evictedCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    /**
+     * Takes the most recently used idle connection that is still fresh and valid,
+     * closing the ones that are not.
+     */
+    private PooledConnection takeValidIdle() {
+        while (true) {
+            PooledConnection pooled;
+            synchronized (this) {
+                pooled = idle.poll();
+            }
+            if (pooled == null) {
+                return null;
+            }
+            if (!pooled.isExpired(System.currentTimeMillis()) && isValid(pooled.physical)) {
+                return pooled;
+            }
+            closeQuietly(pooled.physical);
+            evictedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Takes back a connection whose proxy was closed.
+     */
+    private void giveBack(PooledConnection pooled) {
+        try {
+            boolean reusable = !pooled.physical.isClosed() && !pooled.isPastLifetime(System.currentTimeMillis());
+            if (reusable && !pooled.physical.getAutoCommit()) {
+                // do not let an unfinished transaction leak into the next borrower
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+
+            synchronized (this) {
+                if (reusable && !closed) {
+                    pooled.lastReturned = System.currentTimeMillis();
+                    idle.push(pooled);
+                    return;
+                }
+            }
+            closeQuietly(pooled.physical);
+        } catch (SQLException e) {
+            closeQuietly(pooled.physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Failed to close pooled connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool, with the times used for eviction.
+     */
+    private class PooledConnection {
+
+        private final Connection physical;
+        private final long created = System.currentTimeMillis();
+        private long lastReturned = created;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        boolean isPastLifetime(long now) {
+            return now - created >= config.getMaxLifetimeMillis();
+        }
+
+        boolean isExpired(long now) {
+            return isPastLifetime(now) || now - lastReturned >= config.getIdleTimeoutMillis();
+        }
+
+        /**
+         * Wraps the connection in a proxy that is returned to the pool when closed.
+         * Every other method is passed to the physical connection.
+         */
+        Connection lend() {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean returned;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!returned) {
+                                returned = true;
+                                giveBack(PooledConnection.this);
+                            }
+                            return null;
+                        case "isClosed":
+                            return returned || physical.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "Pooled" + physical;
+                        default:
+                            if (returned) {
+                                throw new SQLException("Connection has already been returned to the pool");
+                            }
+                            try {
+                                return method.invoke(physical, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                }
+            };
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        }
+    }
+
+    /**
+     * A snapshot of the pool's counters.
+     */
+    public static class Stats {
+
+        private final int active;
+        private final int idle;
+        private final long created;
+        private final long evicted;
+        private final long borrowed;
+        private final long averageWaitNanos;
+        private final long maxWaitNanos;
+
+        Stats(int active, int idle, long created, long evicted, long borrowed, long averageWaitNanos, long maxWaitNanos) {
+            this.active = active;
+            this.idle = idle;
+            this.created = created;
+            this.evicted = evicted;
+            this.borrowed = borrowed;
+            this.averageWaitNanos = averageWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        /**
+         * @return the number of connections currently borrowed
+         */
+        public int getActive() {
+            return active;
+        }
+
+        /**
+         * @return the number of open connections waiting to be borrowed
+         */
+        public int getIdle() {
+            return idle;
+        }
+
+        /**
+         * @return the number of physical connections opened so far
+         */
+        public long getCreated() {
+            return created;
+        }
+
+        /**
+         * @return the number of connections closed for being stale or invalid
+         */
+        public long getEvicted() {
+            return evicted;
+        }
+
+        /**
+         * @return the number of successful borrows so far
+         */
+        public long getBorrowed() {
+            return borrowed;
+        }
+
+        /**
+         * @return the average time a borrow waited for a free connection, in nanoseconds
+         */
+        public long getAverageWaitNanos() {
+            return averageWaitNanos;
+        }
+
+        /**
+         * @return the longest time a borrow waited for a free connection, in nanoseconds
+         */
+        public long getMaxWaitNanos() {
+            return maxWaitNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d idle=%d created=%d evicted=%d borrowed=%d avgWait=%dus maxWait=%dus",
+                    active, idle, created, evicted, borrowed, averageWaitNanos / 1000, maxWaitNanos / 1000);
+        }
+    }
+}
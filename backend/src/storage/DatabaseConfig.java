@@ -0,0 +1,256 @@
+package storage;
+
+import java.util.function.Function;
+
+/**
+ * DatabaseConfig holds the connection, pool, cache, fetch and write-behind settings of the database.
+ *
+ * Every setting is read from a system property (e.g. {@code -Dexpense.db.url=...}) or, if that
+ * is not set, from an environment variable (e.g. {@code EXPENSE_DB_URL}). Settings that are set
+ * nowhere keep the defaults of the local development database.
+ *
+ * <pre>
+ * property                             environment variable                    default
+ * expense.db.url                       EXPENSE_DB_URL                          jdbc:postgresql://localhost:5432/expense_db
+ * expense.db.user                      EXPENSE_DB_USER                         emmanuel
+ * expense.db.password                  EXPENSE_DB_PASSWORD                     1234
+ * expense.db.pool.size                 EXPENSE_DB_POOL_SIZE                    10
+ * expense.db.pool.idleTimeoutMs        EXPENSE_DB_POOL_IDLE_TIMEOUT_MS         300000
+ * expense.db.pool.maxLifetimeMs        EXPENSE_DB_POOL_MAX_LIFETIME_MS         1800000
+ * expense.db.pool.borrowTimeoutMs      EXPENSE_DB_POOL_BORROW_TIMEOUT_MS       30000
+ * expense.db.cache.size                EXPENSE_DB_CACHE_SIZE                   10000
+ * expense.db.cache.ttlMs               EXPENSE_DB_CACHE_TTL_MS                 600000
+ * expense.db.fetchSize                 EXPENSE_DB_FETCH_SIZE                   1000
+ * expense.db.writeBehind.enabled       EXPENSE_DB_WRITE_BEHIND_ENABLED         false
+ * expense.db.writeBehind.delayMs       EXPENSE_DB_WRITE_BEHIND_DELAY_MS        2000
+ * expense.db.writeBehind.maxLagMs      EXPENSE_DB_WRITE_BEHIND_MAX_LAG_MS      10000
+ * expense.db.writeBehind.maxPending    EXPENSE_DB_WRITE_BEHIND_MAX_PENDING     32
+ * expense.db.writeBehind.flushOnExit   EXPENSE_DB_WRITE_BEHIND_FLUSH_ON_EXIT   true
+ * </pre>
+ */
+public class DatabaseConfig {
+
+    private static final int DEFAULT_CACHE_SIZE = 10_000;
+    private static final long DEFAULT_CACHE_TTL_MILLIS = 600_000;
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final WriteBehindSaver.Options DEFAULT_WRITE_BEHIND =
+            new WriteBehindSaver.Options(false, 2_000, 10_000, 32, true);
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int poolSize;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final long borrowTimeoutMillis;
+    private final int cacheSize;
+    private final long cacheTtlMillis;
+    private final WriteBehindSaver.Options writeBehind;
+    private final int fetchSize;
+
+    /**
+     * Constructs a configuration with explicit connection and pool values. The lookup cache,
+     * the write-behind saver and the fetch size keep their defaults; the {@code with} methods
+     * return copies with other values.
+     *
+     * @param url                 the JDBC URL of the database
+     * @param user                the database user
+     * @param password            the database password
+     * @param poolSize            the maximum number of open connections
+     * @param idleTimeoutMillis   how long an unused connection stays open
+     * @param maxLifetimeMillis   how long a connection is used before it is replaced
+     * @param borrowTimeoutMillis how long a caller waits for a free connection
+     */
+    public DatabaseConfig(String url, String user, String password, int poolSize,
+                          long idleTimeoutMillis, long maxLifetimeMillis, long borrowTimeoutMillis) {
+        this(url, user, password, poolSize, idleTimeoutMillis, maxLifetimeMillis, borrowTimeoutMillis,
+                DEFAULT_CACHE_SIZE, DEFAULT_CACHE_TTL_MILLIS, DEFAULT_WRITE_BEHIND, DEFAULT_FETCH_SIZE);
+    }
+
+    private DatabaseConfig(String url, String user, String password, int poolSize,
+                           long idleTimeoutMillis, long maxLifetimeMillis, long borrowTimeoutMillis,
+                           int cacheSize, long cacheTtlMillis, WriteBehindSaver.Options writeBehind,
+                           int fetchSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1, got " + poolSize);
+        }
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be at least 1, got " + fetchSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.poolSize = poolSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.cacheSize = cacheSize;
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.writeBehind = writeBehind;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @param cacheSize      the maximum number of entries of each lookup cache
+     * @param cacheTtlMillis how long a cached lookup stays valid
+     * @return a copy of this configuration with the given lookup cache settings
+     */
+    public DatabaseConfig withCache(int cacheSize, long cacheTtlMillis) {
+        return new DatabaseConfig(url, user, password, poolSize, idleTimeoutMillis, maxLifetimeMillis,
+                borrowTimeoutMillis, cacheSize, cacheTtlMillis, writeBehind, fetchSize);
+    }
+
+    /**
+     * @param writeBehind the settings of the write-behind saver
+     * @return a copy of this configuration with the given write-behind settings
+     */
+    public DatabaseConfig withWriteBehind(WriteBehindSaver.Options writeBehind) {
+        return new DatabaseConfig(url, user, password, poolSize, idleTimeoutMillis, maxLifetimeMillis,
+                borrowTimeoutMillis, cacheSize, cacheTtlMillis, writeBehind, fetchSize);
+    }
+
+    /**
+     * @param fetchSize how many rows a streamed query reads from its cursor at a time
+     * @return a copy of this configuration with the given fetch size
+     * @throws IllegalArgumentException if the fetch size is less than 1
+     */
+    public DatabaseConfig withFetchSize(int fetchSize) {
+        return new DatabaseConfig(url, user, password, poolSize, idleTimeoutMillis, maxLifetimeMillis,
+                borrowTimeoutMillis, cacheSize, cacheTtlMillis, writeBehind, fetchSize);
+    }
+
+    /**
+     * Reads the configuration from the system properties and environment variables.
+     *
+     * @return the configuration of this process
+     */
+    public static DatabaseConfig fromEnvironment() {
+        return from(System::getProperty, System::getenv);
+    }
+
+    /**
+     * Reads the configuration from the given property and environment lookups.
+     *
+     * @param properties  looks up a property by name, returning null if it is not set
+     * @param environment looks up an environment variable by name, returning null if it is not set
+     * @return the configuration
+     * @throws IllegalArgumentException if a numeric or boolean setting cannot be parsed
+     */
+    static DatabaseConfig from(Function<String, String> properties, Function<String, String> environment) {
+        Settings settings = new Settings(properties, environment);
+        return new DatabaseConfig(
+                settings.get("expense.db.url", "jdbc:postgresql://localhost:5432/expense_db"),
+                settings.get("expense.db.user", "emmanuel"),
+                settings.get("expense.db.password", "1234"),
+                (int) settings.getLong("expense.db.pool.size", 10),
+                settings.getLong("expense.db.pool.idleTimeoutMs", 300_000),
+                settings.getLong("expense.db.pool.maxLifetimeMs", 1_800_000),
+                settings.getLong("expense.db.pool.borrowTimeoutMs", 30_000))
+                .withCache(
+                        (int) settings.getLong("expense.db.cache.size", DEFAULT_CACHE_SIZE),
+                        settings.getLong("expense.db.cache.ttlMs", DEFAULT_CACHE_TTL_MILLIS))
+                .withWriteBehind(new WriteBehindSaver.Options(
+                        settings.getBoolean("expense.db.writeBehind.enabled", DEFAULT_WRITE_BEHIND.isEnabled()),
+                        settings.getLong("expense.db.writeBehind.delayMs", DEFAULT_WRITE_BEHIND.getDelayMillis()),
+                        settings.getLong("expense.db.writeBehind.maxLagMs", DEFAULT_WRITE_BEHIND.getMaxLagMillis()),
+                        (int) settings.getLong("expense.db.writeBehind.maxPending", DEFAULT_WRITE_BEHIND.getMaxPending()),
+                        settings.getBoolean("expense.db.writeBehind.flushOnExit", DEFAULT_WRITE_BEHIND.isFlushOnExit())))
+                .withFetchSize((int) settings.getLong("expense.db.fetchSize", DEFAULT_FETCH_SIZE));
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public long getMaxLifetimeMillis() {
+        return maxLifetimeMillis;
+    }
+
+    public long getBorrowTimeoutMillis() {
+        return borrowTimeoutMillis;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public long getCacheTtlMillis() {
+        return cacheTtlMillis;
+    }
+
+    public WriteBehindSaver.Options getWriteBehind() {
+        return writeBehind;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Looks a setting up as a property first and as an environment variable second.
+     */
+    private static class Settings {
+
+        private final Function<String, String> properties;
+        private final Function<String, String> environment;
+
+        Settings(Function<String, String> properties, Function<String, String> environment) {
+            this.properties = properties;
+            this.environment = environment;
+        }
+
+        String get(String property, String defaultValue) {
+            String value = properties.apply(property);
+            if (value == null || value.isBlank()) {
+                value = environment.apply(environmentName(property));
+            }
+            return value == null || value.isBlank() ? defaultValue : value.trim();
+        }
+
+        long getLong(String property, long defaultValue) {
+            String value = get(property, null);
+            if (value == null) {
+                return defaultValue;
+            }
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Setting " + property + " is not a number: " + value);
+            }
+        }
+
+        boolean getBoolean(String property, boolean defaultValue) {
+            String value = get(property, null);
+            if (value == null) {
+                return defaultValue;
+            }
+            if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException("Setting " + property + " is not true or false: " + value);
+            }
+            return Boolean.parseBoolean(value);
+        }
+
+        /**
+         * expense.db.pool.idleTimeoutMs becomes EXPENSE_DB_POOL_IDLE_TIMEOUT_MS.
+         */
+        private static String environmentName(String property) {
+            return property.replaceAll("([a-z])([A-Z])", "$1_$2").replace('.', '_').toUpperCase();
+        }
+    }
+}
@@ -1,26 +1,117 @@
 package storage;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 /**
  * DatabaseManager provides a single point of access to the PostgreSQL database connection.
  * Used throughout the application to retrieve a live connection to the expense_db.
+ *
+ * Connections are borrowed from a {@link ConnectionPool} configured by
+ * {@link DatabaseConfig#fromEnvironment()}; closing a connection returns it to the pool.
+ * Before the first connection is handed out, the schema is brought up to date by the
+ * {@link SchemaMigrator}.
  */
 public class DatabaseManager {
 
-    private static final String URL = "jdbc:postgresql://localhost:5432/expense_db";
-    private static final String USER = "emmanuel";
-    private static final String PASSWORD = "1234";
+    private static ConnectionPool pool;
+    private static boolean migrated;
+    // set when a migration failed for another reason than an unreachable database
+    private static boolean migrationFailed;
 
     /**
-     * Returns a new connection to the PostgreSQL database.
+     * Borrows a connection to the PostgreSQL database from the pool.
+     * The pool is created on first use.
      *
      * @return a Connection object to the database
-     * @throws SQLException if a database access error occurs
+     * @throws SQLException if a database access error occurs or no connection became free in time
      */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return getPool().getConnection();
+    }
+
+    /**
+     * @return the current counters of the connection pool
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return getPool().getStats();
+    }
+
+    /**
+     * @return how many rows a streamed query reads from its cursor at a time, as configured for
+     *         the pool the connections come from
+     */
+    static int getFetchSize() {
+        return getPool().getConfig().getFetchSize();
+    }
+
+    /**
+     * Closes the pool and all its idle connections. A later call to {@link #getConnection()}
+     * creates a new pool.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    /**
+     * Starts a read-only transaction that sees a single snapshot of the database, so several
+     * queries read rows that belong together, and queries with a fetch size are read through a
+     * cursor. The caller commits and turns auto-commit back on.
+     *
+     * @param conn the connection to start the transaction on
+     * @throws SQLException if the transaction could not be started
+     */
+    static void beginReadOnlySnapshot(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ, READ ONLY");
+        }
+    }
+
+    private static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            pool = new ConnectionPool(DatabaseConfig.fromEnvironment());
+        }
+        if (!migrated && !migrationFailed) {
+            // tried again on the next call if the database cannot be reached yet
+            try (Connection conn = pool.getConnection()) {
+                migrate(conn);
+            } catch (SQLException e) {
+                System.err.println("Failed to connect to migrate the database schema: " + e.getMessage());
+            }
+        }
+        return pool;
+    }
+
+    private static void migrate(Connection conn) {
+        try {
+            SchemaMigrator.migrate(conn);
+            migrated = true;
+        } catch (SQLException e) {
+            // a failing script fails again on every call, so only a lost connection is retried
+            migrationFailed = !isConnectionError(e);
+            System.err.println("Failed to migrate the database schema"
+                    + (migrationFailed ? ", not trying again: " : ": ") + e.getMessage());
+        }
+    }
+
+    /**
+     * @return true if the exception, or one it was caused by, is a connection exception
+     *         (SQL state class 08)
+     */
+    static boolean isConnectionError(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                String sqlState = ((SQLException) cause).getSQLState();
+                if (sqlState != null && sqlState.startsWith("08")) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 }
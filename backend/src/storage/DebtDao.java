@@ -2,14 +2,14 @@ package storage;
 
 import logic.Debt;
 import logic.Event;
+import logic.EventSnapshot;
 import logic.Participant;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * DebtDao handles database operations related to debts in the system.
@@ -30,30 +30,88 @@ public class DebtDao {
             throw new IllegalArgumentException("Event must be saved before saving debts.");
         }
 
-        String deleteSql = "DELETE FROM debts WHERE event_id = ?";
-        String insertSql = "INSERT INTO debts (event_id, from_participant_id, to_participant_id, amount) VALUES (?, ?, ?, ?)";
-
         try (Connection conn = DatabaseManager.getConnection()) {
+            saveEventDebts(conn, null, EventSnapshot.of(event));
+        } catch (SQLException e) {
+            System.err.println("Failed to save debts for event: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the debt changes between two snapshots of an event on the given connection.
+     * Without a previous snapshot all debts of the event are replaced. Otherwise a changed
+     * amount between the same debtor and creditor is updated in place, and only the pairs
+     * whose debts appeared, disappeared or were split differently are deleted and inserted.
+     *
+     * @param conn     the connection, possibly inside a transaction
+     * @param previous the rows as of the last save, or null to replace all rows
+     * @param current  the rows to save
+     * @throws SQLException if a database access error occurs
+     */
+    static void saveEventDebts(Connection conn, EventSnapshot previous, EventSnapshot current) throws SQLException {
+        int eventId = current.getEventId();
+        Map<Long, List<Long>> debts = current.getDebts();
 
-            // delete old debts if exist
-            try (PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
-                deleteStmt.setInt(1, eventId);
-                deleteStmt.executeUpdate();
+        String deleteSql = "DELETE FROM debts WHERE event_id = ?";
+        String deletePairSql = "DELETE FROM debts WHERE event_id = ? AND from_participant_id = ? AND to_participant_id = ?";
+        String updateSql = "UPDATE debts SET amount = ?::numeric / 100 WHERE event_id = ? AND from_participant_id = ? AND to_participant_id = ?";
+        String insertSql = "INSERT INTO debts (event_id, from_participant_id, to_participant_id, amount) VALUES (?, ?, ?, ?::numeric / 100)";
+
+        Map<Long, List<Long>> inserted = new HashMap<>();
+        try (PreparedStatement deletePairStmt = conn.prepareStatement(deletePairSql);
+             PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
+
+            if (previous == null) {
+                // delete old debts if exist
+                try (PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
+                    deleteStmt.setInt(1, eventId);
+                    deleteStmt.executeUpdate();
+                }
+                inserted.putAll(debts);
+            } else {
+                Set<Long> pairs = new HashSet<>(previous.getDebts().keySet());
+                pairs.addAll(debts.keySet());
+                for (Long pair : pairs) {
+                    List<Long> before = previous.getDebts().getOrDefault(pair, List.of());
+                    List<Long> after = debts.getOrDefault(pair, List.of());
+                    if (before.equals(after)) {
+                        continue;
+                    }
+                    if (before.size() == 1 && after.size() == 1) {
+                        updateStmt.setLong(1, after.get(0));
+                        updateStmt.setInt(2, eventId);
+                        updateStmt.setInt(3, EventSnapshot.firstId(pair));
+                        updateStmt.setInt(4, EventSnapshot.secondId(pair));
+                        updateStmt.addBatch();
+                        continue;
+                    }
+                    if (!before.isEmpty()) {
+                        deletePairStmt.setInt(1, eventId);
+                        deletePairStmt.setInt(2, EventSnapshot.firstId(pair));
+                        deletePairStmt.setInt(3, EventSnapshot.secondId(pair));
+                        deletePairStmt.addBatch();
+                    }
+                    if (!after.isEmpty()) {
+                        inserted.put(pair, after);
+                    }
+                }
             }
+            deletePairStmt.executeBatch();
+            updateStmt.executeBatch();
+        }
 
-            // enter new/updated debts to database
-            for (Debt debt : event.getDebts()) {
-                try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
+        // enter new/updated debts to database
+        try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
+            for (Map.Entry<Long, List<Long>> entry : inserted.entrySet()) {
+                for (long amount : entry.getValue()) {
                     insertStmt.setInt(1, eventId);
-                    insertStmt.setInt(2, debt.getDebtor().getId());
-                    insertStmt.setInt(3, debt.getCreditor().getId());
-                    insertStmt.setDouble(4, debt.getAmount());
-                    insertStmt.executeUpdate();
+                    insertStmt.setInt(2, EventSnapshot.firstId(entry.getKey()));
+                    insertStmt.setInt(3, EventSnapshot.secondId(entry.getKey()));
+                    insertStmt.setLong(4, amount);
+                    insertStmt.addBatch();
                 }
             }
-
-        } catch (SQLException e) {
-            System.err.println("Failed to save debts for event: " + e.getMessage());
+            insertStmt.executeBatch();
         }
     }
 
@@ -69,11 +127,13 @@ public class DebtDao {
         List<Debt> debts = new ArrayList<>();
 
         String sql = """
-        SELECT from_participant_id, to_participant_id, amount
+        SELECT from_participant_id, to_participant_id, (amount * 100)::bigint AS amount
         FROM debts
         WHERE event_id = ?
     """;
 
+        IdentityMap<Participant> participantsById = IdentityMap.ofParticipants(participants);
+
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
@@ -83,10 +143,10 @@ public class DebtDao {
             while (rs.next()) {
                 int fromId = rs.getInt("from_participant_id");
                 int toId = rs.getInt("to_participant_id");
-                double amount = rs.getDouble("amount");
+                long amount = rs.getLong("amount");
 
-                Participant from = ParticipantDao.findParticipantById(participants, fromId);
-                Participant to = ParticipantDao.findParticipantById(participants, toId);
+                Participant from = participantsById.get(fromId);
+                Participant to = participantsById.get(toId);
 
                 if (from != null && to != null) {
                     debts.add(new Debt(from, to, amount));
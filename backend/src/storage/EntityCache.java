@@ -0,0 +1,179 @@
+package storage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * EntityCache is a bounded, thread-safe map of recently used database lookups.
+ *
+ * When the cache is full, the least recently used entry is evicted. Entries also expire a
+ * fixed time after they were stored, so rows changed outside this application are picked
+ * up again eventually. Hits, misses and evictions are counted for {@link #getStats()}.
+ *
+ * @param <K> the lookup key, e.g. a phone number
+ * @param <V> the cached value, e.g. a participant ID
+ */
+public class EntityCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxSize    the maximum number of entries
+     * @param ttlMillis  how long an entry stays valid after it was stored
+     */
+    public EntityCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, System::nanoTime);
+    }
+
+    /**
+     * Creates an empty cache with the given clock, for tests.
+     */
+    EntityCache(int maxSize, long ttlMillis, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1, got " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > EntityCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param key the lookup key
+     * @return the cached value, or null if it is not cached or has expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && clock.getAsLong() - entry.expiresAt >= 0) {
+            entries.remove(key);
+            evictions++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Stores a value, replacing the one cached for the key.
+     *
+     * @param key   the lookup key
+     * @param value the value, not null
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.getAsLong() + ttlNanos));
+    }
+
+    /**
+     * @param key the key to forget
+     * @return the value that was cached for the key, or null
+     */
+    public synchronized V remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Forgets all entries. The statistics are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the number of cached entries, including expired ones not yet evicted
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return a snapshot of the cache's counters
+     */
+    public synchronized Stats getStats() {
+        return new Stats(entries.size(), hits, misses, evictions);
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A snapshot of the cache's counters.
+     */
+    public static class Stats {
+
+        private final int size;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        Stats(int size, long hits, long misses, long evictions) {
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return the number of entries dropped because the cache was full or they expired
+         */
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * @return the share of lookups answered from the cache, between 0 and 1
+         */
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("size=%d hits=%d misses=%d evictions=%d hitRate=%.2f",
+                    size, hits, misses, evictions, getHitRate());
+        }
+    }
+}
@@ -1,13 +1,25 @@
 package storage;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import logic.Category;
+import logic.Debt;
 import logic.Event;
+import logic.EventSnapshot;
+import logic.Money;
 import logic.Participant;
 
 import java.sql.*;
 import java.sql.Date;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * EventDao handles database interactions related to Event objects,
@@ -15,6 +27,55 @@ import java.util.List;
  */
 public class EventDao {
 
+    /**
+     * Loads an event together with its participants, categories, debts and stored results.
+     * Each of these tables is aggregated into a JSON array of compact row arrays, so they come
+     * back as one row of one query. Amounts are converted to cents by the database. Expenses
+     * and consumptions, which grow with participants times categories, are streamed by
+     * separate queries instead, see {@link #loadEventById(int)}.
+     */
+    static final String LOAD_EVENT_SQL = """
+        SELECT e.name, e.date, (e.participation_fee * 100)::bigint AS participation_fee, e.results_version,
+            (SELECT COALESCE(json_agg(json_build_array(p.id, p.name, p.phone, p.email) ORDER BY p.id), '[]')
+             FROM event_participants ep JOIN participants p ON p.id = ep.participant_id
+             WHERE ep.event_id = e.id) AS participants,
+            (SELECT COALESCE(json_agg(json_build_array(c.id, c.name) ORDER BY c.id), '[]')
+             FROM event_categories ec JOIN categories c ON c.id = ec.category_id
+             WHERE ec.event_id = e.id) AS categories,
+            (SELECT COALESCE(json_agg(json_build_array(d.from_participant_id, d.to_participant_id, (d.amount * 100)::bigint) ORDER BY d.id), '[]')
+             FROM debts d WHERE d.event_id = e.id) AS debts,
+            (SELECT COALESCE(json_agg(json_build_array(r.participant_id, (r.total_consumed * 100)::bigint, (r.balance * 100)::bigint)), '[]')
+             FROM participant_results r WHERE r.event_id = e.id) AS participant_results,
+            (SELECT COALESCE(json_agg(json_build_array(r.category_id, (r.total_expense * 100)::bigint, (r.adjusted_expense * 100)::bigint)), '[]')
+             FROM category_results r WHERE r.event_id = e.id) AS category_results
+        FROM events e
+        WHERE e.id = ?
+    """;
+
+    /**
+     * Lists all events, newest first.
+     */
+    static final String LIST_EVENTS_SQL = "SELECT id, name FROM events ORDER BY date DESC";
+
+    /**
+     * Lists a page of events, newest first, with their participant count and total spend in
+     * cents. The filter conditions (%1$s) are inserted by {@link #listEventsSql(EventFilter, boolean)}.
+     * The inner query pages over the events alone, so the counts are computed for the rows of
+     * the page only.
+     */
+    private static final String LIST_EVENT_PAGE_SQL = """
+        SELECT e.id, e.name, e.date,
+            (SELECT count(*) FROM event_participants ep WHERE ep.event_id = e.id) AS participant_count,
+            (SELECT COALESCE((SUM(x.amount) * 100)::bigint, 0) FROM expenses x WHERE x.event_id = e.id) AS total_spend
+        FROM (
+            SELECT id, name, date FROM events
+            %1$s
+            ORDER BY date DESC, id DESC
+            LIMIT ?
+        ) e
+        ORDER BY e.date DESC, e.id DESC
+    """;
+
     /**
      * Inserts a new event or updates an existing one based on the presence of an ID.
      *
@@ -22,43 +83,54 @@ public class EventDao {
      * @return true if the operation was successful, false otherwise
      */
     public static boolean insertOrUpdateEvent(Event event) {
-        String insertSql = "INSERT INTO events (name, date, participation_fee) VALUES (?, ?, ?)";
-        String updateSql = "UPDATE events SET name = ?, date = ?, participation_fee = ? WHERE id = ?";
-
         try (Connection conn = DatabaseManager.getConnection()) {
-            if (event.getId() != 0) {
-                // UPDATE
-                try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
-                    stmt.setString(1, event.getEventName());
-                    stmt.setDate(2, Date.valueOf(event.getDate()));
-                    stmt.setDouble(3, event.getParticipationFee());
-                    stmt.setInt(4, event.getId());
-                    int rowsUpdated = stmt.executeUpdate();
-                    return rowsUpdated > 0;
-                }
-            } else {
-                // INSERT
-                try (PreparedStatement stmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
-                    stmt.setString(1, event.getEventName());
-                    stmt.setDate(2, Date.valueOf(event.getDate()));
-                    stmt.setDouble(3, event.getParticipationFee());
-                    stmt.executeUpdate();
-
-                    ResultSet rs = stmt.getGeneratedKeys();
-                    if (rs.next()) {
-                        event.setId(rs.getInt(1));
-                    }
-
-                    return true;
-                }
-            }
-
+            return insertOrUpdateEvent(conn, event);
         } catch (SQLException e) {
             System.err.println("Failed to insert/update event in database: " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Inserts a new event or updates an existing one on the given connection.
+     *
+     * @param conn  the connection, possibly inside a transaction
+     * @param event the event to insert or update
+     * @return true if a row was inserted or updated
+     * @throws SQLException if a database access error occurs
+     */
+    static boolean insertOrUpdateEvent(Connection conn, Event event) throws SQLException {
+        String insertSql = "INSERT INTO events (name, date, participation_fee) VALUES (?, ?, ?::numeric / 100)";
+        String updateSql = "UPDATE events SET name = ?, date = ?, participation_fee = ?::numeric / 100 WHERE id = ?";
+
+        if (event.getId() != 0) {
+            // UPDATE
+            try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
+                stmt.setString(1, event.getEventName());
+                stmt.setDate(2, Date.valueOf(event.getDate()));
+                stmt.setLong(3, event.getParticipationFee());
+                stmt.setInt(4, event.getId());
+                int rowsUpdated = stmt.executeUpdate();
+                return rowsUpdated > 0;
+            }
+        } else {
+            // INSERT
+            try (PreparedStatement stmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, event.getEventName());
+                stmt.setDate(2, Date.valueOf(event.getDate()));
+                stmt.setLong(3, event.getParticipationFee());
+                stmt.executeUpdate();
+
+                ResultSet rs = stmt.getGeneratedKeys();
+                if (rs.next()) {
+                    event.setId(rs.getInt(1));
+                }
+
+                return true;
+            }
+        }
+    }
+
     /**
      * Retrieves a summary list of all events from the database.
      *
@@ -66,10 +138,8 @@ public class EventDao {
      */
     public static List<EventSummary> getAllEvents() {
         List<EventSummary> events = new ArrayList<>();
-        String sql = "SELECT id, name FROM events ORDER BY date DESC";
-
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement stmt = conn.prepareStatement(LIST_EVENTS_SQL);
              ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
@@ -85,40 +155,290 @@ public class EventDao {
         return events;
     }
 
+    /**
+     * Lists one page of events, newest first (by date, then ID).
+     *
+     * Pages are keyset-paginated: the next page starts after the last event of the previous
+     * one instead of skipping an offset, so every page is read straight from the
+     * {@code events (date, id)} index no matter how deep it is, and events saved in the
+     * meantime do not shift the pages.
+     *
+     * @param filter   which events to list
+     * @param after    the last event of the previous page, or null for the first page
+     * @param pageSize the maximum number of events on the page
+     * @return the page, empty on error
+     */
+    public static EventPage listEvents(EventFilter filter, EventSummary after, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1, got " + pageSize);
+        }
+        if (after != null && after.getDate() == null) {
+            throw new IllegalArgumentException("The previous page must come from listEvents");
+        }
+
+        List<EventSummary> events = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(listEventsSql(filter, after != null))) {
+
+            List<Object> params = listEventsParams(filter, after, pageSize + 1);
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    events.add(new EventSummary(rs.getInt("id"), rs.getString("name"),
+                            rs.getDate("date").toLocalDate(), rs.getInt("participant_count"),
+                            rs.getLong("total_spend")));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to list events: " + e.getMessage());
+            return new EventPage(List.of(), false);
+        }
+
+        // one event more than the page size was read to tell whether another page follows
+        boolean hasMore = events.size() > pageSize;
+        if (hasMore) {
+            events.remove(pageSize);
+        }
+        return new EventPage(events, hasMore);
+    }
+
+    /**
+     * @param filter which events to list
+     * @param paged  whether the page starts after a previous one
+     * @return the listing statement with the conditions of the filter
+     */
+    static String listEventsSql(EventFilter filter, boolean paged) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.getNamePrefix() != null) {
+            conditions.add("lower(name) LIKE ? ESCAPE '\\'");
+        }
+        if (filter.getFrom() != null) {
+            conditions.add("date >= ?");
+        }
+        if (filter.getTo() != null) {
+            conditions.add("date <= ?");
+        }
+        if (paged) {
+            conditions.add("(date, id) < (?, ?)");
+        }
+        String where = conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions);
+        return String.format(LIST_EVENT_PAGE_SQL, where);
+    }
+
+    /**
+     * @return the parameters of {@link #listEventsSql(EventFilter, boolean)}, in order
+     */
+    static List<Object> listEventsParams(EventFilter filter, EventSummary after, int limit) {
+        List<Object> params = new ArrayList<>();
+        if (filter.getNamePrefix() != null) {
+            String escaped = filter.getNamePrefix().toLowerCase()
+                    .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            params.add(escaped + "%");
+        }
+        if (filter.getFrom() != null) {
+            params.add(Date.valueOf(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            params.add(Date.valueOf(filter.getTo()));
+        }
+        if (after != null) {
+            params.add(Date.valueOf(after.getDate()));
+            params.add(after.getId());
+        }
+        params.add(limit);
+        return params;
+    }
+
     /**
      * Loads a full Event object by its ID, including its participants, categories, and debts.
+     * The event row and its small tables are fetched in one round trip by
+     * {@link #LOAD_EVENT_SQL}; the expenses and consumptions are streamed through a cursor, in
+     * chunks of the configured fetch size, by the same read-only transaction. Results stored
+     * for the same content version are applied, see {@link Event#hasLoadedResults()}.
      *
      * @param eventId the ID of the event to load
      * @return the fully constructed Event, or null if not found or on error
      */
     public static Event loadEventById(int eventId) {
-        String sql = "SELECT name, date, participation_fee FROM events WHERE id = ?";
+        try (Connection conn = DatabaseManager.getConnection()) {
+            DatabaseManager.beginReadOnlySnapshot(conn);
+            try {
+                Event event = loadEvent(conn, eventId);
+                conn.commit();
+                return event;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        } catch (SQLException | JsonParseException | IllegalStateException e) {
+            System.err.println("Failed to load event by ID: " + e.getMessage());
+        }
+
+        return null;
+    }
+
+    /**
+     * Loads several events like {@link #loadEventById(int)}, on one connection and in one
+     * read-only transaction, e.g. for a batch recalculation. Each event is still read by its
+     * own queries.
+     *
+     * @param eventIds the IDs of the events to load
+     * @return the events in the order of the IDs, with null for each event that was not found
+     *         or could not be read; all null if the database failed
+     */
+    public static List<Event> loadEventsById(List<Integer> eventIds) {
+        List<Event> events = new ArrayList<>(eventIds.size());
+        try (Connection conn = DatabaseManager.getConnection()) {
+            DatabaseManager.beginReadOnlySnapshot(conn);
+            try {
+                for (int eventId : eventIds) {
+                    Event event = null;
+                    try {
+                        event = loadEvent(conn, eventId);
+                    } catch (JsonParseException | IllegalStateException e) {
+                        // a malformed event does not abort the transaction of the others
+                        System.err.println("Failed to load event " + eventId + ": " + e.getMessage());
+                    }
+                    events.add(event);
+                }
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to load events by ID: " + e.getMessage());
+            return new ArrayList<>(Collections.nCopies(eventIds.size(), null));
+        }
+
+        return events;
+    }
 
+    /**
+     * Loads one event inside the caller's read-only transaction.
+     *
+     * @return the event, or null if it was not found
+     */
+    private static Event loadEvent(Connection conn, int eventId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(LOAD_EVENT_SQL)) {
             stmt.setInt(1, eventId);
             ResultSet rs = stmt.executeQuery();
 
-            if (rs.next()) {
-                String name = rs.getString("name");
-                LocalDate date = rs.getDate("date").toLocalDate();
-                double fee = rs.getDouble("participation_fee");
-
-                Event event = new Event(name, fee, date);
-                event.setId(eventId);
-                List<Participant> eventParticipants = ParticipantDao.getParticipantsFromEvent(eventId);
-                event.setParticipants(eventParticipants);
-                event.setCategories(CategoryDao.getCategoriesForEvent(eventId));
-                event.setDebts(DebtDao.getDebtsForEvent(eventId, eventParticipants));
-                return event;
+            if (!rs.next()) {
+                return null;
             }
+            String name = rs.getString("name");
+            LocalDate date = rs.getDate("date").toLocalDate();
+            long fee = rs.getLong("participation_fee");
 
-        } catch (SQLException e) {
-            System.err.println("Failed to load event by ID: " + e.getMessage());
+            Event event = new Event(name, fee, date);
+            event.setId(eventId);
+            readEventRows(conn, event, rs);
+            EventSnapshot snapshot = EventSnapshot.of(event);
+            event.setPersistedSnapshot(snapshot);
+
+            long resultsVersion = rs.getLong("results_version");
+            if (!rs.wasNull() && resultsVersion == snapshot.getContentVersion()) {
+                readStoredResults(event, rs);
+            }
+            return event;
         }
+    }
 
-        return null;
+    /**
+     * Builds the participants, categories and debts of an event from the JSON columns of
+     * {@link #LOAD_EVENT_SQL}, and streams its expenses and consumptions on the same
+     * connection. Participants and categories are created once and shared by the event, the
+     * expenses, the consumptions and the debts.
+     */
+    private static void readEventRows(Connection conn, Event event, ResultSet rs) throws SQLException {
+        JsonArray participantRows = JsonParser.parseString(rs.getString("participants")).getAsJsonArray();
+        List<Participant> participants = new ArrayList<>(participantRows.size());
+        IdentityMap<Participant> participantsById = new IdentityMap<>(participantRows.size());
+        for (JsonElement element : participantRows) {
+            JsonArray row = element.getAsJsonArray();
+            Participant participant = new Participant(row.get(1).getAsString());
+            participant.setId(row.get(0).getAsInt());
+            participant.setPhoneNumber(row.get(2).getAsString());
+            participant.setEmail(row.get(3).isJsonNull() ? null : row.get(3).getAsString());
+            participants.add(participant);
+            participantsById.put(participant.getId(), participant);
+        }
+
+        JsonArray categoryRows = JsonParser.parseString(rs.getString("categories")).getAsJsonArray();
+        List<Category> categories = new ArrayList<>(categoryRows.size());
+        IdentityMap<Category> categoriesById = new IdentityMap<>(categoryRows.size());
+        for (JsonElement element : categoryRows) {
+            JsonArray row = element.getAsJsonArray();
+            Category category = new Category(row.get(1).getAsString());
+            category.setId(row.get(0).getAsInt());
+            categories.add(category);
+            categoriesById.put(category.getId(), category);
+        }
+
+        int fetchSize = DatabaseManager.getFetchSize();
+        ParticipantDao.loadParticipantExpenses(conn, event.getId(), fetchSize, participantsById, categoriesById);
+        ParticipantDao.loadParticipantConsumptions(conn, event.getId(), fetchSize, participantsById, categoriesById);
+
+        List<Debt> debts = new ArrayList<>();
+        for (JsonElement element : JsonParser.parseString(rs.getString("debts")).getAsJsonArray()) {
+            JsonArray row = element.getAsJsonArray();
+            Participant from = participantsById.get(row.get(0).getAsInt());
+            Participant to = participantsById.get(row.get(1).getAsInt());
+            if (from != null && to != null) {
+                debts.add(new Debt(from, to, row.get(2).getAsLong()));
+            }
+        }
+
+        event.setParticipants(participants);
+        event.setCategories(categories);
+        event.setDebts(debts);
+    }
+
+    /**
+     * Applies the stored results of an event from the JSON columns of {@link #LOAD_EVENT_SQL}.
+     * Nothing is applied unless there is a result for every participant and every category.
+     */
+    private static void readStoredResults(Event event, ResultSet rs) throws SQLException {
+        JsonArray participantRows = JsonParser.parseString(rs.getString("participant_results")).getAsJsonArray();
+        JsonArray categoryRows = JsonParser.parseString(rs.getString("category_results")).getAsJsonArray();
+        if (participantRows.size() != event.getParticipants().size()
+                || categoryRows.size() != event.getCategories().size()) {
+            return;
+        }
+
+        IdentityMap<Participant> participantsById = IdentityMap.ofParticipants(event.getParticipants());
+        Participant[] participants = new Participant[participantRows.size()];
+        for (int p = 0; p < participants.length; p++) {
+            participants[p] = participantsById.get(participantRows.get(p).getAsJsonArray().get(0).getAsInt());
+            if (participants[p] == null) {
+                return;
+            }
+        }
+
+        IdentityMap<Category> categoriesById = IdentityMap.ofCategories(event.getCategories());
+        Map<Category, Long> totalExpensePerCategory = new HashMap<>();
+        Map<Category, Long> adjustedTotalExpensePerCategory = new HashMap<>();
+        for (JsonElement element : categoryRows) {
+            JsonArray row = element.getAsJsonArray();
+            Category category = categoriesById.get(row.get(0).getAsInt());
+            if (category == null) {
+                return;
+            }
+            totalExpensePerCategory.put(category, row.get(1).getAsLong());
+            adjustedTotalExpensePerCategory.put(category, row.get(2).getAsLong());
+        }
+
+        for (int p = 0; p < participants.length; p++) {
+            JsonArray row = participantRows.get(p).getAsJsonArray();
+            participants[p].setTotalConsumed(row.get(1).getAsLong());
+            participants[p].setBalance(row.get(2).getAsLong());
+        }
+        event.applyLoadedResults(totalExpensePerCategory, adjustedTotalExpensePerCategory);
     }
 
     /**
@@ -145,14 +465,26 @@ public class EventDao {
 
     /**
      * Simple projection class representing a minimal summary of an event.
+     * Summaries from {@link #listEvents(EventFilter, EventSummary, int)} also carry the date,
+     * the number of participants and the total spend.
      */
     public static class EventSummary {
         private final int id;
         private final String name;
+        private final LocalDate date;
+        private final int participantCount;
+        private final long totalSpend;
 
         public EventSummary(int id, String name) {
+            this(id, name, null, 0, 0);
+        }
+
+        public EventSummary(int id, String name, LocalDate date, int participantCount, long totalSpend) {
             this.id = id;
             this.name = name;
+            this.date = date;
+            this.participantCount = participantCount;
+            this.totalSpend = totalSpend;
         }
 
         public int getId() {
@@ -163,9 +495,104 @@ public class EventDao {
             return name;
         }
 
+        /**
+         * @return the date of the event, or null if the summary was made without it
+         */
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public int getParticipantCount() {
+            return participantCount;
+        }
+
+        /**
+         * @return the sum of all expenses of the event, in cents
+         */
+        public long getTotalSpend() {
+            return totalSpend;
+        }
+
         @Override
         public String toString() {
-            return String.format("[ID: %d] %s", id, name);
+            if (date == null) {
+                return String.format("[ID: %d] %s", id, name);
+            }
+            return String.format("[ID: %d] %s (%s, %d participants, total %s)", id, name,
+                    date.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")), participantCount, Money.format(totalSpend));
+        }
+    }
+
+    /**
+     * Which events to list. Every condition is optional; null means no restriction.
+     */
+    public static class EventFilter {
+        private final String namePrefix;
+        private final LocalDate from;
+        private final LocalDate to;
+
+        /**
+         * @param namePrefix the start of the event name, case-insensitive, or null
+         * @param from       the earliest event date, inclusive, or null
+         * @param to         the latest event date, inclusive, or null
+         */
+        public EventFilter(String namePrefix, LocalDate from, LocalDate to) {
+            this.namePrefix = namePrefix == null || namePrefix.isEmpty() ? null : namePrefix;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @return a filter that lists all events
+         */
+        public static EventFilter all() {
+            return new EventFilter(null, null, null);
+        }
+
+        public String getNamePrefix() {
+            return namePrefix;
+        }
+
+        public LocalDate getFrom() {
+            return from;
+        }
+
+        public LocalDate getTo() {
+            return to;
+        }
+    }
+
+    /**
+     * One page of event summaries.
+     */
+    public static class EventPage {
+        private final List<EventSummary> events;
+        private final boolean hasMore;
+
+        EventPage(List<EventSummary> events, boolean hasMore) {
+            this.events = Collections.unmodifiableList(events);
+            this.hasMore = hasMore;
+        }
+
+        /**
+         * @return the events of the page, newest first
+         */
+        public List<EventSummary> getEvents() {
+            return events;
+        }
+
+        /**
+         * @return true if more events follow this page
+         */
+        public boolean hasMore() {
+            return hasMore;
+        }
+
+        /**
+         * @return the last event of the page, to pass as {@code after} for the next page, or null if empty
+         */
+        public EventSummary getLast() {
+            return events.isEmpty() ? null : events.get(events.size() - 1);
         }
     }
 
@@ -0,0 +1,196 @@
+package storage;
+
+import logic.Category;
+import logic.Event;
+import logic.EventSnapshot;
+import logic.Participant;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * EventRepository saves a whole event as one unit of work.
+ *
+ * The event row, its participants, categories, expenses, consumptions, debts and calculated
+ * results are written on a single connection inside one transaction, with the rows of every
+ * table sent as JDBC batches. Either the whole event is saved or, if anything fails, nothing is: the transaction
+ * is rolled back and the IDs assigned during the failed attempt are taken back, so the event
+ * can be saved again later.
+ *
+ * After a successful save the event keeps an {@link EventSnapshot} of what was written. The
+ * next save compares the event against it and writes only the rows that changed; an event
+ * without a snapshot (new, or saved another way) has all of its rows replaced.
+ */
+public class EventRepository {
+
+    /**
+     * Saves the event and everything in it in one transaction. The event's calculations are
+     * brought up to date first, so the stored debts and results belong to the rows saved with
+     * them.
+     *
+     * @param event the event to save
+     * @return true if the event was saved, false if the transaction was rolled back
+     */
+    public static boolean save(Event event) {
+        event.updateCalculations();
+        IdSnapshot ids = new IdSnapshot(event);
+        EventSnapshot previous = event.getPersistedSnapshot();
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (!EventDao.insertOrUpdateEvent(conn, event)) {
+                    throw new SQLException("Event " + event.getId() + " does not exist anymore.");
+                }
+                if (previous != null && previous.getEventId() != event.getId()) {
+                    previous = null;
+                }
+
+                int eventId = event.getId();
+                ParticipantDao.saveEventParticipants(conn, eventId, changedParticipants(event, previous));
+                CategoryDao.saveEventCategories(conn, eventId, changedCategories(event, previous));
+                rehashExpenses(event);
+
+                EventSnapshot current = EventSnapshot.of(event);
+                if (previous != null) {
+                    ParticipantDao.unlinkParticipants(conn, eventId,
+                            removed(previous.getParticipantIds(), current.getParticipantIds()));
+                    CategoryDao.unlinkCategories(conn, eventId,
+                            removed(previous.getCategoryNames().keySet(), current.getCategoryNames().keySet()));
+                }
+                ExpenseDao.saveEventExpenses(conn, previous, current);
+                ExpenseDao.saveEventConsumptions(conn, previous, current);
+                DebtDao.saveEventDebts(conn, previous, current);
+                ResultDao.saveEventResults(conn, event, current);
+                conn.commit();
+
+                event.setPersistedSnapshot(current);
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                ids.restore();
+                // IDs of rows inserted by this transaction may have been cached
+                LookupCache.clear();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException | IllegalArgumentException e) {
+            System.err.println("Failed to save event, nothing was written: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Categories hash by their ID once they have one, so the expense maps holding them are
+     * re-keyed whenever the save assigns or takes back category IDs. This includes the event's
+     * per-category results, which later incremental updates write to by category. Participants
+     * hash the same way, so the per-category expense maps keyed by them are re-keyed too.
+     */
+    private static void rehashExpenses(Event event) {
+        for (Participant participant : event.getParticipants()) {
+            rehash(participant.getExpenses());
+        }
+        rehash(event.getTotalExpensePerCategory());
+        rehash(event.getAdjustedTotalExpensePerCategory());
+        for (Map<Participant, Long> expenses : event.getExpensePerCategory().values()) {
+            rehash(expenses);
+        }
+        rehash(event.getExpensePerCategory());
+        rehash(event.getConsumedPerCategory());
+        // drops the incremental engine, whose category ordinals are hashed the same way
+        event.setCategories(event.getCategories());
+    }
+
+    private static <K, V> void rehash(Map<K, V> map) {
+        Map<K, V> entries = new HashMap<>(map);
+        map.clear();
+        map.putAll(entries);
+    }
+
+    /**
+     * A participant whose phone number changed since the last save is resolved again by the
+     * new number. Its old ID then drops out of the current snapshot and is unlinked like a
+     * removed participant.
+     *
+     * @return the participants that were not linked to the event at the last save, or whose
+     *         phone number changed since
+     */
+    private static List<Participant> changedParticipants(Event event, EventSnapshot previous) {
+        if (previous == null) {
+            return event.getParticipants();
+        }
+        List<Participant> changed = new ArrayList<>();
+        for (Participant participant : event.getParticipants()) {
+            String previousPhone = previous.getParticipantPhones().get(participant.getId());
+            if (previousPhone == null) {
+                changed.add(participant);
+            } else if (!previousPhone.equals(participant.getPhoneNumber())) {
+                LookupCache.invalidateParticipant(participant.getId());
+                changed.add(participant);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return the categories that are new or were renamed since the last save
+     */
+    private static List<Category> changedCategories(Event event, EventSnapshot previous) {
+        if (previous == null) {
+            return event.getCategories();
+        }
+        List<Category> changed = new ArrayList<>();
+        for (Category category : event.getCategories()) {
+            if (!category.getName().equals(previous.getCategoryNames().get(category.getId()))) {
+                changed.add(category);
+            }
+        }
+        return changed;
+    }
+
+    private static List<Integer> removed(Set<Integer> before, Set<Integer> after) {
+        List<Integer> removed = new ArrayList<>();
+        for (Integer id : before) {
+            if (!after.contains(id)) {
+                removed.add(id);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * The IDs of an event and its participants and categories before a save.
+     */
+    private static class IdSnapshot {
+
+        private final Event event;
+        private final int eventId;
+        private final List<Participant> participants;
+        private final int[] participantIds;
+        private final List<Category> categories;
+        private final int[] categoryIds;
+
+        IdSnapshot(Event event) {
+            this.event = event;
+            this.eventId = event.getId();
+            this.participants = List.copyOf(event.getParticipants());
+            this.participantIds = participants.stream().mapToInt(Participant::getId).toArray();
+            this.categories = List.copyOf(event.getCategories());
+            this.categoryIds = categories.stream().mapToInt(Category::getId).toArray();
+        }
+
+        void restore() {
+            event.setId(eventId);
+            for (int i = 0; i < participants.size(); i++) {
+                participants.get(i).setId(participantIds[i]);
+            }
+            for (int i = 0; i < categories.size(); i++) {
+                categories.get(i).setId(categoryIds[i]);
+            }
+            rehashExpenses(event);
+        }
+    }
+}
@@ -1,11 +1,10 @@
 package storage;
 
-import logic.Category;
 import logic.Event;
-import logic.Participant;
+import logic.EventSnapshot;
 
 import java.sql.*;
-import java.util.Map;
+import java.util.*;
 
 /**
  * ExpenseDao handles database operations related to expenses and consumptions
@@ -27,30 +26,65 @@ public class ExpenseDao {
         }
 
         try (Connection conn = DatabaseManager.getConnection()) {
+            saveEventExpenses(conn, null, EventSnapshot.of(event));
+        } catch (SQLException e) {
+            System.err.println("Failed to save expenses: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the expense changes between two snapshots of an event on the given connection.
+     * Without a previous snapshot all expenses of the event are replaced; otherwise only the
+     * removed expenses are deleted and the new or changed ones upserted, each as one batch.
+     *
+     * @param conn     the connection, possibly inside a transaction
+     * @param previous the rows as of the last save, or null to replace all rows
+     * @param current  the rows to save
+     * @throws SQLException if a database access error occurs
+     */
+    static void saveEventExpenses(Connection conn, EventSnapshot previous, EventSnapshot current) throws SQLException {
+        int eventId = current.getEventId();
+        Map<Long, Long> expenses = current.getExpenses();
+
+        List<Long> removed = new ArrayList<>();
+        Map<Long, Long> changed = new HashMap<>();
+        if (previous == null) {
             // Delete existing expenses for the event
             try (PreparedStatement deleteStmt = conn.prepareStatement(
                     "DELETE FROM expenses WHERE event_id = ?")) {
                 deleteStmt.setInt(1, eventId);
                 deleteStmt.executeUpdate();
             }
-
-            // Insert new expenses from participants
-            String insertSql = "INSERT INTO expenses (event_id, participant_id, category_id, amount) VALUES (?, ?, ?, ?)";
-            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                for (Participant participant : event.getParticipants()) {
-                    for (Map.Entry<Category, Double> entry : participant.getExpenses().entrySet()) {
-                        insertStmt.setInt(1, eventId);
-                        insertStmt.setInt(2, participant.getId());
-                        insertStmt.setInt(3, entry.getKey().getId());
-                        insertStmt.setDouble(4, entry.getValue());
-                        insertStmt.addBatch();
-                    }
+            changed.putAll(expenses);
+        } else {
+            for (Long key : previous.getExpenses().keySet()) {
+                if (!expenses.containsKey(key)) {
+                    removed.add(key);
                 }
-                insertStmt.executeBatch();
             }
+            for (Map.Entry<Long, Long> entry : expenses.entrySet()) {
+                if (!entry.getValue().equals(previous.getExpenses().get(entry.getKey()))) {
+                    changed.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
 
-        } catch (SQLException e) {
-            System.err.println("Failed to save expenses: " + e.getMessage());
+        deleteRows(conn, "expenses", eventId, removed);
+
+        // amounts are bound as cents and converted to DECIMAL by the database
+        String upsertSql = """
+            INSERT INTO expenses (event_id, participant_id, category_id, amount) VALUES (?, ?, ?, ?::numeric / 100)
+            ON CONFLICT (event_id, participant_id, category_id) DO UPDATE SET amount = EXCLUDED.amount
+        """;
+        try (PreparedStatement upsertStmt = conn.prepareStatement(upsertSql)) {
+            for (Map.Entry<Long, Long> entry : changed.entrySet()) {
+                upsertStmt.setInt(1, eventId);
+                upsertStmt.setInt(2, EventSnapshot.firstId(entry.getKey()));
+                upsertStmt.setInt(3, EventSnapshot.secondId(entry.getKey()));
+                upsertStmt.setLong(4, entry.getValue());
+                upsertStmt.addBatch();
+            }
+            upsertStmt.executeBatch();
         }
     }
 
@@ -68,29 +102,79 @@ public class ExpenseDao {
         }
 
         try (Connection conn = DatabaseManager.getConnection()) {
+            saveEventConsumptions(conn, null, EventSnapshot.of(event));
+        } catch (SQLException e) {
+            System.err.println("Failed to save consumptions: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the consumption changes between two snapshots of an event on the given connection.
+     * Without a previous snapshot all consumptions of the event are replaced; otherwise only the
+     * removed consumptions are deleted and the new ones inserted, each as one batch.
+     *
+     * @param conn     the connection, possibly inside a transaction
+     * @param previous the rows as of the last save, or null to replace all rows
+     * @param current  the rows to save
+     * @throws SQLException if a database access error occurs
+     */
+    static void saveEventConsumptions(Connection conn, EventSnapshot previous, EventSnapshot current) throws SQLException {
+        int eventId = current.getEventId();
+        Set<Long> consumptions = current.getConsumptions();
+
+        List<Long> removed = new ArrayList<>();
+        List<Long> added = new ArrayList<>();
+        if (previous == null) {
             // Delete existing consumption records for the event
             try (PreparedStatement deleteStmt = conn.prepareStatement(
                     "DELETE FROM consumptions WHERE event_id = ?")) {
                 deleteStmt.setInt(1, eventId);
                 deleteStmt.executeUpdate();
             }
-
-            // Insert new consumption records
-            String insertSql = "INSERT INTO consumptions (event_id, participant_id, category_id) VALUES (?, ?, ?)";
-            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                for (Participant participant : event.getParticipants()) {
-                    for (Category category : participant.getConsumedCategories()) {
-                        insertStmt.setInt(1, eventId);
-                        insertStmt.setInt(2, participant.getId());
-                        insertStmt.setInt(3, category.getId());
-                        insertStmt.addBatch();
-                    }
+            added.addAll(consumptions);
+        } else {
+            for (Long key : previous.getConsumptions()) {
+                if (!consumptions.contains(key)) {
+                    removed.add(key);
                 }
-                insertStmt.executeBatch();
             }
+            for (Long key : consumptions) {
+                if (!previous.getConsumptions().contains(key)) {
+                    added.add(key);
+                }
+            }
+        }
 
-        } catch (SQLException e) {
-            System.err.println("Failed to save consumptions: " + e.getMessage());
+        deleteRows(conn, "consumptions", eventId, removed);
+
+        String insertSql = "INSERT INTO consumptions (event_id, participant_id, category_id) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+        try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
+            for (Long key : added) {
+                insertStmt.setInt(1, eventId);
+                insertStmt.setInt(2, EventSnapshot.firstId(key));
+                insertStmt.setInt(3, EventSnapshot.secondId(key));
+                insertStmt.addBatch();
+            }
+            insertStmt.executeBatch();
+        }
+    }
+
+    /**
+     * Deletes the rows of the given participant and category keys from an event's table as one batch.
+     */
+    private static void deleteRows(Connection conn, String table, int eventId, List<Long> keys) throws SQLException {
+        if (keys.isEmpty()) {
+            return;
+        }
+        String deleteSql = "DELETE FROM " + table + " WHERE event_id = ? AND participant_id = ? AND category_id = ?";
+        try (PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
+            for (Long key : keys) {
+                deleteStmt.setInt(1, eventId);
+                deleteStmt.setInt(2, EventSnapshot.firstId(key));
+                deleteStmt.setInt(3, EventSnapshot.secondId(key));
+                deleteStmt.addBatch();
+            }
+            deleteStmt.executeBatch();
         }
     }
 
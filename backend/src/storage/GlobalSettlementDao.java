@@ -0,0 +1,135 @@
+package storage;
+
+import logic.Debt;
+import logic.Participant;
+import logic.SettlementStrategy;
+import logic.SortedArraySettlementStrategy;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GlobalSettlementDao nets the debts of several events into one settlement for participants
+ * who take part in more than one of them.
+ *
+ * The saved debts of the selected events are summed per participant inside the database
+ * (what a participant is owed minus what they owe), so only one row per participant with a
+ * non-zero net balance is read, and no event is loaded into memory. The net balances are
+ * then settled again with a {@link SettlementStrategy}.
+ */
+public class GlobalSettlementDao {
+
+    private static final String NET_BALANCES_SQL = """
+        SELECT p.id, p.name, p.phone, p.email, (SUM(n.amount) * 100)::bigint AS balance
+        FROM (
+            SELECT to_participant_id AS participant_id, amount FROM debts WHERE event_id IN (%1$s)
+            UNION ALL
+            SELECT from_participant_id, -amount FROM debts WHERE event_id IN (%1$s)
+        ) n
+        JOIN participants p ON p.id = n.participant_id
+        GROUP BY p.id, p.name, p.phone, p.email
+        HAVING SUM(n.amount) <> 0
+        ORDER BY p.id
+    """;
+
+    private static final String SELECTED_EVENTS = "SELECT unnest(?::int[])";
+    private static final String EVENTS_IN_DATE_RANGE = "SELECT id FROM events WHERE date BETWEEN ? AND ?";
+
+    /**
+     * Settles the combined debts of the given events with the {@link SortedArraySettlementStrategy}.
+     *
+     * @param eventIds the IDs of the events to net
+     * @return the debts settling the participants' net balances over all the events
+     */
+    public static List<Debt> settleEvents(List<Integer> eventIds) {
+        return settleEvents(eventIds, new SortedArraySettlementStrategy());
+    }
+
+    /**
+     * Settles the combined debts of the given events.
+     *
+     * @param eventIds the IDs of the events to net
+     * @param strategy the strategy that turns the net balances into debts
+     * @return the debts settling the participants' net balances over all the events
+     */
+    public static List<Debt> settleEvents(List<Integer> eventIds, SettlementStrategy strategy) {
+        List<Participant> participants = new ArrayList<>();
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            Array ids = conn.createArrayOf("integer", eventIds.toArray());
+            try (PreparedStatement stmt = conn.prepareStatement(String.format(NET_BALANCES_SQL, SELECTED_EVENTS))) {
+                stmt.setArray(1, ids);
+                stmt.setArray(2, ids);
+                readNetBalances(conn, stmt, participants);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Failed to net debts of events: " + e.getMessage());
+        }
+
+        return strategy.settle(participants);
+    }
+
+    /**
+     * Settles the combined debts of all events between two dates with the
+     * {@link SortedArraySettlementStrategy}.
+     *
+     * @param from the first date, inclusive
+     * @param to   the last date, inclusive
+     * @return the debts settling the participants' net balances over all the events
+     */
+    public static List<Debt> settleDateRange(LocalDate from, LocalDate to) {
+        return settleDateRange(from, to, new SortedArraySettlementStrategy());
+    }
+
+    /**
+     * Settles the combined debts of all events between two dates.
+     *
+     * @param from     the first date, inclusive
+     * @param to       the last date, inclusive
+     * @param strategy the strategy that turns the net balances into debts
+     * @return the debts settling the participants' net balances over all the events
+     */
+    public static List<Debt> settleDateRange(LocalDate from, LocalDate to, SettlementStrategy strategy) {
+        List<Participant> participants = new ArrayList<>();
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(String.format(NET_BALANCES_SQL, EVENTS_IN_DATE_RANGE))) {
+
+            stmt.setDate(1, Date.valueOf(from));
+            stmt.setDate(2, Date.valueOf(to));
+            stmt.setDate(3, Date.valueOf(from));
+            stmt.setDate(4, Date.valueOf(to));
+            readNetBalances(conn, stmt, participants);
+
+        } catch (SQLException e) {
+            System.err.println("Failed to net debts of date range: " + e.getMessage());
+        }
+
+        return strategy.settle(participants);
+    }
+
+    /**
+     * Streams the net balance rows into participants. The driver only uses a cursor inside a
+     * transaction, so auto-commit is turned off for the read.
+     */
+    private static void readNetBalances(Connection conn, PreparedStatement stmt, List<Participant> participants)
+            throws SQLException {
+        conn.setAutoCommit(false);
+        stmt.setFetchSize(DatabaseManager.getFetchSize());
+
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                Participant participant = new Participant(rs.getString("name"));
+                participant.setId(rs.getInt("id"));
+                participant.setPhoneNumber(rs.getString("phone"));
+                participant.setEmail(rs.getString("email"));
+                participant.setBalance(rs.getLong("balance"));
+                participants.add(participant);
+            }
+        }
+        conn.commit();
+    }
+}
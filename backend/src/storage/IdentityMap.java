@@ -0,0 +1,155 @@
+package storage;
+
+import logic.Category;
+import logic.Participant;
+
+import java.util.Collection;
+import java.util.function.ToIntFunction;
+
+/**
+ * IdentityMap finds the loaded entity for a database ID while an event is hydrated.
+ *
+ * It is built once per load from the participants or categories already read, and then
+ * resolves the IDs of every expense, consumption and debt row in constant time. Keys are
+ * primitive ints in an open-addressing table with linear probing, so lookups neither box
+ * the ID nor walk a list.
+ *
+ * @param <T> the type of the entities
+ */
+public final class IdentityMap<T> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] ids;
+    private Object[] entities;
+    private int size;
+
+    /**
+     * Creates an empty map sized for the given number of entities.
+     *
+     * @param expectedSize the number of entities that will be added
+     */
+    public IdentityMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        // keep the table at most half full so probe sequences stay short
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        ids = new int[capacity];
+        entities = new Object[capacity];
+    }
+
+    /**
+     * Creates a map of the given entities.
+     *
+     * @param entities the entities to index
+     * @param idOf     returns the database ID of an entity
+     * @param <T>      the type of the entities
+     * @return the map from ID to entity
+     */
+    public static <T> IdentityMap<T> of(Collection<T> entities, ToIntFunction<T> idOf) {
+        IdentityMap<T> map = new IdentityMap<>(entities.size());
+        for (T entity : entities) {
+            map.put(idOf.applyAsInt(entity), entity);
+        }
+        return map;
+    }
+
+    /**
+     * @param participants the participants to index
+     * @return the map from participant ID to participant
+     */
+    public static IdentityMap<Participant> ofParticipants(Collection<Participant> participants) {
+        return of(participants, Participant::getId);
+    }
+
+    /**
+     * @param categories the categories to index
+     * @return the map from category ID to category
+     */
+    public static IdentityMap<Category> ofCategories(Collection<Category> categories) {
+        return of(categories, Category::getId);
+    }
+
+    /**
+     * Adds an entity, replacing the one with the same ID.
+     *
+     * @param id     the database ID
+     * @param entity the entity, not null
+     * @return the entity previously stored for the ID, or null
+     */
+    public T put(int id, T entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Entity cannot be null");
+        }
+        if ((size + 1) * 2 > ids.length) {
+            grow();
+        }
+
+        int mask = ids.length - 1;
+        for (int slot = slot(id, mask); ; slot = (slot + 1) & mask) {
+            if (entities[slot] == null) {
+                ids[slot] = id;
+                entities[slot] = entity;
+                size++;
+                return null;
+            }
+            if (ids[slot] == id) {
+                T previous = entityAt(slot);
+                entities[slot] = entity;
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * @param id the database ID
+     * @return the entity with the ID, or null if there is none
+     */
+    public T get(int id) {
+        int mask = ids.length - 1;
+        for (int slot = slot(id, mask); entities[slot] != null; slot = (slot + 1) & mask) {
+            if (ids[slot] == id) {
+                return entityAt(slot);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of entities in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        int[] oldIds = ids;
+        Object[] oldEntities = entities;
+        ids = new int[oldIds.length * 2];
+        entities = new Object[oldEntities.length * 2];
+        size = 0;
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldEntities[i] != null) {
+                put(oldIds[i], entityAt(oldEntities, i));
+            }
+        }
+    }
+
+    /**
+     * Spreads sequential IDs over the table (Fibonacci hashing).
+     */
+    private static int slot(int id, int mask) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & mask;
+    }
+
+    private T entityAt(int slot) {
+        return entityAt(entities, slot);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T entityAt(Object[] entities, int slot) {
+        return (T) entities[slot];
+    }
+}
@@ -0,0 +1,117 @@
+package storage;
+
+/**
+ * LookupCache remembers the database IDs of participants and categories across events, so
+ * saving an event of a recurring group does not look up the same people and categories
+ * again.
+ *
+ * Participants are cached by phone number and by ID, categories by name and by ID. The ID
+ * side lets a rename or removal drop the old phone number or name as well. The caches are
+ * kept up to date by the DAOs: IDs are stored after they were resolved, category renames
+ * replace the cached name, and everything is forgotten when a transaction that may have
+ * cached uncommitted IDs is rolled back. Sizes and lifetimes come from
+ * {@link DatabaseConfig#fromEnvironment()}.
+ */
+public class LookupCache {
+
+    private static final EntityCache<String, Integer> participantIdsByPhone;
+    private static final EntityCache<Integer, String> participantPhonesById;
+    private static final EntityCache<String, Integer> categoryIdsByName;
+    private static final EntityCache<Integer, String> categoryNamesById;
+
+    static {
+        DatabaseConfig config = DatabaseConfig.fromEnvironment();
+        participantIdsByPhone = new EntityCache<>(config.getCacheSize(), config.getCacheTtlMillis());
+        participantPhonesById = new EntityCache<>(config.getCacheSize(), config.getCacheTtlMillis());
+        categoryIdsByName = new EntityCache<>(config.getCacheSize(), config.getCacheTtlMillis());
+        categoryNamesById = new EntityCache<>(config.getCacheSize(), config.getCacheTtlMillis());
+    }
+
+    /**
+     * @param phone the phone number of a participant
+     * @return the cached participant ID, or null if it is not cached
+     */
+    public static Integer getParticipantId(String phone) {
+        return participantIdsByPhone.get(phone);
+    }
+
+    /**
+     * @param id the ID of a participant
+     * @return the cached phone number, or null if it is not cached
+     */
+    public static String getParticipantPhone(int id) {
+        return participantPhonesById.get(id);
+    }
+
+    static synchronized void putParticipant(int id, String phone) {
+        String oldPhone = participantPhonesById.remove(id);
+        if (oldPhone != null && !oldPhone.equals(phone)) {
+            participantIdsByPhone.remove(oldPhone);
+        }
+        participantIdsByPhone.put(phone, id);
+        participantPhonesById.put(id, phone);
+    }
+
+    static synchronized void invalidateParticipant(int id) {
+        String phone = participantPhonesById.remove(id);
+        if (phone != null) {
+            participantIdsByPhone.remove(phone);
+        }
+    }
+
+    /**
+     * @param name the name of a category
+     * @return the cached category ID, or null if it is not cached
+     */
+    public static Integer getCategoryId(String name) {
+        return categoryIdsByName.get(name);
+    }
+
+    /**
+     * @param id the ID of a category
+     * @return the cached category name, or null if it is not cached
+     */
+    public static String getCategoryName(int id) {
+        return categoryNamesById.get(id);
+    }
+
+    static synchronized void putCategory(int id, String name) {
+        String oldName = categoryNamesById.remove(id);
+        if (oldName != null && !oldName.equals(name)) {
+            categoryIdsByName.remove(oldName);
+        }
+        categoryIdsByName.put(name, id);
+        categoryNamesById.put(id, name);
+    }
+
+    static synchronized void invalidateCategory(int id) {
+        String name = categoryNamesById.remove(id);
+        if (name != null) {
+            categoryIdsByName.remove(name);
+        }
+    }
+
+    /**
+     * Forgets all cached participants and categories.
+     */
+    public static synchronized void clear() {
+        participantIdsByPhone.clear();
+        participantPhonesById.clear();
+        categoryIdsByName.clear();
+        categoryNamesById.clear();
+    }
+
+    /**
+     * @return the counters of the participant lookups by phone number
+     */
+    public static EntityCache.Stats getParticipantStats() {
+        return participantIdsByPhone.getStats();
+    }
+
+    /**
+     * @return the counters of the category lookups by name
+     */
+    public static EntityCache.Stats getCategoryStats() {
+        return categoryIdsByName.getStats();
+    }
+}
@@ -6,7 +6,11 @@ import logic.Participant;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * ParticipantDao manages database operations related to participants,
@@ -15,104 +19,182 @@ import java.util.List;
 public class ParticipantDao {
 
     /**
-     * Finds a participant in the database by phone number.
-     * If not found, inserts the participant and returns the new ID.
+     * Inserts the participants whose phone number is new, returns the IDs of all of them and
+     * links them to the event, in one round trip. The no-op update on conflict makes existing
+     * rows show up in RETURNING; their name and email are left as they are. Rows are upserted
+     * in phone order so concurrent saves lock participants in the same order.
      *
-     * @param participant the participant to find or insert
-     * @return the ID of the participant in the database
+     * Participants found in the {@link LookupCache} are not upserted; their cached ID and phone
+     * are only checked against the table (by primary key) and linked. A cached participant that
+     * is missing from the result no longer exists under that phone number.
      */
-    private static int getOrCreateParticipant(Participant participant) {
+    private static final String UPSERT_AND_LINK_SQL = """
+        WITH upserted AS (
+            INSERT INTO participants (name, phone, email)
+            SELECT name, phone, email FROM unnest(?::varchar[], ?::varchar[], ?::varchar[]) AS t(name, phone, email)
+            ORDER BY phone
+            ON CONFLICT (phone) DO UPDATE SET phone = EXCLUDED.phone
+            RETURNING id, phone
+        ), known AS (
+            SELECT p.id, p.phone
+            FROM unnest(?::int[], ?::varchar[]) AS k(id, phone)
+            JOIN participants p ON p.id = k.id AND p.phone = k.phone
+        ), linked AS (
+            INSERT INTO event_participants (event_id, participant_id)
+            SELECT ?, id FROM (SELECT id FROM upserted UNION ALL SELECT id FROM known) ids
+            ON CONFLICT DO NOTHING
+        )
+        SELECT id, phone FROM upserted
+        UNION ALL
+        SELECT id, phone FROM known
+    """;
 
-        if (participant.getName() == null || participant.getName().isBlank()) {
-            throw new IllegalArgumentException("Participant name cannot be null or empty");
+    /**
+     * Saves and links all participants in an event to the database.
+     *
+     * @param event the event containing participants to be saved
+     */
+    public static void saveEventParticipants(Event event) {
+        if (event.getId() == 0) {
+            throw new IllegalArgumentException("Event must be saved before linking participants.");
         }
 
-        String selectSql = "SELECT id FROM participants WHERE phone = ?";
-        String insertSql = "INSERT INTO participants (name, phone, email) VALUES (?, ?, ?)";
-
         try (Connection conn = DatabaseManager.getConnection()) {
+            saveEventParticipants(conn, event.getId(), event.getParticipants());
+        } catch (SQLException e) {
+            System.err.println("Failed to save/link participants of event: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves participants and links them to an event on the given connection.
+     * All participants are resolved or created by phone number and linked to the event
+     * in a single statement, see {@link #UPSERT_AND_LINK_SQL}.
+     *
+     * @param conn         the connection, possibly inside a transaction
+     * @param eventId      the ID of the saved event
+     * @param participants the participants to save and link
+     * @throws SQLException if a database access error occurs
+     */
+    static void saveEventParticipants(Connection conn, int eventId, List<Participant> participants) throws SQLException {
+        if (eventId == 0) {
+            throw new IllegalArgumentException("Event must be saved before linking participants.");
+        }
 
-            // checks if given participant already exist in database according to phone number
-            try (PreparedStatement selectStmt = conn.prepareStatement(selectSql)) {
-                selectStmt.setString(1, participant.getPhoneNumber());
-                ResultSet rs = selectStmt.executeQuery();
+        // the same person may be added to the event twice, but one statement cannot upsert a row twice
+        Map<String, Participant> byPhone = new TreeMap<>();
+        for (Participant participant : participants) {
+            if (participant.getName() == null || participant.getName().isBlank()) {
+                throw new IllegalArgumentException("Participant name cannot be null or empty");
+            }
+            if (participant.getPhoneNumber() == null) {
+                throw new IllegalArgumentException("Participant phone number cannot be null: " + participant.getName());
+            }
+            byPhone.putIfAbsent(participant.getPhoneNumber(), participant);
+        }
+        if (byPhone.isEmpty()) {
+            return;
+        }
 
-                if (rs.next()) {
-                    int existingId = rs.getInt("id");
-                    participant.setId(existingId);
-                    return existingId;
-                }
+        Map<String, Integer> cachedIds = new HashMap<>();
+        List<Participant> uncached = new ArrayList<>();
+        for (Participant participant : byPhone.values()) {
+            Integer cachedId = LookupCache.getParticipantId(participant.getPhoneNumber());
+            if (cachedId != null) {
+                cachedIds.put(participant.getPhoneNumber(), cachedId);
+            } else {
+                uncached.add(participant);
             }
+        }
 
-            // participant does not exist in participants table - insert it.
-            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
-                insertStmt.setString(1, participant.getName());
-                insertStmt.setString(2, participant.getPhoneNumber());
-                insertStmt.setString(3, participant.getEmail()); // can be null
-
-                insertStmt.executeUpdate();
-
-                ResultSet keys = insertStmt.getGeneratedKeys();
-                if (keys.next()) {
-                    int newId = keys.getInt(1);
-                    participant.setId(newId);
-                    return newId;
-                } else {
-                    throw new SQLException("Participant insertion failed, no ID returned.");
-                }
+        Map<String, Integer> idsByPhone = upsertAndLink(conn, eventId, uncached, cachedIds);
+
+        // cached entries that did not match the table are resolved again without the cache
+        List<Participant> stale = new ArrayList<>();
+        for (Map.Entry<String, Integer> cached : cachedIds.entrySet()) {
+            if (!idsByPhone.containsKey(cached.getKey())) {
+                LookupCache.invalidateParticipant(cached.getValue());
+                stale.add(byPhone.get(cached.getKey()));
             }
+        }
+        if (!stale.isEmpty()) {
+            idsByPhone.putAll(upsertAndLink(conn, eventId, stale, Map.of()));
+        }
 
-        } catch (SQLException e) {
-            System.err.println("Error in getOrCreateParticipant: " + e.getMessage());
-            return -1;
+        for (Participant participant : participants) {
+            Integer id = idsByPhone.get(participant.getPhoneNumber());
+            if (id == null) {
+                throw new SQLException("Participant upsert returned no ID for phone " + participant.getPhoneNumber());
+            }
+            participant.setId(id);
         }
     }
 
     /**
-     * Links a participant to an event in the join table.
+     * Runs {@link #UPSERT_AND_LINK_SQL} and caches the returned IDs.
+     *
+     * @return the ID of every upserted or confirmed participant, by phone number
      */
-    private static void linkParticipantToEvent(int participantId, int eventId) {
-        String sql = "INSERT INTO event_participants (event_id, participant_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, eventId);
-            stmt.setInt(2, participantId);
-            stmt.executeUpdate();
+    private static Map<String, Integer> upsertAndLink(Connection conn, int eventId, List<Participant> toUpsert,
+                                                      Map<String, Integer> cachedIds) throws SQLException {
+        String[] names = new String[toUpsert.size()];
+        String[] phones = new String[toUpsert.size()];
+        String[] emails = new String[toUpsert.size()];
+        for (int i = 0; i < toUpsert.size(); i++) {
+            Participant participant = toUpsert.get(i);
+            names[i] = participant.getName();
+            phones[i] = participant.getPhoneNumber();
+            emails[i] = participant.getEmail(); // can be null
+        }
 
-        } catch (SQLException e) {
-            System.err.println("Failed to link participant to event: " + e.getMessage());
+        Map<String, Integer> idsByPhone = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT_AND_LINK_SQL)) {
+            stmt.setArray(1, conn.createArrayOf("varchar", names));
+            stmt.setArray(2, conn.createArrayOf("varchar", phones));
+            stmt.setArray(3, conn.createArrayOf("varchar", emails));
+            stmt.setArray(4, conn.createArrayOf("integer", cachedIds.values().toArray()));
+            stmt.setArray(5, conn.createArrayOf("varchar", cachedIds.keySet().toArray()));
+            stmt.setInt(6, eventId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    String phone = rs.getString("phone");
+                    idsByPhone.put(phone, id);
+                    LookupCache.putParticipant(id, phone);
+                }
+            }
         }
+        return idsByPhone;
     }
 
     /**
-     * Saves and links all participants in an event to the database.
+     * Removes the links of the given participants to an event. The participants themselves
+     * are kept, since they may take part in other events.
      *
-     * @param event the event containing participants to be saved
+     * @param conn           the connection, possibly inside a transaction
+     * @param eventId        the ID of the event
+     * @param participantIds the IDs of the participants that left the event
+     * @throws SQLException if a database access error occurs
      */
-    public static void saveEventParticipants(Event event) {
-        int eventId = event.getId();
-
-        if (eventId == 0) {
-            throw new IllegalArgumentException("Event must be saved before linking participants.");
+    static void unlinkParticipants(Connection conn, int eventId, Collection<Integer> participantIds) throws SQLException {
+        if (participantIds.isEmpty()) {
+            return;
         }
-
-        for (Participant participant : event.getParticipants()) {
-            try {
-                int participantId = getOrCreateParticipant(participant);
-                linkParticipantToEvent(participantId, eventId);
-            } catch (Exception e) {
-                System.err.println("Failed to save/link participant: " + participant.getName() + ". Reason: " + e.getMessage());
-            }
+        String sql = "DELETE FROM event_participants WHERE event_id = ? AND participant_id = ANY(?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, eventId);
+            stmt.setArray(2, conn.createArrayOf("integer", participantIds.toArray()));
+            stmt.executeUpdate();
         }
     }
 
     /**
      * Retrieves all participants linked to a specific event and loads their consumptions and expenses.
+     * Everything is read in one read-only transaction, so the rows belong together even while
+     * the event is being saved, and the expense and consumption rows are streamed.
      *
      * @param eventId the event ID
-     * @return a list of Participant objects
+     * @return a list of Participant objects, empty on error
      */
     public static List<Participant> getParticipantsFromEvent(int eventId) {
         List<Participant> participants = new ArrayList<>();
@@ -123,110 +205,112 @@ public class ParticipantDao {
         WHERE ep.event_id = ?
     """;
 
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            DatabaseManager.beginReadOnlySnapshot(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, eventId);
+                ResultSet rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    Participant participant = new Participant(rs.getString("name"));
+                    participant.setId(rs.getInt("id"));
+                    participant.setPhoneNumber(rs.getString("phone"));
+                    participant.setEmail(rs.getString("email"));
+                    participants.add(participant);
+                }
 
-            stmt.setInt(1, eventId);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Participant participant = new Participant(rs.getString("name"));
-                participant.setId(rs.getInt("id"));
-                participant.setPhoneNumber(rs.getString("phone"));
-                participant.setEmail(rs.getString("email"));
-                participants.add(participant);
+                IdentityMap<Participant> participantsById = IdentityMap.ofParticipants(participants);
+                IdentityMap<Category> categoriesById =
+                        IdentityMap.ofCategories(CategoryDao.getCategoriesForEvent(conn, eventId));
+                int fetchSize = DatabaseManager.getFetchSize();
+                loadParticipantConsumptions(conn, eventId, fetchSize, participantsById, categoriesById);
+                loadParticipantExpenses(conn, eventId, fetchSize, participantsById, categoriesById);
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(true);
             }
 
         } catch (SQLException e) {
             System.err.println("Failed to load participants for event: " + e.getMessage());
+            return new ArrayList<>();
         }
 
-        List<Category> categories = CategoryDao.getCategoriesForEvent(eventId);
-        loadParticipantConsumptions(participants, eventId, categories);
-        loadParticipantExpenses(participants, eventId, categories);
-
         return participants;
     }
 
     /**
      * Loads consumption data for each participant and updates their consumed categories.
+     * Must be called inside a transaction, see {@link #loadParticipantExpenses}.
+     *
+     * @param fetchSize the number of rows read from the cursor at a time
      */
-    private static void loadParticipantConsumptions(List<Participant> participants, int eventId, List<Category> categories) {
+    static void loadParticipantConsumptions(Connection conn, int eventId, int fetchSize,
+                                            IdentityMap<Participant> participants,
+                                            IdentityMap<Category> categories) throws SQLException {
         String sql = """
         SELECT participant_id, category_id
         FROM consumptions
         WHERE event_id = ?
     """;
 
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(fetchSize);
             stmt.setInt(1, eventId);
-            ResultSet rs = stmt.executeQuery();
 
-            while (rs.next()) {
-                int participantId = rs.getInt("participant_id");
-                int categoryId = rs.getInt("category_id");
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int participantId = rs.getInt("participant_id");
+                    int categoryId = rs.getInt("category_id");
 
-                Participant participant = findParticipantById(participants, participantId);
-                Category category = CategoryDao.findCategoryById(categories, categoryId);
+                    Participant participant = participants.get(participantId);
+                    Category category = categories.get(categoryId);
 
-                if (participant != null && category != null) {
-                    participant.getConsumedCategories().add(category);
+                    if (participant != null && category != null) {
+                        participant.getConsumedCategories().add(category);
+                    }
                 }
             }
-
-        } catch (SQLException e) {
-            System.err.println("Failed to load participant consumptions: " + e.getMessage());
         }
     }
 
     /**
      * Loads expense data for each participant and updates their expense map.
+     *
+     * The connection must be inside a transaction: only then does pgjdbc read a query with a
+     * fetch size through a server-side cursor, {@code fetchSize} rows per round trip, instead
+     * of buffering the whole result. Each row goes straight into the participant's map, so the
+     * memory used for reading stays the same however many rows the event has.
+     *
+     * @param fetchSize the number of rows read from the cursor at a time
      */
-    private static void loadParticipantExpenses(List<Participant> participants, int eventId, List<Category> categories) {
+    static void loadParticipantExpenses(Connection conn, int eventId, int fetchSize,
+                                        IdentityMap<Participant> participants,
+                                        IdentityMap<Category> categories) throws SQLException {
         String sql = """
-        SELECT participant_id, category_id, amount
+        SELECT participant_id, category_id, (amount * 100)::bigint AS amount
         FROM expenses
         WHERE event_id = ?
     """;
 
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(fetchSize);
             stmt.setInt(1, eventId);
-            ResultSet rs = stmt.executeQuery();
 
-            while (rs.next()) {
-                int participantId = rs.getInt("participant_id");
-                int categoryId = rs.getInt("category_id");
-                double amount = rs.getDouble("amount");
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int participantId = rs.getInt("participant_id");
+                    int categoryId = rs.getInt("category_id");
+                    long amount = rs.getLong("amount");
 
-                Participant participant = findParticipantById(participants, participantId);
-                Category category = CategoryDao.findCategoryById(categories, categoryId);
+                    Participant participant = participants.get(participantId);
+                    Category category = categories.get(categoryId);
 
-                if (participant != null && category != null) {
-                    participant.getExpenses().put(category, amount);
+                    if (participant != null && category != null) {
+                        participant.getExpenses().put(category, amount);
+                    }
                 }
             }
-
-        } catch (SQLException e) {
-            System.err.println("Failed to load participant expenses: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Finds a participant in a list by their ID.
-     *
-     * @param participants the list of participants to search
-     * @param id the ID to match
-     * @return the matching Participant or null if not found
-     */
-    public static Participant findParticipantById(List<Participant> participants, int id) {
-        for (Participant participant : participants) {
-            if (participant.getId() == id) return participant;
         }
-        return null;
     }
 
 }
@@ -0,0 +1,124 @@
+package storage;
+
+import logic.Category;
+import logic.Event;
+import logic.EventSnapshot;
+import logic.Participant;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ResultDao stores the calculated results of an event: every participant's total consumed
+ * and balance, and every category's total and adjusted expense.
+ *
+ * The results are stamped with the {@link EventSnapshot#getContentVersion() content version}
+ * of the event they were calculated for, in the events table. {@link EventDao#loadEventById(int)}
+ * uses them only while the version still matches, so an unchanged event is shown without being
+ * calculated again.
+ */
+public class ResultDao {
+
+    /**
+     * Stores the results of the event unless results with the same version are stored already.
+     * The results are taken from the event as they are, like its debts, so the event must be
+     * calculated. An event without results for every category gets no stored results.
+     *
+     * @param conn    the connection, possibly inside a transaction
+     * @param event   the calculated event
+     * @param current the rows of the event as saved
+     * @throws SQLException if a database access error occurs
+     */
+    static void saveEventResults(Connection conn, Event event, EventSnapshot current) throws SQLException {
+        int eventId = current.getEventId();
+
+        // the maps may still be hashed by category name, so they are only iterated
+        Map<Integer, Long> totalByCategory = byCategoryId(event.getTotalExpensePerCategory());
+        Map<Integer, Long> adjustedByCategory = byCategoryId(event.getAdjustedTotalExpensePerCategory());
+        boolean complete = totalByCategory.keySet().containsAll(current.getCategoryNames().keySet())
+                && adjustedByCategory.keySet().containsAll(current.getCategoryNames().keySet());
+        Long version = complete ? current.getContentVersion() : null;
+
+        String stampSql = "UPDATE events SET results_version = ? WHERE id = ? AND results_version IS DISTINCT FROM ?";
+        try (PreparedStatement stmt = conn.prepareStatement(stampSql)) {
+            stmt.setObject(1, version, Types.BIGINT);
+            stmt.setInt(2, eventId);
+            stmt.setObject(3, version, Types.BIGINT);
+            if (stmt.executeUpdate() == 0) {
+                return;
+            }
+        }
+
+        for (String deleteSql : new String[] {
+                "DELETE FROM participant_results WHERE event_id = ?",
+                "DELETE FROM category_results WHERE event_id = ?"}) {
+            try (PreparedStatement stmt = conn.prepareStatement(deleteSql)) {
+                stmt.setInt(1, eventId);
+                stmt.executeUpdate();
+            }
+        }
+        if (!complete) {
+            return;
+        }
+
+        int participantCount = event.getParticipants().size();
+        Integer[] participantIds = new Integer[participantCount];
+        Long[] consumed = new Long[participantCount];
+        Long[] balances = new Long[participantCount];
+        for (int p = 0; p < participantCount; p++) {
+            Participant participant = event.getParticipants().get(p);
+            participantIds[p] = participant.getId();
+            consumed[p] = participant.getTotalConsumed();
+            balances[p] = participant.getBalance();
+        }
+
+        String participantSql = """
+            INSERT INTO participant_results (event_id, participant_id, total_consumed, balance)
+            SELECT ?, t.id, t.consumed::numeric / 100, t.balance::numeric / 100
+            FROM unnest(?::int[], ?::bigint[], ?::bigint[]) AS t(id, consumed, balance)
+            ON CONFLICT DO NOTHING
+        """;
+        try (PreparedStatement stmt = conn.prepareStatement(participantSql)) {
+            stmt.setInt(1, eventId);
+            stmt.setArray(2, conn.createArrayOf("integer", participantIds));
+            stmt.setArray(3, conn.createArrayOf("bigint", consumed));
+            stmt.setArray(4, conn.createArrayOf("bigint", balances));
+            stmt.executeUpdate();
+        }
+
+        Integer[] categoryIds = current.getCategoryNames().keySet().toArray(new Integer[0]);
+        Long[] totals = new Long[categoryIds.length];
+        Long[] adjusted = new Long[categoryIds.length];
+        for (int c = 0; c < categoryIds.length; c++) {
+            totals[c] = totalByCategory.get(categoryIds[c]);
+            adjusted[c] = adjustedByCategory.get(categoryIds[c]);
+        }
+
+        String categorySql = """
+            INSERT INTO category_results (event_id, category_id, total_expense, adjusted_expense)
+            SELECT ?, t.id, t.total::numeric / 100, t.adjusted::numeric / 100
+            FROM unnest(?::int[], ?::bigint[], ?::bigint[]) AS t(id, total, adjusted)
+        """;
+        try (PreparedStatement stmt = conn.prepareStatement(categorySql)) {
+            stmt.setInt(1, eventId);
+            stmt.setArray(2, conn.createArrayOf("integer", categoryIds));
+            stmt.setArray(3, conn.createArrayOf("bigint", totals));
+            stmt.setArray(4, conn.createArrayOf("bigint", adjusted));
+            stmt.executeUpdate();
+        }
+    }
+
+    private static Map<Integer, Long> byCategoryId(Map<Category, Long> amounts) {
+        Map<Integer, Long> byId = new HashMap<>();
+        for (Map.Entry<Category, Long> entry : amounts.entrySet()) {
+            if (entry.getValue() != null) {
+                byId.put(entry.getKey().getId(), entry.getValue());
+            }
+        }
+        return byId;
+    }
+}
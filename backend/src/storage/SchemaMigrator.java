@@ -0,0 +1,215 @@
+package storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SchemaMigrator brings the database schema up to date when the application connects.
+ *
+ * {@code docker/init.sql} is the baseline schema. Every later change is an SQL script on the
+ * classpath under {@code db/migration/}, named {@code V<version>__<description>.sql} and listed
+ * in {@link #SCRIPTS}. The versions applied so far are recorded in the {@code schema_version}
+ * table; {@link #migrate(Connection)} runs the missing ones in version order.
+ *
+ * All pending scripts run in one transaction under an advisory lock, so a failing script
+ * leaves the schema as it was, and two applications starting at once do not apply a script
+ * twice.
+ */
+public class SchemaMigrator {
+
+    /**
+     * The migration scripts, in the order they are applied.
+     */
+    static final List<String> SCRIPTS = List.of(
+            "V1__performance_indexes.sql",
+            "V2__event_name_prefix_index.sql",
+            "V3__event_results.sql"
+    );
+
+    private static final String LOCATION = "db/migration/";
+    private static final String VERSION_TABLE = "schema_version";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    // an arbitrary application-wide key for pg_advisory_xact_lock
+    private static final long LOCK_KEY = 0x45585053L;
+
+    /**
+     * Applies the migration scripts that are not recorded in {@code schema_version} yet.
+     *
+     * @param conn a connection with auto-commit on
+     * @return the number of scripts applied
+     * @throws SQLException if a script cannot be read or fails; nothing is applied then
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        List<Migration> migrations = new ArrayList<>();
+        for (String script : SCRIPTS) {
+            migrations.add(Migration.load(script));
+        }
+        return migrate(conn, VERSION_TABLE, migrations);
+    }
+
+    /**
+     * Applies the given migrations that are not recorded in the version table yet.
+     *
+     * @param conn         a connection with auto-commit on
+     * @param versionTable the table recording the applied versions
+     * @param migrations   the migrations in ascending version order
+     * @return the number of migrations applied
+     * @throws SQLException if a migration fails; nothing is applied then
+     */
+    static int migrate(Connection conn, String versionTable, List<Migration> migrations) throws SQLException {
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).getVersion() <= migrations.get(i - 1).getVersion()) {
+                throw new SQLException("Migration versions must ascend: " + migrations.get(i).getName());
+            }
+        }
+
+        conn.setAutoCommit(false);
+        try {
+            try (PreparedStatement lock = conn.prepareStatement("SELECT pg_advisory_xact_lock(?)")) {
+                lock.setLong(1, LOCK_KEY);
+                lock.execute();
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS %s (
+                        version INT PRIMARY KEY,
+                        description VARCHAR(255) NOT NULL,
+                        installed_on TIMESTAMP NOT NULL DEFAULT now()
+                    )
+                """.formatted(versionTable));
+            }
+
+            Set<Integer> applied = appliedVersions(conn, versionTable);
+            String recordSql = "INSERT INTO %s (version, description) VALUES (?, ?)".formatted(versionTable);
+            int count = 0;
+            for (Migration migration : migrations) {
+                if (applied.contains(migration.getVersion())) {
+                    continue;
+                }
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(migration.getSql());
+                } catch (SQLException e) {
+                    throw new SQLException("Migration " + migration.getName() + " failed: " + e.getMessage(), e);
+                }
+                try (PreparedStatement recordStmt = conn.prepareStatement(recordSql)) {
+                    recordStmt.setInt(1, migration.getVersion());
+                    recordStmt.setString(2, migration.getDescription());
+                    recordStmt.executeUpdate();
+                }
+                count++;
+            }
+
+            conn.commit();
+            return count;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * @param conn a connection to the database
+     * @return the highest applied version, or 0 if no migration was applied
+     * @throws SQLException if a database access error occurs
+     */
+    public static int getCurrentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT to_regclass('" + VERSION_TABLE + "') IS NOT NULL")) {
+            rs.next();
+            if (!rs.getBoolean(1)) {
+                return 0;
+            }
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM " + VERSION_TABLE)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static Set<Integer> appliedVersions(Connection conn, String versionTable) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM " + versionTable)) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * One migration script: its file name, the version and description from the file name,
+     * and its statements.
+     */
+    static final class Migration {
+
+        private final String name;
+        private final int version;
+        private final String description;
+        private final String sql;
+
+        Migration(String name, int version, String description, String sql) {
+            this.name = name;
+            this.version = version;
+            this.description = description;
+            this.sql = sql;
+        }
+
+        /**
+         * Reads a script from {@code db/migration/} on the classpath.
+         *
+         * @param name the script's file name
+         * @return the migration
+         * @throws SQLException if the name is malformed or the script cannot be read
+         */
+        static Migration load(String name) throws SQLException {
+            Matcher matcher = SCRIPT_NAME.matcher(name);
+            if (!matcher.matches()) {
+                throw new SQLException("Malformed migration name: " + name);
+            }
+
+            try (InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream(LOCATION + name)) {
+                if (in == null) {
+                    throw new SQLException("Migration script not found on the classpath: " + LOCATION + name);
+                }
+                String sql = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                return new Migration(name, Integer.parseInt(matcher.group(1)),
+                        matcher.group(2).replace('_', ' '), sql);
+            } catch (IOException e) {
+                throw new SQLException("Failed to read migration " + name + ": " + e.getMessage(), e);
+            }
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getVersion() {
+            return version;
+        }
+
+        String getDescription() {
+            return description;
+        }
+
+        String getSql() {
+            return sql;
+        }
+    }
+}
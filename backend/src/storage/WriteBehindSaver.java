@@ -0,0 +1,342 @@
+package storage;
+
+import logic.Event;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * WriteBehindSaver queues event saves in memory and writes them to the database from a
+ * background thread, so a save request returns at once.
+ *
+ * Saves of the same event are merged while they wait: an event is queued once, and the write
+ * stores whatever the event holds by then. An event is written when it was not saved again
+ * for {@link Options#getDelayMillis()}, but at the latest {@link Options#getMaxLagMillis()}
+ * after it was first queued; the flusher writes all events that are due in one pass. When
+ * {@link Options#getMaxPending()} events are queued, the caller queueing one more writes the
+ * oldest itself before it returns.
+ *
+ * The queued events are the caller's live objects, so they must not change while they are
+ * written. Callers change them only inside {@link #runExclusive(Runnable)}, which waits for a
+ * running write and keeps the flusher out until the action is done.
+ *
+ * A failed write is reported and queued again, up to {@link #MAX_WRITE_ATTEMPTS} writes in
+ * all; after that the save is dropped and the user is told to save the event again.
+ * {@link #close()} writes what is left if {@link Options#isFlushOnExit()} is set.
+ */
+public class WriteBehindSaver implements AutoCloseable {
+
+    /**
+     * How often a queued save is written before it is given up. The writer cannot tell a lost
+     * connection from an event the database rejects, so every failure counts.
+     */
+    static final int MAX_WRITE_ATTEMPTS = 3;
+
+    /**
+     * The durability and backpressure settings of a write-behind saver.
+     */
+    public static final class Options {
+        private final boolean enabled;
+        private final long delayMillis;
+        private final long maxLagMillis;
+        private final int maxPending;
+        private final boolean flushOnExit;
+
+        /**
+         * @param enabled      whether saves are written behind, or at once
+         * @param delayMillis  how long a queued save waits for further saves of the same event
+         * @param maxLagMillis the longest time a queued save stays unwritten
+         * @param maxPending   the maximum number of queued events
+         * @param flushOnExit  whether closing the saver writes the queued events
+         */
+        public Options(boolean enabled, long delayMillis, long maxLagMillis, int maxPending, boolean flushOnExit) {
+            if (delayMillis < 0 || maxLagMillis < delayMillis) {
+                throw new IllegalArgumentException("Need 0 <= delay <= max lag, got delay " + delayMillis
+                        + " and max lag " + maxLagMillis);
+            }
+            if (maxPending < 1) {
+                throw new IllegalArgumentException("At least one pending save is needed, got " + maxPending);
+            }
+            this.enabled = enabled;
+            this.delayMillis = delayMillis;
+            this.maxLagMillis = maxLagMillis;
+            this.maxPending = maxPending;
+            this.flushOnExit = flushOnExit;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public long getDelayMillis() {
+            return delayMillis;
+        }
+
+        public long getMaxLagMillis() {
+            return maxLagMillis;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        public boolean isFlushOnExit() {
+            return flushOnExit;
+        }
+    }
+
+    private final Options options;
+    private final Predicate<Event> writer;
+    // guards the queue and is held while an event is written or changed by the caller
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition queueChanged = lock.newCondition();
+    private final List<PendingSave> queue = new ArrayList<>();
+    private final Thread flusher;
+    private boolean closed;
+
+    /**
+     * Creates a saver that writes each event with {@link EventRepository#save(Event)}.
+     *
+     * @param options the durability and backpressure settings
+     */
+    public WriteBehindSaver(Options options) {
+        this(options, EventRepository::save);
+    }
+
+    /**
+     * @param writer writes an event, returning false if it was not written
+     */
+    WriteBehindSaver(Options options, Predicate<Event> writer) {
+        this.options = options;
+        this.writer = writer;
+        this.flusher = new Thread(this::runFlusher, "write-behind-saver");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queues a save of the event, or merges it with the one already queued for it.
+     *
+     * @param event the event to save
+     * @throws IllegalStateException if the saver is closed
+     */
+    public void save(Event event) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Write-behind saver is closed.");
+            }
+            long now = System.nanoTime();
+            PendingSave pending = find(event);
+            if (pending != null) {
+                pending.event = event;
+                pending.lastSavedAt = now;
+                return;
+            }
+            if (queue.size() >= options.getMaxPending()) {
+                // the caller pays for the backlog instead of growing it
+                write(queue.remove(0));
+            }
+            queue.add(new PendingSave(event, now));
+            queueChanged.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the queued save of the event, e.g. because the event is deleted.
+     *
+     * @param event the event whose save is no longer wanted
+     * @return true if a save was queued
+     */
+    public boolean discard(Event event) {
+        lock.lock();
+        try {
+            return queue.remove(find(event));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes every queued event now.
+     *
+     * @return true if all of them were written; failed ones stay queued
+     */
+    public boolean flush() {
+        lock.lock();
+        try {
+            List<PendingSave> all = new ArrayList<>(queue);
+            queue.clear();
+            boolean allWritten = true;
+            for (PendingSave pending : all) {
+                allWritten &= write(pending);
+            }
+            return allWritten;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs an action that may change queued events, while no event is being written.
+     *
+     * @param action the action, e.g. one change the console makes to an event; it should not
+     *               wait for the user, since queued events are not written until it is done
+     */
+    public void runExclusive(Runnable action) {
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of events waiting to be written
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the flusher and, if the options say so, writes the queued events. Must not be
+     * called from inside {@link #runExclusive(Runnable)}.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queueChanged.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (options.isFlushOnExit()) {
+            if (!flush()) {
+                System.err.println("Failed to save " + getPendingCount() + " queued event(s) before exiting.");
+            }
+        } else if (getPendingCount() > 0) {
+            System.err.println("Discarding " + getPendingCount() + " queued event save(s).");
+        }
+    }
+
+    private void runFlusher() {
+        lock.lock();
+        try {
+            while (!closed) {
+                long now = System.nanoTime();
+                long nextDueAt = Long.MAX_VALUE;
+                List<PendingSave> due = new ArrayList<>();
+                for (Iterator<PendingSave> it = queue.iterator(); it.hasNext(); ) {
+                    PendingSave pending = it.next();
+                    long dueAt = pending.dueAt();
+                    if (dueAt - now <= 0) {
+                        due.add(pending);
+                        it.remove();
+                    } else if (nextDueAt == Long.MAX_VALUE || dueAt - nextDueAt < 0) {
+                        nextDueAt = dueAt;
+                    }
+                }
+
+                if (!due.isEmpty()) {
+                    for (PendingSave pending : due) {
+                        write(pending);
+                    }
+                } else if (nextDueAt == Long.MAX_VALUE) {
+                    queueChanged.await();
+                } else {
+                    queueChanged.awaitNanos(nextDueAt - now);
+                }
+            }
+        } catch (InterruptedException e) {
+            // close() writes the rest
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a save taken off the queue and queues it again if the write fails, unless it
+     * failed {@link #MAX_WRITE_ATTEMPTS} times or the event was saved again meanwhile.
+     */
+    private boolean write(PendingSave pending) {
+        boolean written;
+        try {
+            written = writer.test(pending.event);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to save event: " + e.getMessage());
+            written = false;
+        }
+        if (!written && find(pending.event) == null) {
+            String eventName = pending.event.getEventName();
+            if (pending.attempts + 1 < MAX_WRITE_ATTEMPTS) {
+                System.err.println("Event \"" + eventName + "\" stays queued and is saved again later.");
+                queue.add(new PendingSave(pending.event, System.nanoTime(), pending.attempts + 1));
+            } else {
+                System.err.println("Event \"" + eventName + "\" could not be saved after " + MAX_WRITE_ATTEMPTS
+                        + " attempts and is no longer queued. Save it again to retry.");
+            }
+        }
+        return written;
+    }
+
+    /**
+     * @return the queued save of the same event object, or of an event with the same database ID
+     */
+    private PendingSave find(Event event) {
+        for (PendingSave pending : queue) {
+            if (pending.event == event || (event.getId() != 0 && pending.event.getId() == event.getId())) {
+                return pending;
+            }
+        }
+        return null;
+    }
+
+    private final class PendingSave {
+        private Event event;
+        private final long firstSavedAt;
+        private long lastSavedAt;
+        // the failed writes before this one
+        private final int attempts;
+
+        PendingSave(Event event, long savedAt) {
+            this(event, savedAt, 0);
+        }
+
+        PendingSave(Event event, long savedAt, int attempts) {
+            this.event = event;
+            this.firstSavedAt = savedAt;
+            this.lastSavedAt = savedAt;
+            this.attempts = attempts;
+        }
+
+        long dueAt() {
+            long quietAt = lastSavedAt + TimeUnit.MILLISECONDS.toNanos(options.getDelayMillis());
+            long latestAt = firstSavedAt + TimeUnit.MILLISECONDS.toNanos(options.getMaxLagMillis());
+            return quietAt - latestAt < 0 ? quietAt : latestAt;
+        }
+    }
+}
@@ -97,10 +97,7 @@ public class CategoryInteractionHandler {
             System.out.println("There is no category!");
             return;
         }
-        for (Participant participant : event.getParticipants()) {
-            participant.getExpenses().keySet().removeIf(expenseCategory -> expenseCategory.equals(categoryToRemove));
-            participant.getConsumedCategories().removeIf(consumedCategory -> consumedCategory.equals(categoryToRemove));
-        }
+        EventLock.run(() -> event.removeCategory(categoryToRemove));
     }
 
     /**
@@ -113,7 +110,7 @@ public class CategoryInteractionHandler {
         }
         String newCategoryName = UserInputHandler.getStringInput("Enter a new category that you want to add: ");
         Category newCategory = new Category(newCategoryName);
-        event.addCategory(newCategory);
+        EventLock.run(() -> event.addCategory(newCategory));
         addNewCategoryToParticipants(newCategory, event);
     }
 
@@ -124,11 +121,11 @@ public class CategoryInteractionHandler {
         for (Participant participant: event.getParticipants()) {
 
             if (UserInputHandler.getYesNoInput(String.format("Did %s spent money on %s?", participant.getName(), category.getName()))) {
-                double expense = UserInputHandler.getDoubleInput(String.format("Enter the amount of money that %s spent on %s:%n", participant.getName(), category.getName()));
-                participant.getExpenses().put(category, expense);
+                long expense = UserInputHandler.getMoneyInput(String.format("Enter the amount of money that %s spent on %s:%n", participant.getName(), category.getName()));
+                EventLock.run(() -> event.setExpense(participant, category, expense));
             }
             if (UserInputHandler.getYesNoInput(String.format("Did %s consumed from %s category?", participant.getName(), category.getName()))) {
-                participant.addConsumedCategory(category);
+                EventLock.run(() -> event.setConsumed(participant, category, true));
             }
         }
     }
@@ -144,10 +141,6 @@ public class CategoryInteractionHandler {
             return;
         }
         String newCategoryName = UserInputHandler.getStringInput(String.format("Enter new name to %s:", categoryToRename.getName()));
-        for (Category category: event.getCategories()) {
-            if (category.equals(categoryToRename)) {
-                category.setName(newCategoryName);
-            }
-        }
+        EventLock.run(() -> event.renameCategory(categoryToRename, newCategoryName));
     }
 }
@@ -0,0 +1,58 @@
+package ui;
+
+import storage.WriteBehindSaver;
+
+import java.util.function.Supplier;
+
+/**
+ * EventLock runs the console's changes to an event that may be queued for saving.
+ *
+ * While write-behind saving is enabled, a queued event can be written at any time, so each
+ * change runs with {@link WriteBehindSaver#runExclusive(Runnable)}. Only the change itself
+ * holds the saver's lock, not the prompts asking for it, so an open prompt does not hold up
+ * queued saves beyond their maximum lag. Without a saver the changes simply run.
+ */
+final class EventLock {
+
+    private static volatile WriteBehindSaver saver;
+
+    private EventLock() {
+    }
+
+    /**
+     * @param writeBehind the saver whose queued events the console changes, or null if saves
+     *                    are written at once
+     */
+    static void use(WriteBehindSaver writeBehind) {
+        saver = writeBehind;
+    }
+
+    /**
+     * Runs a change to an event while no event is being written.
+     *
+     * @param change the change, without user prompts
+     */
+    static void run(Runnable change) {
+        WriteBehindSaver current = saver;
+        if (current == null) {
+            change.run();
+        } else {
+            current.runExclusive(change);
+        }
+    }
+
+    /**
+     * Reads from an event while no event is being written, as a save brings its calculations
+     * up to date and may re-key its maps.
+     *
+     * @param read the read, without user prompts
+     * @return the result of the read
+     */
+    static <T> T read(Supplier<T> read) {
+        Object[] result = new Object[1];
+        run(() -> result[0] = read.get());
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+}
@@ -3,6 +3,7 @@ package ui;
 import logic.Category;
 import logic.Debt;
 import logic.Event;
+import logic.Money;
 import logic.Participant;
 
 import java.util.List;
@@ -26,9 +27,9 @@ public class EventPresenter {
         for (Participant participant : event.getParticipants()) {
             result.append(participant.getName()).append("\n\t- Expenses:\n\t\t");
 
-            for (Map.Entry<Category, Double> entry : participant.getExpenses().entrySet()) {
+            for (Map.Entry<Category, Long> entry : participant.getExpenses().entrySet()) {
                 result.append(entry.getKey().getName()).append(": ")
-                        .append(entry.getValue()).append(", ");
+                        .append(Money.format(entry.getValue())).append(", ");
             }
 
             result.append("\n\t- Consumed:\n\t\t");
@@ -36,9 +37,9 @@ public class EventPresenter {
                 result.append(consumedCategory.getName()).append(", ");
             }
 
-            result.append("\n\t- Total Paid: ").append(participant.getTotalExpense());
-            double totalConsumed = participant.getTotalConsumed();
-            result.append("\n\t- Total Consumed: ").append(String.format("%.2f", totalConsumed)).append("\n\n");
+            result.append("\n\t- Total Paid: ").append(Money.format(participant.getTotalExpense()));
+            long totalConsumed = participant.getTotalConsumed();
+            result.append("\n\t- Total Consumed: ").append(Money.format(totalConsumed)).append("\n\n");
         }
 
         return result.toString();
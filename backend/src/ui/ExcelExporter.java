@@ -1,7 +1,9 @@
 package ui;
 
 import logic.Category;
+import logic.ConsumptionMatrix;
 import logic.Event;
+import logic.Money;
 import logic.Participant;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -10,7 +12,6 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -37,10 +38,10 @@ public class ExcelExporter {
         for (Participant participant : event.getParticipants()) {
             for (Category category: participant.getExpenses().keySet()) {
                 String categoryName = category.getName();
-                double amount = participant.getExpenses().getOrDefault(category, 0.0);
+                long amount = participant.getExpenses().getOrDefault(category, 0L);
 
                 Row row = expensesSheet.createRow(rowIndex++);
-                row.createCell(0).setCellValue(amount);
+                row.createCell(0).setCellValue(Money.toAmount(amount));
                 row.createCell(1).setCellValue(participant.getName());
                 row.createCell(2).setCellValue(categoryName);
             }
@@ -67,31 +68,22 @@ public class ExcelExporter {
             header.createCell(col).setCellValue(categories.get(col).getName());
         }
 
-        // for each col (category) we will save the list of the consumers
-        List<List<String>> columnsData = new ArrayList<>();
-        for (Category category : categories) {
-            List<String> consumers = new ArrayList<>();
-            for (Participant participant : participants) {
-                if (participant.getConsumedCategories().contains(category)) {
-                    consumers.add(participant.getName());
-                }
-            }
-            columnsData.add(consumers);
-        }
+        // for each col (category) the matrix holds the consumers in participant order
+        ConsumptionMatrix consumption = ConsumptionMatrix.of(participants, categories);
 
         // calculate the maximum number of rows for the category with the most participants
-        int maxRows = columnsData.stream()
-                .mapToInt(List::size)
-                .max()
-                .orElse(0);
+        int maxRows = 0;
+        for (int col = 0; col < categories.size(); col++) {
+            maxRows = Math.max(maxRows, consumption.getConsumerCount(col));
+        }
 
         // enter participants names to rows
         for (int rowIdx = 1; rowIdx <= maxRows; rowIdx++) {
             Row row = sheet.createRow(rowIdx);
-            for (int col = 0; col < columnsData.size(); col++) {
-                List<String> consumers = columnsData.get(col);
-                if (rowIdx - 1 < consumers.size()) {
-                    row.createCell(col).setCellValue(consumers.get(rowIdx - 1));
+            for (int col = 0; col < categories.size(); col++) {
+                if (rowIdx - 1 < consumption.getConsumerCount(col)) {
+                    Participant consumer = participants.get(consumption.getConsumer(col, rowIdx - 1));
+                    row.createCell(col).setCellValue(consumer.getName());
                 }
             }
         }
@@ -117,7 +109,7 @@ public class ExcelExporter {
             Row debtRow = sheet.createRow(row + 1);
             debtRow.createCell(0).setCellValue(event.getDebts().get(row).getDebtor().getName());
             debtRow.createCell(1).setCellValue(event.getDebts().get(row).getCreditor().getName());
-            debtRow.createCell(2).setCellValue(event.getDebts().get(row).getAmount());
+            debtRow.createCell(2).setCellValue(Money.toAmount(event.getDebts().get(row).getAmount()));
         }
 
         for (int col = 0; col < 3; col++) {
@@ -141,10 +133,10 @@ public class ExcelExporter {
         for (int row = 0; row < participants.size(); row++) {
             Row participantRow = sheet.createRow(row + 1);
             participantRow.createCell(0).setCellValue(participants.get(row).getName());
-            double totalConsumed = participants.get(row).getTotalConsumed();
-            participantRow.createCell(1).setCellValue(totalConsumed + event.getParticipationFee());
-            participantRow.createCell(2).setCellValue(participants.get(row).getTotalExpense());
-            participantRow.createCell(3).setCellValue(participants.get(row).getBalance());
+            long totalConsumed = participants.get(row).getTotalConsumed();
+            participantRow.createCell(1).setCellValue(Money.toAmount(totalConsumed + event.getParticipationFee()));
+            participantRow.createCell(2).setCellValue(Money.toAmount(participants.get(row).getTotalExpense()));
+            participantRow.createCell(3).setCellValue(Money.toAmount(participants.get(row).getBalance()));
         }
 
         for (int col = 0; col <= 3; col++) {
@@ -158,8 +150,8 @@ public class ExcelExporter {
      */
     private static void createCategorySummarySheet(Event event, Workbook workbook) {
         List<Category> eventCategory = event.getCategories();
-        double totalParticipationFee = event.getParticipationFee() * event.getParticipants().size();
-        Map<Category, Double> expensePerCategory = event.getTotalExpensePerCategory();
+        long totalParticipationFee = event.getParticipationFee() * event.getParticipants().size();
+        Map<Category, Long> expensePerCategory = event.getTotalExpensePerCategory();
 
         Sheet sheet = workbook.createSheet("Category Summary");
 
@@ -177,18 +169,19 @@ public class ExcelExporter {
             String categoryName = category.getName();
 
             header.createCell(col + 1).setCellValue(categoryName);
-            rawCostRow.createCell(col + 1).setCellValue(expensePerCategory.get(category));
-            double adjustPrice = event.getAdjustedTotalExpensePerCategory().get(category);
-            adjustedCostRow.createCell(col + 1).setCellValue(adjustPrice);
-            double perConsumer = adjustPrice / event.getConsumedPerCategory().get(category).size();
-            perCnsumerRow.createCell(col + 1).setCellValue(perConsumer);
+            rawCostRow.createCell(col + 1).setCellValue(Money.toAmount(expensePerCategory.get(category)));
+            long adjustPrice = event.getAdjustedTotalExpensePerCategory().get(category);
+            adjustedCostRow.createCell(col + 1).setCellValue(Money.toAmount(adjustPrice));
+            int consumers = event.getConsumedPerCategory().get(category).size();
+            long perConsumer = consumers == 0 ? 0 : Math.round((double) adjustPrice / consumers);
+            perCnsumerRow.createCell(col + 1).setCellValue(Money.toAmount(perConsumer));
         }
 
         int feeCol = eventCategory.size() + 1;
         header.createCell(feeCol).setCellValue("Total Participation Fee");
-        rawCostRow.createCell(feeCol).setCellValue(totalParticipationFee);
+        rawCostRow.createCell(feeCol).setCellValue(Money.toAmount(totalParticipationFee));
         adjustedCostRow.createCell(feeCol).setCellValue(0);
-        perCnsumerRow.createCell(feeCol).setCellValue(event.getParticipationFee());
+        perCnsumerRow.createCell(feeCol).setCellValue(Money.toAmount(event.getParticipationFee()));
 
         for (int col = 0; col <= feeCol; col++) {
             sheet.autoSizeColumn(col);
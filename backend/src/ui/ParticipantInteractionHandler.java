@@ -73,7 +73,7 @@ public class ParticipantInteractionHandler {
             System.out.println("There is no participant!");
             return;
         }
-        event.getParticipants().remove(participantToRemove);
+        EventLock.run(() -> event.removeParticipant(participantToRemove));
     }
 
     private static void handleEditParticipant(Event event) {
@@ -108,7 +108,7 @@ public class ParticipantInteractionHandler {
             return;
         }
         String newName = UserInputHandler.getStringInput(String.format("Enter new name for %s", participantToRename.getName()));
-        participantToRename.setName(newName);
+        EventLock.run(() -> participantToRename.setName(newName));
     }
 
     private static void handleEditExpensesPerCategory(Participant participant, Event event) {
@@ -116,8 +116,8 @@ public class ParticipantInteractionHandler {
         Category expenseCategoryToEdit = CategoryInteractionHandler.getCategoryFromUser("Enter category Number you wants to edit its expense:" +
                 " if there are none enter 0", expenseCategories);
         assert expenseCategoryToEdit != null;
-        double expense = UserInputHandler.getDoubleInput(String.format("Enter the amount of money that %s spent on %s:", participant.getName(), expenseCategoryToEdit.getName()));
-        participant.getExpenses().put(expenseCategoryToEdit, expense);
+        long expense = UserInputHandler.getMoneyInput(String.format("Enter the amount of money that %s spent on %s:", participant.getName(), expenseCategoryToEdit.getName()));
+        EventLock.run(() -> event.setExpense(participant, expenseCategoryToEdit, expense));
         MenuPrinter.displayParticipantEditMenu(participant);
     }
 
@@ -141,12 +141,12 @@ public class ParticipantInteractionHandler {
                     }
                 }
                 if (!isCategoryExist) {
-                    participant.addConsumedCategory(consumedCategoryToEdit);
+                    EventLock.run(() -> event.setConsumed(participant, consumedCategoryToEdit, true));
                     break;
                 }
             }
             else if (choice == 2) {
-                participant.getConsumedCategories().remove(consumedCategoryToEdit);
+                EventLock.run(() -> event.setConsumed(participant, consumedCategoryToEdit, false));
                 break;
             }
         }
@@ -175,7 +175,7 @@ public class ParticipantInteractionHandler {
         enterConsumedCategories(participant, event.getCategories());
 
         // adds the participant to the event
-        event.addParticipant(participant);
+        EventLock.run(() -> event.addParticipant(participant));
     }
 
     private static void enterExpensesCategories(Participant participant, List<Category> categories) {
@@ -197,7 +197,7 @@ public class ParticipantInteractionHandler {
             Category expenseCategory =  CategoryInteractionHandler.getCategoryFromNumber(choice, displayCategories);
 
             // get the amount that the participant spent on the category
-            double amount = UserInputHandler.getDoubleInput("Enter the amount of money you spent on this category.");
+            long amount = UserInputHandler.getMoneyInput("Enter the amount of money you spent on this category.");
 
             // adds the expense to the participant expenses list
             participant.addExpense(expenseCategory, amount);
@@ -255,7 +255,7 @@ public class ParticipantInteractionHandler {
             return;
         }
         String newPhoneNumber = UserInputHandler.getStringInput(String.format("Enter new phone number for %s", participantToEdit.getName()));
-        participantToEdit.setPhoneNumber(newPhoneNumber);
+        EventLock.run(() -> participantToEdit.setPhoneNumber(newPhoneNumber));
     }
 
     private static void handleEmailAddressEdit(Event event) {
@@ -266,6 +266,6 @@ public class ParticipantInteractionHandler {
             return;
         }
         String newEmail = UserInputHandler.getStringInput(String.format("Enter new email address for %s", participantToEdit.getName()));
-        participantToEdit.setEmail(newEmail);
+        EventLock.run(() -> participantToEdit.setEmail(newEmail));
     }
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 package ui;
 
+import logic.Money;
+
 import java.util.Scanner;
 
 /**
  * UserInputHandler provides utility methods to read and validate user input
- * from the console, including integers, doubles, strings, and yes/no choices.
+ * from the console, including integers, money amounts, strings, and yes/no choices.
  */
 public class UserInputHandler {
 
@@ -29,17 +31,17 @@ public class UserInputHandler {
     }
 
     /**
-     * Prompts the user with a message and reads a double value.
-     * Repeats the prompt until a valid double is entered.
+     * Prompts the user with a message and reads a money amount such as {@code 12.50}.
+     * Repeats the prompt until a valid amount is entered.
      *
      * @param message the message shown to the user
-     * @return the double entered by the user
+     * @return the amount entered by the user, in cents
      */
-    public static double getDoubleInput(String message) {
+    public static long getMoneyInput(String message) {
         while (true) {
             try {
                 System.out.println(message);
-                return Double.parseDouble(scanner.nextLine());
+                return Money.parse(scanner.nextLine());
             } catch (NumberFormatException e) {
                 System.out.println("Invalid number, try again.");
             }
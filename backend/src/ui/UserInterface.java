@@ -8,6 +8,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * UserInterface is the main UI handler for the expense sharing system.
@@ -16,14 +17,21 @@ import java.util.Map;
  */
 public class UserInterface {
 
+    private static final int EVENT_PAGE_SIZE = 20;
+
     private EventManager eventManager;
     private boolean isRunning = true;
-    private CalculationEngine calculationEngine;
+
+    private final AsyncEventRepository storage = new AsyncEventRepository();
+    // the save running behind the menu, finished before the next action touches the event
+    private CompletableFuture<Boolean> pendingSave = CompletableFuture.completedFuture(true);
+    // queues saves instead, if write-behind is enabled
+    private final WriteBehindSaver writeBehind = createWriteBehindSaver();
 
 
     public UserInterface(EventManager eventManager) {
         this.eventManager = eventManager;
-        this.calculationEngine = new CalculationEngine();
+        EventLock.use(writeBehind);
     }
 
     /**
@@ -37,7 +45,27 @@ public class UserInterface {
         }
     }
 
+    private static WriteBehindSaver createWriteBehindSaver() {
+        WriteBehindSaver.Options options = DatabaseConfig.fromEnvironment().getWriteBehind();
+        if (!options.isEnabled()) {
+            return null;
+        }
+        WriteBehindSaver saver = new WriteBehindSaver(options);
+        // queued saves are also written when the console is ended without the exit option
+        Runtime.getRuntime().addShutdownHook(new Thread(saver::close, "write-behind-shutdown"));
+        return saver;
+    }
+
     private void handleMainMenuChoice(int choice) {
+        pendingSave.join();
+        if (choice == 8) {
+            exit();
+        } else {
+            handleEventChoice(choice);
+        }
+    }
+
+    private void handleEventChoice(int choice) {
         switch (choice) {
             case 1 -> createEvent();
             case 2 -> loadEventFlow();
@@ -46,20 +74,27 @@ public class UserInterface {
             case 5 -> handleEditEvent();
             case 6 -> deleteEvent();
             case 7 -> exportExcel();
-            case 8 -> {
-                System.out.println("Exiting. Goodbye!");
-                isRunning = false;
-            }
             default -> System.out.println("Invalid option. Please try again.");
         }
     }
 
+    private void exit() {
+        System.out.println("Exiting. Goodbye!");
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+        storage.close();
+        DatabaseManager.shutdown();
+        isRunning = false;
+    }
+
     private void exportExcel() {
-        if (eventManager.getCurrentEvent() == null) {
+        Event currentEvent = eventManager.getCurrentEvent();
+        if (currentEvent == null) {
             System.out.println("You need first to create or load an event");
             return;
         }
-        ExcelExporter.exportToFile(eventManager.getCurrentEvent());
+        EventLock.run(() -> ExcelExporter.exportToFile(currentEvent));
     }
 
     private void handleEditEvent() {
@@ -89,7 +124,12 @@ public class UserInterface {
     private void editEventDate() {
         String stringDate = UserInputHandler.getStringInput("Enter date (dd/MM/yyyy): ");
         LocalDate date = localDateFromString(stringDate);
-        eventManager.getCurrentEvent().setDate(date);
+        Event currentEvent = eventManager.getCurrentEvent();
+        if (currentEvent == null) {
+            System.out.println("No event selected to edit.");
+            return;
+        }
+        EventLock.run(() -> currentEvent.setDate(date));
     }
 
     private void editParticipationFee() {
@@ -98,8 +138,8 @@ public class UserInterface {
             System.out.println("No event selected to edit.");
             return;
         }
-        double fee = UserInputHandler.getDoubleInput("Enter new participation fee: ");
-        currentEvent.setParticipationFee(fee);
+        long fee = UserInputHandler.getMoneyInput("Enter new participation fee: ");
+        EventLock.run(() -> currentEvent.setParticipationFee(fee));
     }
 
     private void renameEvent() {
@@ -109,7 +149,7 @@ public class UserInterface {
             return;
         }
         String newEventName = UserInputHandler.getStringInput("Enter a new name for this event: ");
-        currentEvent.setEventName(newEventName);
+        EventLock.run(() -> currentEvent.setEventName(newEventName));
     }
 
     private void createEvent() {
@@ -118,7 +158,7 @@ public class UserInterface {
         String name = UserInputHandler.getStringInput("Enter event name: ");
         String stringDate = UserInputHandler.getStringInput("Enter date (dd/MM/yyyy): ");
         LocalDate date = localDateFromString(stringDate);
-        double fee = UserInputHandler.getDoubleInput("Enter new participation fee: ");
+        long fee = UserInputHandler.getMoneyInput("Enter new participation fee: ");
         Event newEvent = new Event(name, fee, date);
 
         defineCategories(newEvent); // Define consumed/expenses categories for this new event
@@ -151,46 +191,79 @@ public class UserInterface {
             return;
         }
 
-        boolean dbSuccess = EventDao.insertOrUpdateEvent(currentEvent);
-        if (dbSuccess) {
-            ParticipantDao.saveEventParticipants(currentEvent);
-            CategoryDao.saveEventCategories(currentEvent);
-            DebtDao.saveEventDebts(currentEvent);
-            ExpenseDao.saveEventExpenses(currentEvent);
-            ExpenseDao.saveEventConsumptions(currentEvent);
-            System.out.println("Event also saved to database.");
-        } else {
-            System.out.println("Failed to save event to database.");
+        if (writeBehind != null) {
+            writeBehind.save(currentEvent);
+            System.out.println("Event queued for saving to database.");
+            return;
         }
+        System.out.println("Saving event in the background...");
+        pendingSave = storage.save(currentEvent)
+                .exceptionally(error -> false)
+                .thenApply(saved -> {
+                    System.out.println(saved ? "Event also saved to database." : "Failed to save event to database.");
+                    return saved;
+                });
     }
 
     private void loadEventFlow() {
-        List<EventDao.EventSummary> savedEvents = EventDao.getAllEvents();
-
-        if (savedEvents.isEmpty()) {
-            System.out.println("No saved events found.");
-            return;
+        if (writeBehind != null) {
+            // the list and the loaded event must include the queued saves
+            writeBehind.flush();
         }
+        String namePrefix = UserInputHandler.getStringInput("Filter by the start of the event name (leave empty to list all):");
+        EventDao.EventFilter filter = new EventDao.EventFilter(namePrefix.trim(), null, null);
+
+        EventDao.EventSummary selected = null;
+        CompletableFuture<EventDao.EventPage> pageLoad = storage.listEvents(filter, null, EVENT_PAGE_SIZE);
+        while (selected == null) {
+            EventDao.EventPage page = pageLoad.exceptionally(error -> null).join();
+            if (page == null) {
+                System.out.println("Failed to list saved events.");
+                return;
+            }
+            List<EventDao.EventSummary> savedEvents = page.getEvents();
 
-        System.out.println("Choose an event to load:");
-        for (int i = 0; i < savedEvents.size(); i++) {
-            System.out.printf("%d. %s%n", i + 1, savedEvents.get(i));
-        }
+            if (savedEvents.isEmpty()) {
+                System.out.println("No saved events found.");
+                return;
+            }
 
-        System.out.print("Enter number of event: ");
-        int choice = UserInputHandler.getIntInput("Your choice: ");
+            // the next page is read while the user looks at this one
+            pageLoad = page.hasMore() ? storage.listEvents(filter, page.getLast(), EVENT_PAGE_SIZE) : null;
 
-        if (choice < 1 || choice > savedEvents.size()) {
-            System.out.println("Invalid choice.");
-            return;
+            System.out.println("Choose an event to load:");
+            for (int i = 0; i < savedEvents.size(); i++) {
+                System.out.printf("%d. %s%n", i + 1, savedEvents.get(i));
+            }
+            if (page.hasMore()) {
+                System.out.println("0. Next page");
+            }
+
+            System.out.print("Enter number of event: ");
+            int choice = UserInputHandler.getIntInput("Your choice: ");
+
+            if (choice == 0 && page.hasMore()) {
+                continue;
+            }
+            if (pageLoad != null) {
+                pageLoad.cancel(true);
+            }
+            if (choice < 1 || choice > savedEvents.size()) {
+                System.out.println("Invalid choice.");
+                return;
+            }
+            selected = savedEvents.get(choice - 1);
         }
 
-        int selectedEventId = savedEvents.get(choice - 1).getId();
-        String selectedEventName = savedEvents.get(choice - 1).getName();
-        Event event = EventDao.loadEventById(selectedEventId);
+        int selectedEventId = selected.getId();
+        String selectedEventName = selected.getName();
+        Event event = storage.load(selectedEventId).exceptionally(error -> null).join();
 
         if (event != null) {
-            event.finalizeCalculations();
+            // events whose stored results are still valid need no calculation
+            if (!event.hasLoadedResults()) {
+                event.finalizeCalculations();
+            }
             eventManager.setCurrentEvent(event);
             System.out.printf("Event \"%s\" loaded successfully.%n", selectedEventName);
         } else {
@@ -199,7 +272,15 @@ public class UserInterface {
     }
 
     private void deleteEvent() {
-        EventDao.deleteEventById(eventManager.getCurrentEvent().getId());
+        Event currentEvent = eventManager.getCurrentEvent();
+        if (currentEvent == null) {
+            System.out.println("No event selected to delete.");
+            return;
+        }
+        if (writeBehind != null) {
+            writeBehind.discard(currentEvent);
+        }
+        EventDao.deleteEventById(currentEvent.getId());
     }
 
     private void showResultsForCurrentEvent() {
@@ -210,12 +291,14 @@ public class UserInterface {
             return;
         }
 
-        System.out.println("=== Event Results: " + currentEvent.getEventName() + " ===\nParticipation Fee: " + currentEvent.getParticipationFee() + "\n");
-
-        calculationEngine.calculateBalances(currentEvent);
+        System.out.println("=== Event Results: " + currentEvent.getEventName() + " ===\nParticipation Fee: " + Money.format(currentEvent.getParticipationFee()) + "\n");
 
-        System.out.print(EventPresenter.formatParticipants(currentEvent));
-        System.out.println(EventPresenter.formatDebts(currentEvent.getDebts()));
+        String report = EventLock.read(() -> {
+            currentEvent.updateCalculations();
+            return EventPresenter.formatParticipants(currentEvent)
+                    + EventPresenter.formatDebts(currentEvent.getDebts()) + System.lineSeparator();
+        });
+        System.out.print(report);
         System.out.println("=============================");
 
         System.out.println("=============================");
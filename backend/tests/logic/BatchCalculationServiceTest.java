@@ -0,0 +1,124 @@
+package logic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BatchCalculationService class tests")
+class BatchCalculationServiceTest {
+
+    private static Event createEvent(int id) {
+        Random random = new Random(id);
+        Event event = new Event("Event " + id, 5_00, LocalDate.of(2025, 1, 1));
+        event.setId(id);
+        for (int c = 0; c < 5; c++) {
+            event.addCategory(new Category("C" + c));
+        }
+        for (int p = 0; p < 20; p++) {
+            Participant participant = new Participant("P" + p, id + "-" + p);
+            for (Category category : event.getCategories()) {
+                if (random.nextInt(4) == 0) {
+                    participant.addExpense(category, 1 + random.nextInt(100_00));
+                }
+                if (random.nextBoolean()) {
+                    participant.addConsumedCategory(category);
+                }
+            }
+            event.addParticipant(participant);
+        }
+        return event;
+    }
+
+    @Test
+    @DisplayName("Check that every event gets the same result as a sequential calculation, in ID order")
+    void testResultsMatchSequentialCalculation() {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1; id <= 200; id++) {
+            ids.add(id);
+        }
+
+        BatchCalculationService.BatchResult batch;
+        try (BatchCalculationService service = new BatchCalculationService(BatchCalculationServiceTest::createEvent, 4)) {
+            batch = service.recalculate(ids);
+        }
+
+        assertTrue(batch.getFailedEventIds().isEmpty());
+        assertEquals(ids.size(), batch.getResults().size());
+        assertTrue(batch.getWallNanos() > 0);
+
+        for (int i = 0; i < ids.size(); i++) {
+            CalculationResult result = batch.getResults().get(i);
+            assertEquals(ids.get(i), result.getEventId());
+
+            Event expected = createEvent(ids.get(i));
+            new CalculationEngine().calculateBalances(expected);
+            for (int p = 0; p < result.getParticipantCount(); p++) {
+                assertEquals(expected.getParticipants().get(p).getBalance(), result.getBalance(p));
+                assertEquals(expected.getParticipants().get(p).getTotalConsumed(), result.getTotalConsumed(p));
+            }
+            assertEquals(expected.getDebts().size(), result.getDebts().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Check that events that cannot be loaded or calculated are reported as failed")
+    void testFailedEvents() {
+        Map<Integer, Event> stored = new ConcurrentHashMap<>();
+        stored.put(1, createEvent(1));
+        stored.put(3, createEvent(3));
+
+        BatchCalculationService.BatchResult batch;
+        try (BatchCalculationService service = new BatchCalculationService(id -> {
+            if (id == 4) {
+                throw new IllegalStateException("broken event");
+            }
+            return stored.get(id);
+        }, 2)) {
+            batch = service.recalculate(List.of(1, 2, 3, 4));
+        }
+
+        assertEquals(List.of(2, 4), batch.getFailedEventIds());
+        assertEquals(2, batch.getResults().size());
+        assertEquals(3, batch.getResults().get(1).getEventId());
+    }
+
+    @Test
+    @DisplayName("Check that the parallelism must be positive")
+    void testInvalidParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchCalculationService(id -> null, 0));
+    }
+
+    @Test
+    @DisplayName("Check that a batch loader loads the events of each task with one call")
+    void testBatchLoaderLoadsLeavesInBulk() {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1; id <= 64; id++) {
+            ids.add(id);
+        }
+        List<List<Integer>> calls = Collections.synchronizedList(new ArrayList<>());
+
+        BatchCalculationService.BatchResult batch;
+        try (BatchCalculationService service = BatchCalculationService.ofBatchLoader(leafIds -> {
+            calls.add(leafIds);
+            List<Event> events = new ArrayList<>();
+            for (int id : leafIds) {
+                events.add(id % 10 == 0 ? null : createEvent(id));
+            }
+            return events;
+        }, 2)) {
+            batch = service.recalculate(ids);
+        }
+
+        // 64 IDs on 2 workers are split into leaves of 8
+        assertEquals(8, calls.size());
+        assertTrue(calls.stream().allMatch(leafIds -> leafIds.size() == 8));
+        assertEquals(List.of(10, 20, 30, 40, 50, 60), batch.getFailedEventIds());
+        assertEquals(58, batch.getResults().size());
+        assertEquals(11, batch.getResults().get(9).getEventId());
+    }
+}
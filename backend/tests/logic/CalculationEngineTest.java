@@ -36,10 +36,10 @@ class CalculationEngineTest {
         activity = new Category("Activity");
         decoration = new Category("Decorations");
 
-        alice.addExpense(food, 200.0);
-        bob.addExpense(drinks, 100.0);
-        charlie.addExpense(activity, 150.0);
-        david.addExpense(decoration, 50.0);
+        alice.addExpense(food, 200_00);
+        bob.addExpense(drinks, 100_00);
+        charlie.addExpense(activity, 150_00);
+        david.addExpense(decoration, 50_00);
 
         alice.addConsumedCategory(food);
         alice.addConsumedCategory(drinks);
@@ -53,7 +53,7 @@ class CalculationEngineTest {
 
 
         LocalDate date = LocalDate.of(2023, 8, 5);
-        event = new Event("Birthday Party", 10.0, date);
+        event = new Event("Birthday Party", 10_00, date);
         event.addCategory(food);
         event.addCategory(drinks);
         event.addCategory(activity);
@@ -102,17 +102,54 @@ class CalculationEngineTest {
         for (Debt debt: debts) {
             if (debt.getDebtor().equals(bob)) {
                 assertEquals(alice, debt.getCreditor());
-                assertEquals(15.0, debt.getAmount());
+                assertEquals(15_00, debt.getAmount());
             } else if (debt.getDebtor().equals(charlie)) {
                 if (debt.getCreditor().equals(alice)) {
-                    assertEquals(60.0, debt.getAmount());
+                    assertEquals(60_00, debt.getAmount());
                 } else if (debt.getCreditor().equals(david)) {
-                    assertEquals(40.0, debt.getAmount());
+                    assertEquals(40_00, debt.getAmount());
                 }
             } else {
                 assertEquals(alice, debt.getCreditor());
-                assertEquals(10.0, debt.getAmount());
+                assertEquals(10_00, debt.getAmount());
             }
         }
     }
+
+    @Test
+    @DisplayName("Check that calculateBalances sets total consumed, balances and adjusted category expenses")
+    void testCalculateBalancesUpdatesParticipantsAndEvent() {
+        engine.calculateBalances(event);
+
+        assertEquals(105_00, alice.getTotalConsumed());
+        assertEquals(240_00, charlie.getTotalConsumed());
+        assertEquals(0, eve.getTotalConsumed());
+
+        assertEquals(85_00, alice.getBalance());
+        assertEquals(40_00, david.getBalance());
+        assertEquals(-10_00, eve.getBalance());
+
+        assertEquals(180_00, event.getAdjustedTotalExpensePerCategory().get(food));
+        assertEquals(45_00, event.getAdjustedTotalExpensePerCategory().get(decoration));
+    }
+
+    @Test
+    @DisplayName("Check that calculateResult leaves the event untouched and applyTo writes the same results")
+    void testCalculateResultIsSideEffectFree() {
+        CalculationResult result = engine.calculateResult(event);
+
+        assertEquals(0, alice.getBalance());
+        assertEquals(0, alice.getTotalConsumed());
+        assertTrue(event.getAdjustedTotalExpensePerCategory().isEmpty());
+
+        int aliceOrdinal = event.getParticipants().indexOf(alice);
+        assertSame(alice, result.getParticipant(aliceOrdinal));
+        assertEquals(105_00, result.getTotalConsumed(aliceOrdinal));
+        assertEquals(85_00, result.getBalance(aliceOrdinal));
+        assertThrows(UnsupportedOperationException.class, () -> result.getDebts().clear());
+
+        result.applyTo(event);
+        assertEquals(85_00, alice.getBalance());
+        assertEquals(result.getDebts().size(), event.getDebts().size());
+    }
 }
@@ -0,0 +1,81 @@
+package logic;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ConsumptionMatrix class tests")
+class ConsumptionMatrixTest {
+
+    private List<Participant> participants;
+    private List<Category> categories;
+
+    @BeforeEach
+    void setUp() {
+        participants = new ArrayList<>();
+        categories = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            participants.add(new Participant("P" + i, "050" + i));
+        }
+        // more than 64 categories, so the rows span several words
+        for (int i = 0; i < 130; i++) {
+            categories.add(new Category("C" + i));
+        }
+
+        participants.get(0).addConsumedCategory(categories.get(0));
+        participants.get(0).addConsumedCategory(categories.get(129));
+        participants.get(1).addConsumedCategory(categories.get(129));
+        participants.get(1).addConsumedCategory(categories.get(129));
+        participants.get(2).addConsumedCategory(categories.get(64));
+        participants.get(2).addConsumedCategory(categories.get(129));
+        participants.get(2).addConsumedCategory(new Category("Not in event"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        participants = null;
+        categories = null;
+    }
+
+    @Test
+    @DisplayName("Check that consumes reflects the consumed categories of each participant")
+    void testConsumes() {
+        ConsumptionMatrix matrix = ConsumptionMatrix.of(participants, categories);
+
+        assertTrue(matrix.consumes(0, 0));
+        assertTrue(matrix.consumes(0, 129));
+        assertFalse(matrix.consumes(1, 0));
+        assertTrue(matrix.consumes(2, 64));
+        assertFalse(matrix.consumes(2, 63));
+    }
+
+    @Test
+    @DisplayName("Check that consumer counts ignore repeated categories")
+    void testConsumerCount() {
+        ConsumptionMatrix matrix = ConsumptionMatrix.of(participants, categories);
+
+        assertEquals(1, matrix.getConsumerCount(0));
+        assertEquals(1, matrix.getConsumerCount(64));
+        assertEquals(3, matrix.getConsumerCount(129));
+        assertEquals(0, matrix.getConsumerCount(1));
+    }
+
+    @Test
+    @DisplayName("Check that consumers of a category are iterated in participant order")
+    void testConsumersInParticipantOrder() {
+        ConsumptionMatrix matrix = ConsumptionMatrix.of(participants, categories);
+
+        List<Integer> consumers = new ArrayList<>();
+        matrix.forEachConsumer(129, consumers::add);
+
+        assertEquals(List.of(0, 1, 2), consumers);
+        assertEquals(2, matrix.getConsumer(129, 2));
+    }
+}
@@ -28,14 +28,14 @@ public class EventIntegrationTest {
         food = new Category("Food");
         drinks = new Category("Drinks");
 
-        david.addExpense(food, 100.0);
-        alice.addExpense(food, 50.0);
+        david.addExpense(food, 100_00);
+        alice.addExpense(food, 50_00);
 
         david.addConsumedCategory(food);
         alice.addConsumedCategory(food);
 
         LocalDate date = LocalDate.of(2023, 8, 5);
-        event = new Event("BBQ", 10.0, date);
+        event = new Event("BBQ", 10_00, date);
         event.addCategory(food);
         event.addCategory(drinks);
         event.addParticipant(david);
@@ -74,15 +74,15 @@ public class EventIntegrationTest {
         event.finalizeCalculations();
 
         //
-        double davidConsumption = david.getTotalConsumed();
-        double aliceConsumption = alice.getTotalConsumed();
+        long davidConsumption = david.getTotalConsumed();
+        long aliceConsumption = alice.getTotalConsumed();
 
         assertTrue(davidConsumption > 0, "David should have consumed a positive amount");
         assertTrue(aliceConsumption > 0, "Alice should have consumed a positive amount");
 
         //
-        assertNotEquals(0.0, davidConsumption, 0.01);
-        assertNotEquals(0.0, aliceConsumption, 0.01);
+        assertNotEquals(0, davidConsumption);
+        assertNotEquals(0, aliceConsumption);
     }
 
 }
@@ -0,0 +1,87 @@
+package logic;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EventMatrix class tests")
+class EventMatrixTest {
+
+    private Participant david;
+    private Participant alice;
+    private Category food;
+    private Category drinks;
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        david = new Participant("David", "056664825");
+        alice = new Participant("Alice", "123456222");
+
+        food = new Category("Food");
+        drinks = new Category("Drinks");
+
+        david.addExpense(food, 100_00);
+        alice.addExpense(food, 50_00);
+        alice.addExpense(new Category("Gas"), 20_00);
+
+        david.addConsumedCategory(food);
+        alice.addConsumedCategory(food);
+        alice.addConsumedCategory(drinks);
+        alice.addConsumedCategory(drinks);
+
+        event = new Event("BBQ", 10_00, LocalDate.of(2024, 4, 20));
+        event.addCategory(food);
+        event.addCategory(drinks);
+        event.addParticipant(david);
+        event.addParticipant(alice);
+    }
+
+    @AfterEach
+    void tearDown() {
+        david = null;
+        alice = null;
+        food = null;
+        drinks = null;
+        event = null;
+    }
+
+    @Test
+    @DisplayName("Check that compile assigns ordinals in the order of the event lists")
+    void testCompileOrdinals() {
+        EventMatrix matrix = EventMatrix.compile(event);
+
+        assertEquals(2, matrix.getParticipantCount());
+        assertEquals(2, matrix.getCategoryCount());
+        assertSame(alice, matrix.participants()[1]);
+        assertSame(drinks, matrix.categories()[1]);
+    }
+
+    @Test
+    @DisplayName("Check that compile sums expenses per participant and per event category")
+    void testCompileExpenses() {
+        EventMatrix matrix = EventMatrix.compile(event);
+
+        assertEquals(100_00, matrix.paidByParticipant()[0]);
+        assertEquals(70_00, matrix.paidByParticipant()[1], "Expenses outside the event still count as paid");
+        assertEquals(150_00, matrix.expenseByCategory()[0]);
+        assertEquals(0, matrix.expenseByCategory()[1]);
+    }
+
+    @Test
+    @DisplayName("Check that consumption is stored once per participant and category")
+    void testCompileConsumption() {
+        EventMatrix matrix = EventMatrix.compile(event);
+
+        assertTrue(matrix.consumes(0, 0));
+        assertFalse(matrix.consumes(0, 1));
+        assertTrue(matrix.consumes(1, 1));
+        assertEquals(2, matrix.getConsumption().getConsumerCount(0));
+        assertEquals(1, matrix.getConsumption().getConsumerCount(1), "A category listed twice is consumed once");
+    }
+}
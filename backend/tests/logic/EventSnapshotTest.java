@@ -0,0 +1,111 @@
+package logic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EventSnapshot class tests")
+class EventSnapshotTest {
+
+    @Test
+    @DisplayName("Check that keys pack and unpack both IDs")
+    void testKey() {
+        long key = EventSnapshot.key(7, 42);
+        assertEquals(7, EventSnapshot.firstId(key));
+        assertEquals(42, EventSnapshot.secondId(key));
+
+        long large = EventSnapshot.key(Integer.MAX_VALUE, Integer.MAX_VALUE - 1);
+        assertEquals(Integer.MAX_VALUE, EventSnapshot.firstId(large));
+        assertEquals(Integer.MAX_VALUE - 1, EventSnapshot.secondId(large));
+        assertNotEquals(EventSnapshot.key(1, 2), EventSnapshot.key(2, 1));
+    }
+
+    @Test
+    @DisplayName("Check that a snapshot records the rows of the event by ID")
+    void testOf() {
+        Event event = new Event("Snapshot", 0, LocalDate.of(2025, 1, 1));
+        event.setId(5);
+        Participant alice = new Participant("Alice", "0500000001");
+        Participant bob = new Participant("Bob", "0500000002");
+        alice.setId(1);
+        bob.setId(2);
+        Category food = new Category("Food");
+        food.setId(10);
+        event.addCategory(food);
+        event.addParticipant(alice);
+        event.addParticipant(bob);
+        alice.addExpense(food, 30_00);
+        alice.addConsumedCategory(food);
+        bob.addConsumedCategory(food);
+        event.setDebts(List.of(new Debt(bob, alice, 10_00), new Debt(bob, alice, 5_00)));
+
+        EventSnapshot snapshot = EventSnapshot.of(event);
+
+        assertEquals(5, snapshot.getEventId());
+        assertEquals(java.util.Set.of(1, 2), snapshot.getParticipantIds());
+        assertEquals("Food", snapshot.getCategoryNames().get(10));
+        assertEquals(30_00, snapshot.getExpenses().get(EventSnapshot.key(1, 10)));
+        assertEquals(2, snapshot.getConsumptions().size());
+        assertTrue(snapshot.getConsumptions().contains(EventSnapshot.key(2, 10)));
+        assertEquals(List.of(5_00L, 10_00L), snapshot.getDebts().get(EventSnapshot.key(2, 1)),
+                "Debts between the same pair should be kept in ascending order");
+    }
+
+    @Test
+    @DisplayName("Check that a snapshot does not change when the event changes")
+    void testSnapshotIsDetached() {
+        Event event = new Event("Snapshot", 0, LocalDate.of(2025, 1, 1));
+        Participant alice = new Participant("Alice", "0500000001");
+        alice.setId(1);
+        Category food = new Category("Food");
+        food.setId(10);
+        event.addCategory(food);
+        event.addParticipant(alice);
+        alice.addExpense(food, 30_00);
+
+        EventSnapshot snapshot = EventSnapshot.of(event);
+        event.setExpense(alice, food, 40_00);
+
+        assertEquals(30_00, snapshot.getExpenses().get(EventSnapshot.key(1, 10)));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getExpenses().clear());
+    }
+
+    @Test
+    @DisplayName("Check that the content version follows the calculation inputs only")
+    void testContentVersion() {
+        Event event = new Event("Snapshot", 10_00, LocalDate.of(2025, 1, 1));
+        Participant alice = new Participant("Alice", "0500000001");
+        Participant bob = new Participant("Bob", "0500000002");
+        alice.setId(1);
+        bob.setId(2);
+        Category food = new Category("Food");
+        food.setId(10);
+        event.addCategory(food);
+        event.addParticipant(alice);
+        event.addParticipant(bob);
+        alice.addExpense(food, 30_00);
+        alice.addConsumedCategory(food);
+        long version = EventSnapshot.of(event).getContentVersion();
+
+        event.setParticipants(new java.util.ArrayList<>(List.of(bob, alice)));
+        food.setName("Groceries");
+        event.setDebts(List.of(new Debt(bob, alice, 5_00)));
+        assertEquals(version, EventSnapshot.of(event).getContentVersion(),
+                "Order, names and debts should not change the version");
+
+        event.setExpense(alice, food, 31_00);
+        long changedExpense = EventSnapshot.of(event).getContentVersion();
+        assertNotEquals(version, changedExpense);
+
+        event.setConsumed(bob, food, true);
+        long changedConsumption = EventSnapshot.of(event).getContentVersion();
+        assertNotEquals(changedExpense, changedConsumption);
+
+        event.setParticipationFee(20_00);
+        assertNotEquals(changedConsumption, EventSnapshot.of(event).getContentVersion());
+    }
+}
@@ -30,11 +30,11 @@ public class EventTest {
         drinks = new Category("Drinks");
         gas = new Category("Gas");
 
-        david.addExpense(food, 100.0);
-        david.addExpense(drinks, 0.0); // Should not appear because it's 0
-        alice.addExpense(food, 50.0);
+        david.addExpense(food, 100_00);
+        david.addExpense(drinks, 0); // Should not appear because it's 0
+        alice.addExpense(food, 50_00);
 
-        event = new Event("BBQ", 10.0, LocalDate.of(2024, 4, 20));
+        event = new Event("BBQ", 10_00, LocalDate.of(2024, 4, 20));
         event.addCategory(food);
         event.addCategory(drinks);
         event.addParticipant(david);
@@ -61,14 +61,14 @@ public class EventTest {
 
 
         // Act
-        Map<Category, Map<Participant, Double>> result = event.getExpensePerCategory();
+        Map<Category, Map<Participant, Long>> result = event.getExpensePerCategory();
 
         // Assert - Food category
         assertTrue(result.get(food).containsKey(david));
-        assertEquals(100.0, result.get(food).get(david));
+        assertEquals(100_00, result.get(food).get(david));
 
         assertTrue(result.get(food).containsKey(alice));
-        assertEquals(50.0, result.get(food).get(alice));
+        assertEquals(50_00, result.get(food).get(alice));
 
         // Assert - Drinks category should be empty
         assertTrue(result.get(drinks).isEmpty());
@@ -106,10 +106,34 @@ public class EventTest {
         event.fillTotalExpensePerCategory();
 
         // Act
-        Map<Category, Double> result = event.getTotalExpensePerCategory();
+        Map<Category, Long> result = event.getTotalExpensePerCategory();
 
         // Assert
-        assertEquals(150.0, result.get(food));
+        assertEquals(150_00, result.get(food));
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("A category added after the calculation has per-category entries once it is edited")
+    void testCategoryAddedAfterCalculationIsTracked() {
+        event.finalizeCalculations();
+
+        event.addCategory(gas);
+        Category parking = new Category("Parking");
+        event.addCategory(parking);
+        event.setExpense(david, gas, 5_00);
+        event.setConsumed(alice, gas, true);
+        event.updateCalculations();
+
+        assertEquals(5_00, event.getTotalExpensePerCategory().get(gas));
+        assertEquals(Map.of(david, 5_00L), event.getExpensePerCategory().get(gas));
+        assertEquals(List.of(alice), event.getConsumedPerCategory().get(gas));
+        // a category that was never edited has empty entries, not missing ones
+        assertTrue(event.getConsumedPerCategory().get(parking).isEmpty());
+        assertTrue(event.getExpensePerCategory().get(parking).isEmpty());
+
+        event.setConsumed(alice, gas, false);
+        event.setExpense(david, gas, 0);
+        assertTrue(event.getConsumedPerCategory().get(gas).isEmpty());
+        assertTrue(event.getExpensePerCategory().get(gas).isEmpty());
+    }
+}
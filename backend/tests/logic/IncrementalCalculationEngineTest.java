@@ -0,0 +1,181 @@
+package logic;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IncrementalCalculationEngine class tests")
+class IncrementalCalculationEngineTest {
+
+    private Event event;
+    private Participant alice;
+    private Participant bob;
+    private Participant charlie;
+    private Category food;
+    private Category drinks;
+
+    @BeforeEach
+    void setUp() {
+        event = new Event("Trip", 10_00, LocalDate.now());
+        alice = new Participant("Alice", "0501");
+        bob = new Participant("Bob", "0502");
+        charlie = new Participant("Charlie", "0503");
+        food = new Category("Food");
+        drinks = new Category("Drinks");
+
+        event.addCategory(food);
+        event.addCategory(drinks);
+
+        alice.addExpense(food, 120_00);
+        bob.addExpense(drinks, 60_00);
+        alice.addConsumedCategory(food);
+        bob.addConsumedCategory(food);
+        charlie.addConsumedCategory(food);
+        charlie.addConsumedCategory(drinks);
+
+        event.addParticipant(alice);
+        event.addParticipant(bob);
+        event.addParticipant(charlie);
+    }
+
+    private static Event randomEvent(Random random, int participantCount, int categoryCount) {
+        Event event = new Event("Random", 5_00, LocalDate.now());
+        for (int c = 0; c < categoryCount; c++) {
+            event.addCategory(new Category("C" + c));
+        }
+        for (int p = 0; p < participantCount; p++) {
+            Participant participant = new Participant("P" + p, "050" + p);
+            for (Category category : event.getCategories()) {
+                if (random.nextInt(3) == 0) {
+                    participant.addExpense(category, 1 + random.nextInt(200_00));
+                }
+                if (random.nextBoolean()) {
+                    participant.addConsumedCategory(category);
+                }
+            }
+            event.addParticipant(participant);
+        }
+        return event;
+    }
+
+    private static Map<Participant, long[]> results(Event event) {
+        Map<Participant, long[]> results = new HashMap<>();
+        for (Participant participant : event.getParticipants()) {
+            results.put(participant, new long[]{participant.getTotalConsumed(), participant.getBalance()});
+        }
+        return results;
+    }
+
+    @Test
+    @DisplayName("Check that a compiled engine reports the same results as the full calculation")
+    void testInitialStateMatchesFullCalculation() {
+        IncrementalCalculationEngine engine = new IncrementalCalculationEngine(event);
+        new CalculationEngine().calculateBalances(event);
+
+        for (Participant participant : event.getParticipants()) {
+            assertEquals(participant.getTotalConsumed(), engine.getTotalConsumed(participant));
+            assertEquals(participant.getBalance(), engine.getBalance(participant));
+        }
+    }
+
+    @Test
+    @DisplayName("Check that an expense change is spread over the category's consumers")
+    void testExpenseChanged() {
+        IncrementalCalculationEngine engine = new IncrementalCalculationEngine(event);
+
+        alice.addExpense(food, 150_00);
+        engine.expenseChanged(alice, food, 120_00, 150_00);
+
+        // total 210, fee 30 -> factor 6/7; food share 50 each, drinks 60 for charlie
+        assertEquals(42_86, engine.getTotalConsumed(alice));
+        assertEquals(150_00 - (42_86 + 10_00), engine.getBalance(alice));
+        assertEquals(94_29, engine.getTotalConsumed(charlie));
+    }
+
+    @Test
+    @DisplayName("Check that removing a consumption moves the share to the remaining consumers")
+    void testConsumptionRemoved() {
+        IncrementalCalculationEngine engine = new IncrementalCalculationEngine(event);
+
+        charlie.getConsumedCategories().remove(food);
+        engine.consumptionRemoved(charlie, food);
+
+        // total 180, fee 30 -> factor 5/6; food is now split between alice and bob
+        assertEquals(50_00, engine.getTotalConsumed(alice));
+        assertEquals(50_00, engine.getTotalConsumed(charlie));
+
+        engine.consumptionRemoved(charlie, drinks);
+        assertEquals(0, engine.getTotalConsumed(charlie));
+    }
+
+    @Test
+    @DisplayName("Check that a participant outside the event is rejected")
+    void testUnknownParticipant() {
+        IncrementalCalculationEngine engine = new IncrementalCalculationEngine(event);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.consumptionAdded(new Participant("Dave", "0504"), food));
+    }
+
+    @Test
+    @DisplayName("Check that random edits through the event match a full recalculation")
+    void testRandomEditsMatchFullCalculation() {
+        Random random = new Random(7);
+        Event randomEvent = randomEvent(random, 40, 12);
+        List<Participant> participants = randomEvent.getParticipants();
+        List<Category> categories = randomEvent.getCategories();
+
+        for (int round = 0; round < 20; round++) {
+            for (int edit = 0; edit < 25; edit++) {
+                Participant participant = participants.get(random.nextInt(participants.size()));
+                Category category = categories.get(random.nextInt(categories.size()));
+                switch (random.nextInt(4)) {
+                    case 0 -> randomEvent.setExpense(participant, category, random.nextInt(300_00));
+                    case 1 -> randomEvent.setConsumed(participant, category, true);
+                    case 2 -> randomEvent.setConsumed(participant, category, false);
+                    default -> randomEvent.setParticipationFee(random.nextInt(10_00));
+                }
+            }
+            randomEvent.updateCalculations();
+            Map<Participant, long[]> incremental = results(randomEvent);
+            Map<Category, Long> incrementalAdjusted = new HashMap<>(randomEvent.getAdjustedTotalExpensePerCategory());
+
+            randomEvent.finalizeCalculations();
+
+            for (Participant participant : participants) {
+                assertEquals(participant.getTotalConsumed(), incremental.get(participant)[0]);
+                assertEquals(participant.getBalance(), incremental.get(participant)[1]);
+            }
+            for (Category category : categories) {
+                assertEquals(randomEvent.getAdjustedTotalExpensePerCategory().get(category),
+                        incrementalAdjusted.get(category));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Check that structural changes drop the incremental state")
+    void testStructuralChangeRecompiles() {
+        event.setExpense(bob, food, 30_00);
+
+        Participant dave = new Participant("Dave", "0504");
+        dave.addExpense(drinks, 40_00);
+        event.addParticipant(dave);
+        event.setConsumed(dave, food, true);
+        event.updateCalculations();
+        Map<Participant, long[]> incremental = results(event);
+
+        event.finalizeCalculations();
+        for (Participant participant : event.getParticipants()) {
+            assertEquals(participant.getBalance(), incremental.get(participant)[1]);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package logic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MinTransactionSettlementStrategy class tests")
+class MinTransactionSettlementStrategyTest {
+
+    private static Participant[] participants(int count) {
+        Participant[] participants = new Participant[count];
+        for (int i = 0; i < count; i++) {
+            participants[i] = new Participant("P" + i, "050" + i);
+        }
+        return participants;
+    }
+
+    private static void assertSettles(Participant[] participants, long[] balances, List<Debt> debts) {
+        Map<Participant, Long> open = new IdentityHashMap<>();
+        for (int i = 0; i < participants.length; i++) {
+            open.put(participants[i], balances[i]);
+        }
+        for (Debt debt : debts) {
+            assertTrue(debt.getAmount() > 0, "Every transfer should move a positive amount");
+            open.merge(debt.getDebtor(), debt.getAmount(), Long::sum);
+            open.merge(debt.getCreditor(), -debt.getAmount(), Long::sum);
+        }
+        for (long balance : open.values()) {
+            assertEquals(0, balance, "Every balance should be settled");
+        }
+    }
+
+    @Test
+    @DisplayName("Check that matching creditors and debtors settle with one transfer each")
+    void testSettlePairs() {
+        Participant[] participants = participants(4);
+        long[] balances = {50_00, -50_00, 30_00, -30_00};
+
+        List<Debt> greedy = new SortedArraySettlementStrategy().settle(participants, balances);
+        List<Debt> debts = new MinTransactionSettlementStrategy().settle(participants, balances);
+
+        assertEquals(3, greedy.size());
+        assertEquals(2, debts.size());
+        assertSettles(participants, balances, debts);
+    }
+
+    @Test
+    @DisplayName("Check that two creditors matching one debtor settle within their own group")
+    void testSettleTriples() {
+        Participant[] participants = participants(6);
+        long[] balances = {20_00, 35_00, -55_00, 11_00, 7_00, -18_00};
+
+        List<Debt> greedy = new SortedArraySettlementStrategy().settle(participants, balances);
+        List<Debt> debts = new MinTransactionSettlementStrategy().settle(participants, balances);
+
+        assertEquals(4, debts.size());
+        assertTrue(debts.size() < greedy.size());
+        assertSettles(participants, balances, debts);
+    }
+
+    @Test
+    @DisplayName("Check that random balances are settled with at most as many debts as the greedy strategy")
+    void testNeverWorseThanGreedy() {
+        Random random = new Random(11);
+
+        for (int round = 0; round < 50; round++) {
+            int size = 2 + random.nextInt(300);
+            Participant[] participants = participants(size);
+            long[] balances = new long[size];
+            long sum = 0;
+            for (int i = 0; i < size - 1; i++) {
+                // few distinct amounts, so zero-sum groups are common
+                balances[i] = (random.nextInt(21) - 10) * 5_00L;
+                sum += balances[i];
+            }
+            balances[size - 1] = -sum;
+
+            List<Debt> greedy = new SortedArraySettlementStrategy().settle(participants, balances);
+            List<Debt> debts = new MinTransactionSettlementStrategy().settle(participants, balances);
+
+            assertTrue(debts.size() <= greedy.size());
+            assertSettles(participants, balances, debts);
+        }
+    }
+
+    @Test
+    @DisplayName("Check that an exhausted time budget still returns a valid settlement")
+    void testZeroBudget() {
+        Participant[] participants = participants(5000);
+        long[] balances = new long[participants.length];
+        for (int i = 0; i < balances.length; i += 2) {
+            balances[i] = (i + 1) * 3L;
+            balances[i + 1] = -(i + 1) * 3L;
+        }
+
+        List<Debt> debts = new MinTransactionSettlementStrategy(0).settle(participants, balances);
+
+        assertSettles(participants, balances, debts);
+        assertTrue(debts.size() <= new SortedArraySettlementStrategy().settle(participants, balances).size());
+    }
+}
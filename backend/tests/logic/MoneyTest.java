@@ -0,0 +1,59 @@
+package logic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Money class tests")
+class MoneyTest {
+
+    @Test
+    @DisplayName("Check that decimal amounts are parsed to exact cents")
+    void testParse() {
+        assertEquals(12_00, Money.parse("12"));
+        assertEquals(12_50, Money.parse("12.5"));
+        assertEquals(12_34, Money.parse(" 12.34 "));
+        assertEquals(-5, Money.parse("-0.05"));
+        assertEquals(50, Money.parse(".5"));
+        assertEquals(7_00, Money.parse("+7."));
+        assertEquals(10, Money.parse("0.1"), "0.1 has no exact double, but is exactly 10 cents");
+    }
+
+    @Test
+    @DisplayName("Check that digits after the cents are rounded half up")
+    void testParseRounding() {
+        assertEquals(1_23, Money.parse("1.234"));
+        assertEquals(1_24, Money.parse("1.235"));
+        assertEquals(1_00, Money.parse("0.999"));
+    }
+
+    @Test
+    @DisplayName("Check that invalid amounts are rejected")
+    void testParseInvalid() {
+        assertThrows(NumberFormatException.class, () -> Money.parse(""));
+        assertThrows(NumberFormatException.class, () -> Money.parse("-"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("."));
+        assertThrows(NumberFormatException.class, () -> Money.parse("1,5"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("abc"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("99999999999999999999"));
+    }
+
+    @Test
+    @DisplayName("Check that cents are formatted with two fraction digits")
+    void testFormat() {
+        assertEquals("12.34", Money.format(12_34));
+        assertEquals("7.05", Money.format(7_05));
+        assertEquals("0.00", Money.format(0));
+        assertEquals("-0.05", Money.format(-5));
+        assertEquals("-120.50", Money.format(-120_50));
+    }
+
+    @Test
+    @DisplayName("Check the conversion between cents and decimal amounts")
+    void testConversion() {
+        assertEquals(10, Money.ofAmount(0.1));
+        assertEquals(-1_99, Money.ofAmount(-1.99));
+        assertEquals(12.5, Money.toAmount(12_50));
+    }
+}
@@ -35,10 +35,10 @@ class ParticipantTest {
     @DisplayName("Check if adding expense for participant works fine")
     void testAddExpense() {
         Category food = new Category("Food");
-        participant.addExpense(food, 100.0);
+        participant.addExpense(food, 100_00);
 
-        Map<Category, Double> expenses = participant.getExpenses();
-        assertEquals(100.0, expenses.get(food));
+        Map<Category, Long> expenses = participant.getExpenses();
+        assertEquals(100_00, expenses.get(food));
     }
 
     @Test
@@ -47,11 +47,11 @@ class ParticipantTest {
         Category food = new Category("Food");
         Category drinks = new Category("Drinks");
 
-        participant.addExpense(food, 50.0);
-        participant.addExpense(drinks, 30.0);
+        participant.addExpense(food, 50_00);
+        participant.addExpense(drinks, 30_00);
 
-        double totalExpense = participant.getTotalExpense();
-        assertEquals(80.0, totalExpense);
+        long totalExpense = participant.getTotalExpense();
+        assertEquals(80_00, totalExpense);
     }
 
     @Test
@@ -70,8 +70,8 @@ class ParticipantTest {
         Participant participant1 = new Participant("Elad");
         Participant participant2 = new Participant("Yosi");
 
-        participant1.setBalance(1.0);
-        participant2.setBalance(2.0);
+        participant1.setBalance(1_00);
+        participant2.setBalance(2_00);
 
         assertTrue(participant1.compareTo(participant2) < 0);
         assertTrue(participant2.compareTo(participant1) > 0);
@@ -83,8 +83,8 @@ class ParticipantTest {
         Participant participant1 = new Participant("Elad");
         Participant participant2 = new Participant("Yosi");
 
-        participant1.setBalance(1.0);
-        participant2.setBalance(1.0);
+        participant1.setBalance(1_00);
+        participant2.setBalance(1_00);
 
         assertEquals(0, participant1.compareTo(participant2));
         assertEquals(0, participant2.compareTo(participant1));
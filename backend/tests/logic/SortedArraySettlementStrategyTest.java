@@ -0,0 +1,84 @@
+package logic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SortedArraySettlementStrategy class tests")
+class SortedArraySettlementStrategyTest {
+
+    private static List<Participant> participantsWithBalances(long... balances) {
+        List<Participant> participants = new ArrayList<>();
+        for (int i = 0; i < balances.length; i++) {
+            Participant participant = new Participant("P" + i, "050" + i);
+            participant.setBalance(balances[i]);
+            participants.add(participant);
+        }
+        return participants;
+    }
+
+    private static void assertSameDebts(List<Debt> expected, List<Debt> actual) {
+        assertEquals(expected.size(), actual.size(), "Both strategies should produce the same number of debts");
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i).getDebtor(), actual.get(i).getDebtor());
+            assertSame(expected.get(i).getCreditor(), actual.get(i).getCreditor());
+            assertEquals(expected.get(i).getAmount(), actual.get(i).getAmount());
+        }
+    }
+
+    @Test
+    @DisplayName("Check that debts settle the balances from the smallest creditor and the largest debtor")
+    void testSettleSimpleBalances() {
+        List<Participant> participants = participantsWithBalances(40_00, 85_00, -15_00, -100_00, -10_00);
+
+        List<Debt> debts = new SortedArraySettlementStrategy().settle(participants);
+
+        assertEquals(4, debts.size());
+        assertSame(participants.get(3), debts.get(0).getDebtor());
+        assertSame(participants.get(0), debts.get(0).getCreditor());
+        assertEquals(40_00, debts.get(0).getAmount());
+        assertEquals(60_00, debts.get(1).getAmount());
+        assertEquals(15_00, debts.get(2).getAmount());
+        assertEquals(10_00, debts.get(3).getAmount());
+    }
+
+    @Test
+    @DisplayName("Check that the participants' balances are not modified")
+    void testSettleKeepsBalances() {
+        List<Participant> participants = participantsWithBalances(25_00, -25_00);
+
+        new SortedArraySettlementStrategy().settle(participants);
+
+        assertEquals(25_00, participants.get(0).getBalance());
+        assertEquals(-25_00, participants.get(1).getBalance());
+    }
+
+    @Test
+    @DisplayName("Check that random balances produce exactly the same debts as the greedy strategy")
+    void testSameDebtsAsGreedyStrategy() {
+        Random random = new Random(7);
+
+        for (int round = 0; round < 50; round++) {
+            int size = 2 + random.nextInt(200);
+            long[] balances = new long[size];
+            long sum = 0;
+            for (int i = 0; i < size - 1; i++) {
+                // a few repeated values exercise the tie order
+                balances[i] = random.nextInt(4) == 0 ? 12_50 : random.nextInt(20000) - 10000;
+                sum += balances[i];
+            }
+            balances[size - 1] = -sum;
+            List<Participant> participants = participantsWithBalances(balances);
+
+            List<Debt> expected = new GreedySettlementStrategy().settle(new ArrayList<>(participants));
+            List<Debt> actual = new SortedArraySettlementStrategy().settle(participants);
+
+            assertSameDebts(expected, actual);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package storage;
+
+import logic.Category;
+import logic.Event;
+import logic.Participant;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncEventRepositoryTest {
+
+    private static final String PHONE_PREFIX = "0592";
+
+    private AsyncEventRepository repository;
+    private final List<Event> events = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (repository != null) {
+            repository.close();
+        }
+        for (Event event : events) {
+            if (event.getId() != 0) {
+                EventDao.deleteEventById(event.getId());
+            }
+        }
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM participants WHERE phone LIKE ?")) {
+            stmt.setString(1, PHONE_PREFIX + "%");
+            stmt.executeUpdate();
+        }
+    }
+
+    private Event createEvent(int n) {
+        Event event = new Event("Async Test Event " + n, 0, LocalDate.of(1990, 6, 1));
+        Participant host = new Participant("Host " + n, PHONE_PREFIX + String.format("%06d", n));
+        Category food = new Category("Food");
+        event.addCategory(food);
+        event.addParticipant(host);
+        event.setConsumed(host, food, true);
+        event.setExpense(host, food, (n + 1) * 10_00L);
+        event.finalizeCalculations();
+        events.add(event);
+        return event;
+    }
+
+    @Test
+    @DisplayName("Saves and loads complete in the background")
+    void testSaveAndLoadAll() throws Exception {
+        repository = new AsyncEventRepository(4);
+        List<CompletableFuture<Boolean>> saves = new ArrayList<>();
+        for (int n = 0; n < 6; n++) {
+            saves.add(repository.save(createEvent(n)));
+        }
+        for (CompletableFuture<Boolean> save : saves) {
+            assertTrue(save.get(30, TimeUnit.SECONDS));
+        }
+
+        List<Integer> ids = events.stream().map(Event::getId).toList();
+        List<Event> loaded = repository.loadAll(ids).get(30, TimeUnit.SECONDS);
+
+        assertEquals(events.size(), loaded.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(events.get(i).getEventName(), loaded.get(i).getEventName());
+            assertEquals((i + 1) * 10_00L, loaded.get(i).getParticipants().get(0).getTotalExpense());
+        }
+        assertNull(repository.load(-1).get(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("No more calls run at once than there are permits")
+    void testConcurrencyIsBounded() throws Exception {
+        repository = new AsyncEventRepository(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        // the first two calls only finish once both of them run
+        CountDownLatch bothRunning = new CountDownLatch(2);
+
+        List<CompletableFuture<Boolean>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(repository.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                bothRunning.countDown();
+                boolean overlapped = bothRunning.await(30, TimeUnit.SECONDS);
+                Thread.sleep(5);
+                running.decrementAndGet();
+                return overlapped;
+            }));
+        }
+        for (CompletableFuture<Boolean> call : calls) {
+            assertTrue(call.get(30, TimeUnit.SECONDS));
+        }
+
+        assertEquals(2, maxRunning.get());
+        assertEquals(2, repository.availablePermits());
+    }
+
+    @Test
+    @DisplayName("A cancelled call that has not started never runs")
+    void testCancelledCallDoesNotRun() throws Exception {
+        repository = new AsyncEventRepository(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        CompletableFuture<Boolean> blocker = repository.submit(() -> {
+            started.countDown();
+            return release.await(30, TimeUnit.SECONDS);
+        });
+        assertTrue(started.await(30, TimeUnit.SECONDS));
+
+        CompletableFuture<Boolean> waiting = repository.submit(() -> ran.getAndSet(true));
+        assertTrue(waiting.cancel(true));
+        release.countDown();
+
+        assertTrue(blocker.get(30, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, waiting::join);
+        // a later call still gets the permit
+        assertEquals(7, repository.submit(() -> 7).get(30, TimeUnit.SECONDS));
+        assertFalse(ran.get());
+    }
+
+    @Test
+    @DisplayName("A failing call completes its future exceptionally")
+    void testFailureCompletesExceptionally() {
+        repository = new AsyncEventRepository(1);
+        CompletableFuture<Object> failing = repository.submit(() -> {
+            throw new IllegalStateException("broken");
+        });
+
+        Exception e = assertThrows(Exception.class, () -> failing.get(30, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(1, repository.availablePermits());
+    }
+}
@@ -0,0 +1,158 @@
+package storage;
+
+import logic.CalculationEngine;
+import logic.CalculationResult;
+import logic.Category;
+import logic.Event;
+import logic.Participant;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BalanceDaoTest {
+
+    private static final String PHONE_PREFIX = "0591";
+
+    private final List<Event> events = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        for (Event event : events) {
+            if (event.getId() != 0) {
+                EventDao.deleteEventById(event.getId());
+            }
+        }
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM participants WHERE phone LIKE ?")) {
+            stmt.setString(1, PHONE_PREFIX + "%");
+            stmt.executeUpdate();
+        }
+    }
+
+    private Event newEvent(String name, long fee, int participantCount, int categoryCount) {
+        Event event = new Event(name, fee, LocalDate.of(1990, 7, 1));
+        for (int c = 0; c < categoryCount; c++) {
+            event.addCategory(new Category("Balance Parity " + c));
+        }
+        for (int p = 0; p < participantCount; p++) {
+            event.addParticipant(new Participant("Guest " + p,
+                    PHONE_PREFIX + String.format("%02d%04d", events.size(), p)));
+        }
+        events.add(event);
+        return event;
+    }
+
+    /**
+     * Saves the event, calculates it in the database and with the Java engine on the loaded
+     * event, and asserts that both agree to the cent.
+     */
+    private static BalanceDao.EventBalances assertParity(Event event) {
+        event.finalizeCalculations();
+        assertTrue(EventRepository.save(event));
+
+        Event loaded = EventDao.loadEventById(event.getId());
+        assertNotNull(loaded);
+        CalculationResult expected = new CalculationEngine().calculateResult(loaded);
+        BalanceDao.EventBalances actual = BalanceDao.calculateBalances(event.getId());
+        assertNotNull(actual);
+
+        assertEquals(expected.getParticipantCount(), actual.getParticipantCount());
+        for (int p = 0; p < actual.getParticipantCount(); p++) {
+            assertEquals(expected.getParticipant(p).getId(), actual.getParticipantId(p));
+            assertEquals(expected.getTotalConsumed(p), actual.getTotalConsumed(p), "consumed of participant " + p);
+            assertEquals(expected.getBalance(p), actual.getBalance(p), "balance of participant " + p);
+        }
+
+        assertEquals(expected.getCategoryCount(), actual.getCategoryCount());
+        for (int c = 0; c < actual.getCategoryCount(); c++) {
+            Category category = expected.getCategory(c);
+            assertEquals(category.getId(), actual.getCategoryId(c));
+            assertEquals(loaded.getTotalExpensePerCategory().getOrDefault(category, 0L), actual.getTotalExpense(c));
+            assertEquals(expected.getAdjustedExpense(c), actual.getAdjustedExpense(c), "adjusted of category " + c);
+        }
+        return actual;
+    }
+
+    @Test
+    @DisplayName("A small event is calculated in the database like by hand")
+    void testSmallEvent() {
+        Event event = newEvent("Balance Small Event", 10_00, 2, 2);
+        Participant alice = event.getParticipants().get(0);
+        Participant bob = event.getParticipants().get(1);
+        Category food = event.getCategories().get(0);
+        Category drinks = event.getCategories().get(1);
+        event.setConsumed(alice, food, true);
+        event.setConsumed(bob, food, true);
+        event.setConsumed(bob, drinks, true);
+        event.setExpense(alice, food, 90_00);
+        event.setExpense(bob, drinks, 30_00);
+
+        BalanceDao.EventBalances balances = assertParity(event);
+
+        // fees of 20 are spread 3:1, so food costs 75 and drinks 25
+        int foodOrdinal = balances.getCategoryId(0) == food.getId() ? 0 : 1;
+        assertEquals(75_00, balances.getAdjustedExpense(foodOrdinal));
+        assertEquals(25_00, balances.getAdjustedExpense(1 - foodOrdinal));
+        long total = 0;
+        for (int p = 0; p < balances.getParticipantCount(); p++) {
+            total += balances.getBalance(p);
+        }
+        assertEquals(0, total);
+    }
+
+    @Test
+    @DisplayName("Random events give the same cents in the database and in Java")
+    void testRandomEventsMatchEngine() {
+        Random random = new Random(25);
+        for (int n = 0; n < 8; n++) {
+            Event event = newEvent("Balance Random Event " + n, random.nextInt(50_00), 3 + random.nextInt(12),
+                    1 + random.nextInt(9));
+            for (Participant participant : event.getParticipants()) {
+                for (Category category : event.getCategories()) {
+                    if (random.nextInt(3) > 0) {
+                        event.setConsumed(participant, category, true);
+                    }
+                    if (random.nextInt(4) == 0) {
+                        event.setExpense(participant, category, 1 + random.nextInt(100_000));
+                    }
+                }
+            }
+            assertParity(event);
+        }
+    }
+
+    @Test
+    @DisplayName("Events without expenses, with unconsumed categories or fees above the expenses match too")
+    void testEdgeCases() {
+        Event empty = newEvent("Balance Empty Event", 15_00, 3, 2);
+        empty.setConsumed(empty.getParticipants().get(0), empty.getCategories().get(0), true);
+        assertParity(empty);
+
+        Event unconsumed = newEvent("Balance Unconsumed Event", 0, 2, 3);
+        unconsumed.setExpense(unconsumed.getParticipants().get(0), unconsumed.getCategories().get(2), 12_34);
+        unconsumed.setConsumed(unconsumed.getParticipants().get(1), unconsumed.getCategories().get(0), true);
+        assertParity(unconsumed);
+
+        Event subsidised = newEvent("Balance Subsidised Event", 40_00, 4, 2);
+        for (Participant participant : subsidised.getParticipants()) {
+            subsidised.setConsumed(participant, subsidised.getCategories().get(0), true);
+        }
+        subsidised.setExpense(subsidised.getParticipants().get(0), subsidised.getCategories().get(0), 100_01);
+        subsidised.setExpense(subsidised.getParticipants().get(1), subsidised.getCategories().get(1), 3_33);
+        assertParity(subsidised);
+    }
+
+    @Test
+    @DisplayName("A missing event has no balances")
+    void testMissingEvent() {
+        assertNull(BalanceDao.calculateBalances(-1));
+    }
+}
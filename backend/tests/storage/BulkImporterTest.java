@@ -0,0 +1,169 @@
+package storage;
+
+import logic.Category;
+import logic.Event;
+import logic.Participant;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkImporterTest {
+
+    private static final String PHONE_PREFIX = "0594";
+    private static final String CATEGORY_PREFIX = "Bulk Import Category ";
+    private static final int PARTICIPANTS = 200;
+    private static final int CATEGORIES = 50;
+
+    private Event event;
+    private final List<Integer> participantIds = new ArrayList<>();
+    private final List<Integer> categoryIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        event = new Event("Bulk Import Event", 0, LocalDate.of(1990, 5, 1));
+        assertTrue(EventDao.insertOrUpdateEvent(event));
+
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(String.format("""
+                    INSERT INTO participants (name, phone, email)
+                    SELECT 'Guest ' || n, '%s' || lpad(n::text, 6, '0'), '' FROM generate_series(1, %d) n
+                    RETURNING id
+                    """, PHONE_PREFIX, PARTICIPANTS))) {
+                while (rs.next()) {
+                    participantIds.add(rs.getInt(1));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery(String.format("""
+                    INSERT INTO categories (name)
+                    SELECT '%s' || n FROM generate_series(1, %d) n
+                    RETURNING id
+                    """, CATEGORY_PREFIX, CATEGORIES))) {
+                while (rs.next()) {
+                    categoryIds.add(rs.getInt(1));
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        EventDao.deleteEventById(event.getId());
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement participants = conn.prepareStatement("DELETE FROM participants WHERE phone LIKE ?");
+             PreparedStatement categories = conn.prepareStatement("DELETE FROM categories WHERE name LIKE ?")) {
+            participants.setString(1, PHONE_PREFIX + "%");
+            participants.executeUpdate();
+            categories.setString(1, CATEGORY_PREFIX + "%");
+            categories.executeUpdate();
+        }
+    }
+
+    /**
+     * Produces one row per participant and category on demand, without holding them in a list.
+     */
+    private <T> Iterable<T> everyPair(IntFunction<T> row) {
+        return () -> new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < PARTICIPANTS * CATEGORIES;
+            }
+
+            @Override
+            public T next() {
+                return row.apply(next++);
+            }
+        };
+    }
+
+    private Iterable<BulkImporter.Expense> expenses() {
+        return everyPair(i -> new BulkImporter.Expense(participantIds.get(i / CATEGORIES),
+                categoryIds.get(i % CATEGORIES), i + 1));
+    }
+
+    private Iterable<BulkImporter.Consumption> consumptions() {
+        return everyPair(i -> new BulkImporter.Consumption(participantIds.get(i / CATEGORIES),
+                categoryIds.get(i % CATEGORIES)));
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, event.getId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private void assertImported() throws SQLException {
+        long pairs = (long) PARTICIPANTS * CATEGORIES;
+        assertEquals(PARTICIPANTS, queryLong("SELECT count(*) FROM event_participants WHERE event_id = ?"));
+        assertEquals(pairs, queryLong("SELECT count(*) FROM expenses WHERE event_id = ?"));
+        assertEquals(pairs, queryLong("SELECT count(*) FROM consumptions WHERE event_id = ?"));
+        // amounts 0.01 .. pairs/100, read back in cents
+        assertEquals(pairs * (pairs + 1) / 2, queryLong("SELECT (SUM(amount) * 100)::bigint FROM expenses WHERE event_id = ?"));
+    }
+
+    @Test
+    @DisplayName("Rows are streamed into the tables with COPY")
+    void testImportWithCopy() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            assertNotNull(BulkImporter.copyManager(conn), "Pooled connections should expose the COPY API");
+        }
+
+        assertTrue(BulkImporter.importEvent(event.getId(), participantIds, expenses(), consumptions()));
+        assertImported();
+        assertEquals(CATEGORIES, queryLong("SELECT count(*) FROM event_categories WHERE event_id = ?"));
+
+        Event loaded = EventDao.loadEventById(event.getId());
+        assertNotNull(loaded);
+        assertEquals(PARTICIPANTS, loaded.getParticipants().size());
+        Participant first = IdentityMap.ofParticipants(loaded.getParticipants()).get(participantIds.get(0));
+        Category firstCategory = IdentityMap.ofCategories(loaded.getCategories()).get(categoryIds.get(0));
+        assertEquals(1, first.getExpenses().get(firstCategory));
+        assertEquals(CATEGORIES, first.getConsumedCategories().size());
+    }
+
+    @Test
+    @DisplayName("Without COPY the rows are inserted in batches")
+    void testImportWithBatchFallback() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            assertEquals(PARTICIPANTS, BulkImporter.importParticipants(conn, null, event.getId(), participantIds));
+            assertEquals((long) PARTICIPANTS * CATEGORIES, BulkImporter.importExpenses(conn, null, event.getId(), expenses()));
+            assertEquals((long) PARTICIPANTS * CATEGORIES,
+                    BulkImporter.importConsumptions(conn, null, event.getId(), consumptions()));
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+        assertImported();
+    }
+
+    @Test
+    @DisplayName("A failing import writes nothing")
+    void testFailedImportRollsBack() throws SQLException {
+        List<BulkImporter.Expense> duplicates = List.of(
+                new BulkImporter.Expense(participantIds.get(0), categoryIds.get(0), 10_00),
+                new BulkImporter.Expense(participantIds.get(0), categoryIds.get(0), 20_00));
+
+        assertFalse(BulkImporter.importEvent(event.getId(), participantIds, duplicates, List.of()));
+
+        assertEquals(0, queryLong("SELECT count(*) FROM event_participants WHERE event_id = ?"));
+        assertEquals(0, queryLong("SELECT count(*) FROM expenses WHERE event_id = ?"));
+    }
+}
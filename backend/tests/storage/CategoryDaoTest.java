@@ -17,7 +17,7 @@ public class CategoryDaoTest {
 
     @BeforeEach
     void setUp() {
-        event = new Event("Category Test Event", 10.0, LocalDate.of(2025, 4, 21));
+        event = new Event("Category Test Event", 10_00, LocalDate.of(2025, 4, 21));
 
         food = new Category("Food");
         drinks = new Category("Drinks");
@@ -49,7 +49,7 @@ public class CategoryDaoTest {
     }
 
     @Test
-    @DisplayName("findCategoryById returns correct category")
+    @DisplayName("IdentityMap returns the loaded category by ID")
     void testFindCategoryById() {
         List<Category> loaded = CategoryDao.getCategoriesForEvent(event.getId());
         assertFalse(loaded.isEmpty(), "Loaded category list should not be empty");
@@ -57,17 +57,50 @@ public class CategoryDaoTest {
         Category expected = loaded.get(0);
         int knownId = expected.getId();
 
-        Category found = CategoryDao.findCategoryById(loaded, knownId);
+        Category found = IdentityMap.ofCategories(loaded).get(knownId);
         assertNotNull(found, "Category should be found");
         assertEquals(expected.getId(), found.getId());
         assertEquals(expected.getName(), found.getName());
     }
 
     @Test
-    @DisplayName("findCategoryById returns null for unknown ID")
+    @DisplayName("IdentityMap returns null for an unknown category ID")
     void testFindCategoryById_notFound() {
         List<Category> loaded = CategoryDao.getCategoriesForEvent(event.getId());
-        Category notFound = CategoryDao.findCategoryById(loaded, -999);
+        Category notFound = IdentityMap.ofCategories(loaded).get(-999);
         assertNull(notFound, "Should return null for nonexistent category ID");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Saving categories with known names reuses their IDs")
+    void testSaveEventCategoriesReusesExistingNames() {
+        Event other = new Event("Other Category Event", 0, LocalDate.of(2025, 4, 22));
+        Category foodAgain = new Category("Food");
+        Category dessert = new Category("Dessert " + System.nanoTime());
+        other.addCategory(foodAgain);
+        other.addCategory(dessert);
+
+        EventDao.insertOrUpdateEvent(other);
+        try {
+            CategoryDao.saveEventCategories(other);
+
+            assertEquals(food.getId(), foodAgain.getId(), "Same name should resolve to the same category");
+            assertTrue(dessert.getId() > 0, "New name should be inserted");
+            assertEquals(2, CategoryDao.getCategoriesForEvent(other.getId()).size());
+        } finally {
+            EventDao.deleteEventById(other.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Renaming a category to an existing name links the existing category")
+    void testRenameToExistingNameResolvesExistingCategory() {
+        int foodId = food.getId();
+        food.setName("Drinks");
+
+        CategoryDao.saveEventCategories(event);
+
+        assertEquals(drinks.getId(), food.getId());
+        assertNotEquals(foodId, food.getId());
+    }
+}
@@ -0,0 +1,187 @@
+package storage;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    /**
+     * Creates a pool for the local database with the given size and lifetimes.
+     */
+    private static ConnectionPool createPool(int size, long idleTimeoutMillis, long maxLifetimeMillis, long borrowTimeoutMillis) {
+        DatabaseConfig local = DatabaseConfig.fromEnvironment();
+        return new ConnectionPool(new DatabaseConfig(local.getUrl(), local.getUser(), local.getPassword(),
+                size, idleTimeoutMillis, maxLifetimeMillis, borrowTimeoutMillis));
+    }
+
+    private static int backendPid(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT pg_backend_pid()")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    @DisplayName("A returned connection is reused by the next borrow")
+    void testConnectionIsReused() throws SQLException {
+        pool = createPool(2, 60_000, 60_000, 1_000);
+
+        int firstPid;
+        try (Connection conn = pool.getConnection()) {
+            firstPid = backendPid(conn);
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertEquals(firstPid, backendPid(conn));
+        }
+
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(1, stats.getCreated());
+        assertEquals(2, stats.getBorrowed());
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getIdle());
+    }
+
+    @Test
+    @DisplayName("Borrowing from an exhausted pool times out")
+    void testBorrowTimesOutWhenPoolIsExhausted() throws SQLException {
+        pool = createPool(1, 60_000, 60_000, 100);
+
+        int heldPid;
+        try (Connection held = pool.getConnection()) {
+            heldPid = backendPid(held);
+            assertEquals(1, pool.getStats().getActive());
+            assertThrows(SQLException.class, () -> pool.getConnection());
+        }
+
+        // the permit is free again once the connection is returned
+        try (Connection conn = pool.getConnection()) {
+            assertEquals(heldPid, backendPid(conn));
+            assertEquals(1, pool.getStats().getActive());
+        }
+        assertEquals(2, pool.getStats().getBorrowed());
+    }
+
+    @Test
+    @DisplayName("A closed connection rejects further use")
+    void testClosedConnectionRejectsUse() throws SQLException {
+        pool = createPool(1, 60_000, 60_000, 1_000);
+
+        Connection conn = pool.getConnection();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+        assertDoesNotThrow(conn::close);
+        assertEquals(0, pool.getStats().getActive());
+    }
+
+    @Test
+    @DisplayName("An open transaction is rolled back when the connection is returned")
+    void testReturnRollsBackOpenTransaction() throws SQLException {
+        pool = createPool(1, 60_000, 60_000, 1_000);
+
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TEMP TABLE pool_rollback_test (id int)");
+            }
+        }
+
+        try (Connection conn = pool.getConnection()) {
+            assertTrue(conn.getAutoCommit());
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT to_regclass('pool_rollback_test') IS NULL")) {
+                rs.next();
+                assertTrue(rs.getBoolean(1));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Connections past their max lifetime are replaced")
+    void testExpiredConnectionIsReplaced() throws Exception {
+        pool = createPool(1, 60_000, 1, 1_000);
+
+        int firstPid;
+        try (Connection conn = pool.getConnection()) {
+            firstPid = backendPid(conn);
+        }
+        Thread.sleep(5);
+        try (Connection conn = pool.getConnection()) {
+            assertNotEquals(firstPid, backendPid(conn));
+        }
+        assertEquals(2, pool.getStats().getCreated());
+    }
+
+    @Test
+    @DisplayName("A broken idle connection fails validation and is replaced")
+    void testInvalidConnectionIsReplacedOnBorrow() throws SQLException {
+        pool = createPool(1, 60_000, 60_000, 1_000);
+
+        try (Connection conn = pool.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SELECT 1");
+            }
+        }
+
+        // end the idle session from another connection, as a database restart would
+        int idlePid;
+        try (Connection conn = pool.getConnection()) {
+            idlePid = backendPid(conn);
+        }
+        try (Connection killer = java.sql.DriverManager.getConnection(
+                DatabaseConfig.fromEnvironment().getUrl(), DatabaseConfig.fromEnvironment().getUser(),
+                DatabaseConfig.fromEnvironment().getPassword());
+             Statement stmt = killer.createStatement()) {
+            stmt.execute("SELECT pg_terminate_backend(" + idlePid + ")");
+        }
+
+        try (Connection conn = pool.getConnection()) {
+            assertNotEquals(idlePid, backendPid(conn));
+        }
+        assertEquals(1, pool.getStats().getEvicted());
+    }
+
+    @Test
+    @DisplayName("Idle connections are evicted after the idle timeout")
+    void testEvictIdleClosesStaleConnections() throws Exception {
+        pool = createPool(2, 1, 60_000, 1_000);
+
+        try (Connection first = pool.getConnection(); Connection second = pool.getConnection()) {
+            assertNotEquals(backendPid(first), backendPid(second));
+            assertEquals(2, pool.getStats().getActive());
+        }
+        Thread.sleep(5);
+        pool.evictIdle();
+
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(0, stats.getIdle());
+        assertEquals(2, stats.getEvicted());
+    }
+
+    @Test
+    @DisplayName("DatabaseManager hands out pooled connections")
+    void testDatabaseManagerUsesPool() throws SQLException {
+        long borrowedBefore = DatabaseManager.getPoolStats().getBorrowed();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+        assertEquals(borrowedBefore + 1, DatabaseManager.getPoolStats().getBorrowed());
+    }
+}
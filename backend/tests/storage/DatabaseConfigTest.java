@@ -0,0 +1,100 @@
+package storage;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatabaseConfigTest {
+
+    @Test
+    @DisplayName("Unset settings keep the local defaults")
+    void testDefaults() {
+        DatabaseConfig config = DatabaseConfig.from(name -> null, name -> null);
+
+        assertEquals("jdbc:postgresql://localhost:5432/expense_db", config.getUrl());
+        assertEquals("emmanuel", config.getUser());
+        assertEquals(10, config.getPoolSize());
+        assertEquals(300_000, config.getIdleTimeoutMillis());
+        assertEquals(1_800_000, config.getMaxLifetimeMillis());
+        assertEquals(30_000, config.getBorrowTimeoutMillis());
+        assertEquals(1000, config.getFetchSize());
+    }
+
+    @Test
+    @DisplayName("Properties take precedence over environment variables")
+    void testPropertyOverridesEnvironment() {
+        Map<String, String> properties = Map.of("expense.db.pool.size", "4");
+        Map<String, String> environment = Map.of(
+                "EXPENSE_DB_POOL_SIZE", "20",
+                "EXPENSE_DB_URL", "jdbc:postgresql://db:5432/expense_db",
+                "EXPENSE_DB_POOL_IDLE_TIMEOUT_MS", "1000");
+
+        DatabaseConfig config = DatabaseConfig.from(properties::get, environment::get);
+
+        assertEquals(4, config.getPoolSize());
+        assertEquals("jdbc:postgresql://db:5432/expense_db", config.getUrl());
+        assertEquals(1000, config.getIdleTimeoutMillis());
+    }
+
+    @Test
+    @DisplayName("Invalid numbers and pool sizes are rejected")
+    void testInvalidSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DatabaseConfig.from(Map.of("expense.db.pool.size", "ten")::get, name -> null));
+        assertThrows(IllegalArgumentException.class,
+                () -> DatabaseConfig.from(Map.of("expense.db.pool.size", "0")::get, name -> null));
+        assertThrows(IllegalArgumentException.class,
+                () -> DatabaseConfig.from(Map.of("expense.db.fetchSize", "0")::get, name -> null));
+    }
+
+    @Test
+    @DisplayName("Copies with other settings keep the rest of the configuration")
+    void testWithCopies() {
+        DatabaseConfig base = new DatabaseConfig("jdbc:postgresql://db:5432/expense_db", "app", "secret",
+                4, 1_000, 2_000, 3_000);
+        assertEquals(1000, base.getFetchSize());
+        assertFalse(base.getWriteBehind().isEnabled());
+
+        WriteBehindSaver.Options writeBehind = new WriteBehindSaver.Options(true, 10, 20, 5, false);
+        DatabaseConfig copy = base.withCache(50, 60_000).withWriteBehind(writeBehind).withFetchSize(250);
+
+        assertEquals("jdbc:postgresql://db:5432/expense_db", copy.getUrl());
+        assertEquals(4, copy.getPoolSize());
+        assertEquals(3_000, copy.getBorrowTimeoutMillis());
+        assertEquals(50, copy.getCacheSize());
+        assertEquals(60_000, copy.getCacheTtlMillis());
+        assertSame(writeBehind, copy.getWriteBehind());
+        assertEquals(250, copy.getFetchSize());
+        assertEquals(1000, base.getFetchSize());
+        assertThrows(IllegalArgumentException.class, () -> base.withFetchSize(0));
+    }
+
+    @Test
+    @DisplayName("Write-behind settings are read and validated")
+    void testWriteBehindSettings() {
+        WriteBehindSaver.Options defaults = DatabaseConfig.from(name -> null, name -> null).getWriteBehind();
+        assertFalse(defaults.isEnabled());
+        assertTrue(defaults.isFlushOnExit());
+
+        Map<String, String> environment = Map.of(
+                "EXPENSE_DB_WRITE_BEHIND_ENABLED", "true",
+                "EXPENSE_DB_WRITE_BEHIND_DELAY_MS", "100",
+                "EXPENSE_DB_WRITE_BEHIND_MAX_LAG_MS", "500",
+                "EXPENSE_DB_WRITE_BEHIND_MAX_PENDING", "4",
+                "EXPENSE_DB_WRITE_BEHIND_FLUSH_ON_EXIT", "FALSE");
+        WriteBehindSaver.Options options = DatabaseConfig.from(name -> null, environment::get).getWriteBehind();
+
+        assertTrue(options.isEnabled());
+        assertEquals(100, options.getDelayMillis());
+        assertEquals(500, options.getMaxLagMillis());
+        assertEquals(4, options.getMaxPending());
+        assertFalse(options.isFlushOnExit());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> DatabaseConfig.from(Map.of("expense.db.writeBehind.enabled", "yes")::get, name -> null));
+        assertThrows(IllegalArgumentException.class,
+                () -> DatabaseConfig.from(Map.of("expense.db.writeBehind.maxLagMs", "1000")::get, name -> null));
+    }
+}
@@ -22,7 +22,7 @@ public class DebtDaoTest {
     @BeforeEach
     void setUp() {
 
-        event = new Event("Debt Test Event", 0.0, LocalDate.of(2025, 4, 21));
+        event = new Event("Debt Test Event", 0, LocalDate.of(2025, 4, 21));
 
         alice = new Participant("Alice");
         alice.setPhoneNumber("0501234567");
@@ -43,7 +43,7 @@ public class DebtDaoTest {
         List<Category> consumedCategories = new ArrayList<>();
         consumedCategories.add(food);
         bob.setConsumedCategories(consumedCategories);
-        alice.addExpense(food, 100.0);
+        alice.addExpense(food, 100_00);
 
 
         EventDao.insertOrUpdateEvent(event);
@@ -71,13 +71,13 @@ public class DebtDaoTest {
         Debt debt = debts.get(0);
         assertEquals(bob.getId(), debt.getDebtor().getId());
         assertEquals(alice.getId(), debt.getCreditor().getId());
-        assertEquals(100.0, debt.getAmount(), 0.01);
+        assertEquals(100_00, debt.getAmount());
     }
 
     @Test
     @DisplayName("getDebtsForEvent returns empty list if no debts exist")
     void testGetDebtsForEvent_empty() {
-        Event newEvent = new Event("Empty Debts", 0.0, LocalDate.of(2025, 4, 21));
+        Event newEvent = new Event("Empty Debts", 0, LocalDate.of(2025, 4, 21));
         EventDao.insertOrUpdateEvent(newEvent);
 
         List<Debt> debts = DebtDao.getDebtsForEvent(newEvent.getId(), List.of());
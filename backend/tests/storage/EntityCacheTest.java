@@ -0,0 +1,78 @@
+package storage;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    @DisplayName("The least recently used entry is evicted when the cache is full")
+    void testLeastRecentlyUsedIsEvicted() {
+        EntityCache<String, Integer> cache = new EntityCache<>(2, 60_000, now::get);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertEquals(1, cache.get("a"));
+
+        cache.put("c", 3);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.get("c"));
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    @DisplayName("Entries expire after their time to live")
+    void testEntriesExpire() {
+        EntityCache<String, Integer> cache = new EntityCache<>(10, 1_000, now::get);
+        cache.put("a", 1);
+
+        now.set(999_000_000L);
+        assertEquals(1, cache.get("a"));
+        now.set(1_000_000_000L);
+        assertNull(cache.get("a"));
+
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    @DisplayName("Hits and misses are counted")
+    void testStats() {
+        EntityCache<String, Integer> cache = new EntityCache<>(10, 60_000, now::get);
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+
+        EntityCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.getSize());
+        assertEquals(3, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.75, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Removed and cleared entries are no longer found")
+    void testRemoveAndClear() {
+        EntityCache<String, Integer> cache = new EntityCache<>(10, 60_000, now::get);
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        assertEquals(1, cache.remove("a"));
+        assertNull(cache.remove("a"));
+        assertNull(cache.get("a"));
+
+        cache.clear();
+        assertNull(cache.get("b"));
+        assertEquals(0, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> new EntityCache<String, Integer>(0, 1_000));
+    }
+}
@@ -1,10 +1,15 @@
 package storage;
 
+import logic.Category;
+import logic.Debt;
 import logic.Event;
+import logic.Participant;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 import java.time.LocalDate;
@@ -22,8 +27,8 @@ public class EventDaoTest {
     @BeforeEach
     void setUp() {
         // Arrange
-        event1 = new Event("Hiking", 10.0, LocalDate.of(2023, 8, 5));
-        event2 = new Event("Picnic", 15.0, LocalDate.of(2024, 3, 5));
+        event1 = new Event("Hiking", 10_00, LocalDate.of(2023, 8, 5));
+        event2 = new Event("Picnic", 15_00, LocalDate.of(2024, 3, 5));
         success = EventDao.insertOrUpdateEvent(event1);
         EventDao.insertOrUpdateEvent(event2);
     }
@@ -73,7 +78,7 @@ public class EventDaoTest {
         assertNotNull(loaded, "Loaded event should not be null");
         assertEquals(event2.getId(), loaded.getId(), "Loaded event ID should match");
         assertEquals(event2.getEventName(), loaded.getEventName(), "Event name should match");
-        assertEquals(event2.getParticipationFee(), loaded.getParticipationFee(), 0.001, "Participation fee should match");
+        assertEquals(event2.getParticipationFee(), loaded.getParticipationFee(), "Participation fee should match");
         assertEquals(event2.getDate(), loaded.getDate(), "Event date should match");
     }
 
@@ -101,4 +106,132 @@ public class EventDaoTest {
 
         assertFalse(result, "Deleting a non-existent event should return false");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Load event by ID restores all rows and shares category instances")
+    void testLoadEventByIdRestoresAllRows() {
+        Participant alice = new Participant("Alice", "0509970001");
+        alice.setEmail("alice@example.com");
+        Participant bob = new Participant("Bob", "0509970002");
+        Category food = new Category("Food");
+        event1.addCategory(food);
+        event1.addParticipant(alice);
+        event1.addParticipant(bob);
+        event1.setConsumed(alice, food, true);
+        event1.setConsumed(bob, food, true);
+        event1.setExpense(alice, food, 40_00);
+        event1.finalizeCalculations();
+        assertTrue(EventRepository.save(event1));
+
+        Event loaded = EventDao.loadEventById(event1.getId());
+
+        assertNotNull(loaded);
+        assertEquals(2, loaded.getParticipants().size());
+        assertEquals(1, loaded.getCategories().size());
+        Category loadedFood = loaded.getCategories().get(0);
+
+        Participant loadedAlice = IdentityMap.ofParticipants(loaded.getParticipants()).get(alice.getId());
+        Participant loadedBob = IdentityMap.ofParticipants(loaded.getParticipants()).get(bob.getId());
+        assertEquals("alice@example.com", loadedAlice.getEmail());
+        assertEquals("", loadedBob.getEmail());
+        assertEquals(40_00, loadedAlice.getExpenses().get(loadedFood));
+        assertSame(loadedFood, loadedBob.getConsumedCategories().get(0),
+                "Participants should refer to the event's own category objects");
+
+        assertEquals(1, loaded.getDebts().size());
+        Debt debt = loaded.getDebts().get(0);
+        assertSame(loadedBob, debt.getDebtor());
+        assertSame(loadedAlice, debt.getCreditor());
+        assertEquals(event1.getDebts().get(0).getAmount(), debt.getAmount());
+    }
+
+    @Test
+    @DisplayName("Keyset pages list every matching event once, newest first")
+    void testListEventsPagesThroughAllEvents() {
+        List<Event> listed = new ArrayList<>();
+        try {
+            for (int i = 0; i < 25; i++) {
+                // pairs of events share a date, so the ID has to break the tie
+                Event event = new Event("Keyset Test " + i, 0, LocalDate.of(1980, 1, 1).plusDays(i / 2));
+                assertTrue(EventDao.insertOrUpdateEvent(event));
+                listed.add(event);
+            }
+            EventDao.EventFilter filter = new EventDao.EventFilter("keyset test", null, null);
+
+            List<Integer> ids = new ArrayList<>();
+            List<Boolean> hasMore = new ArrayList<>();
+            EventDao.EventSummary after = null;
+            do {
+                EventDao.EventPage page = EventDao.listEvents(filter, after, 10);
+                page.getEvents().forEach(summary -> ids.add(summary.getId()));
+                hasMore.add(page.hasMore());
+                after = page.hasMore() ? page.getLast() : null;
+            } while (after != null);
+
+            assertEquals(List.of(true, true, false), hasMore);
+            List<Integer> expected = listed.stream()
+                    .sorted(Comparator.comparing(Event::getDate).thenComparing(Event::getId).reversed())
+                    .map(Event::getId)
+                    .toList();
+            assertEquals(expected, ids);
+        } finally {
+            listed.forEach(event -> EventDao.deleteEventById(event.getId()));
+        }
+    }
+
+    @Test
+    @DisplayName("Listing filters by name prefix and date range")
+    void testListEventsFilters() {
+        EventDao.EventPage byName = EventDao.listEvents(new EventDao.EventFilter("pic", null, null), null, 10);
+        assertTrue(byName.getEvents().stream().anyMatch(summary -> summary.getId() == event2.getId()));
+        assertTrue(byName.getEvents().stream().allMatch(summary -> summary.getName().toLowerCase().startsWith("pic")));
+
+        EventDao.EventPage byDate = EventDao.listEvents(
+                new EventDao.EventFilter(null, LocalDate.of(2023, 8, 5), LocalDate.of(2023, 8, 5)), null, 10);
+        assertTrue(byDate.getEvents().stream().anyMatch(summary -> summary.getId() == event1.getId()));
+        assertTrue(byDate.getEvents().stream().noneMatch(summary -> summary.getId() == event2.getId()));
+
+        // LIKE wildcards in the prefix match literally
+        assertTrue(EventDao.listEvents(new EventDao.EventFilter("%", null, null), null, 10).getEvents().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Listed events carry their participant count and total spend")
+    void testListEventsSummaryFields() {
+        Participant alice = new Participant("Alice", "0509970001");
+        Participant bob = new Participant("Bob", "0509970002");
+        Category food = new Category("Food");
+        event1.addCategory(food);
+        event1.addParticipant(alice);
+        event1.addParticipant(bob);
+        event1.setExpense(alice, food, 40_00);
+        event1.setExpense(bob, food, 2_50);
+        event1.finalizeCalculations();
+        assertTrue(EventRepository.save(event1));
+
+        EventDao.EventPage page = EventDao.listEvents(
+                new EventDao.EventFilter("Hiking", LocalDate.of(2023, 8, 5), LocalDate.of(2023, 8, 5)), null, 10);
+        EventDao.EventSummary summary = page.getEvents().stream()
+                .filter(listed -> listed.getId() == event1.getId())
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(LocalDate.of(2023, 8, 5), summary.getDate());
+        assertEquals(2, summary.getParticipantCount());
+        assertEquals(42_50, summary.getTotalSpend());
+        assertThrows(IllegalArgumentException.class,
+                () -> EventDao.listEvents(EventDao.EventFilter.all(), new EventDao.EventSummary(1, "No date"), 10));
+    }
+
+    @Test
+    @DisplayName("Several events are loaded in the order of their IDs, with null for missing ones")
+    void testLoadEventsById() {
+        List<Event> loaded = EventDao.loadEventsById(List.of(event2.getId(), -1, event1.getId()));
+
+        assertEquals(3, loaded.size());
+        assertEquals("Picnic", loaded.get(0).getEventName());
+        assertNull(loaded.get(1));
+        assertEquals("Hiking", loaded.get(2).getEventName());
+        assertEquals(event1.getId(), loaded.get(2).getId());
+    }
+}
@@ -0,0 +1,205 @@
+package storage;
+
+import logic.Category;
+import logic.Event;
+import logic.Participant;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventRepositoryTest {
+
+    private static final String PHONE_PREFIX = "0598";
+
+    private Event event;
+    private Participant alice;
+    private Participant bob;
+    private Category food;
+
+    @BeforeEach
+    void setUp() {
+        event = new Event("Repository Test Event", 10_00, LocalDate.of(1990, 2, 1));
+        alice = new Participant("Alice", PHONE_PREFIX + "000001");
+        bob = new Participant("Bob", PHONE_PREFIX + "000002");
+        food = new Category("Food");
+
+        event.addCategory(food);
+        event.addParticipant(alice);
+        event.addParticipant(bob);
+        event.setConsumed(alice, food, true);
+        event.setConsumed(bob, food, true);
+        event.setExpense(alice, food, 100_00);
+        event.finalizeCalculations();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (event.getId() != 0) {
+            EventDao.deleteEventById(event.getId());
+        }
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM participants WHERE phone LIKE ?")) {
+            stmt.setString(1, PHONE_PREFIX + "%");
+            stmt.executeUpdate();
+        }
+    }
+
+    @Test
+    @DisplayName("An event is saved with all its rows in one call")
+    void testSaveWritesWholeEvent() {
+        assertTrue(EventRepository.save(event));
+        assertTrue(event.getId() > 0);
+        assertTrue(alice.getId() > 0);
+        assertTrue(food.getId() > 0);
+
+        Event loaded = EventDao.loadEventById(event.getId());
+        assertNotNull(loaded);
+        assertEquals(2, loaded.getParticipants().size());
+        assertEquals(1, loaded.getCategories().size());
+        assertEquals(event.getDebts().size(), loaded.getDebts().size());
+
+        Participant loadedAlice = IdentityMap.ofParticipants(loaded.getParticipants()).get(alice.getId());
+        assertNotNull(loadedAlice);
+        assertEquals(100_00, loadedAlice.getTotalExpense());
+        assertEquals(1, loadedAlice.getConsumedCategories().size());
+    }
+
+    @Test
+    @DisplayName("Saving again replaces the rows instead of duplicating them")
+    void testSaveTwiceUpdatesInPlace() {
+        assertTrue(EventRepository.save(event));
+        int eventId = event.getId();
+
+        event.setExpense(bob, food, 20_00);
+        event.finalizeCalculations();
+        assertTrue(EventRepository.save(event));
+
+        assertEquals(eventId, event.getId());
+        Event loaded = EventDao.loadEventById(eventId);
+        assertEquals(2, loaded.getParticipants().size());
+        assertEquals(20_00, IdentityMap.ofParticipants(loaded.getParticipants()).get(bob.getId()).getTotalExpense());
+    }
+
+    @Test
+    @DisplayName("A failed save writes nothing and takes back the assigned IDs")
+    void testFailedSaveRollsBack() {
+        // longer than the name column, so the category insert fails after the event row was written
+        event.addCategory(new Category("x".repeat(300)));
+
+        assertFalse(EventRepository.save(event));
+
+        assertEquals(0, event.getId());
+        assertEquals(0, alice.getId());
+        assertEquals(0, food.getId());
+        List<String> names = EventDao.getAllEvents().stream().map(EventDao.EventSummary::getName).toList();
+        assertFalse(names.contains("Repository Test Event"));
+    }
+
+    @Test
+    @DisplayName("Large events are saved in one transaction")
+    void testSaveLargeEvent() {
+        for (int i = 0; i < 2000; i++) {
+            Participant participant = new Participant("Guest " + i, PHONE_PREFIX + String.format("%06d", 100 + i));
+            event.addParticipant(participant);
+            event.setConsumed(participant, food, true);
+        }
+        event.finalizeCalculations();
+
+        assertTrue(EventRepository.save(event));
+        assertEquals(2002, ParticipantDao.getParticipantsFromEvent(event.getId()).size());
+    }
+
+    private static String rowVersion(String sql, int eventId, int participantId) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, eventId);
+            stmt.setInt(2, participantId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A second save writes only the rows that changed")
+    void testSaveWritesOnlyChangedRows() throws SQLException {
+        Category drinks = new Category("Drinks");
+        event.addCategory(drinks);
+        event.setExpense(bob, drinks, 10_00);
+        event.finalizeCalculations();
+        assertTrue(EventRepository.save(event));
+
+        String expenseVersion = "SELECT xmin::text FROM expenses WHERE event_id = ? AND participant_id = ?";
+        String consumptionVersion = "SELECT xmin::text FROM consumptions WHERE event_id = ? AND participant_id = ?";
+        String aliceExpense = rowVersion(expenseVersion, event.getId(), alice.getId());
+        String bobExpense = rowVersion(expenseVersion, event.getId(), bob.getId());
+        String aliceConsumption = rowVersion(consumptionVersion, event.getId(), alice.getId());
+
+        event.setExpense(bob, drinks, 12_00);
+        event.updateCalculations();
+        assertTrue(EventRepository.save(event));
+
+        assertEquals(aliceExpense, rowVersion(expenseVersion, event.getId(), alice.getId()),
+                "Unchanged expense should not be rewritten");
+        assertEquals(aliceConsumption, rowVersion(consumptionVersion, event.getId(), alice.getId()),
+                "Unchanged consumption should not be rewritten");
+        assertNotEquals(bobExpense, rowVersion(expenseVersion, event.getId(), bob.getId()));
+
+        Event loaded = EventDao.loadEventById(event.getId());
+        assertEquals(12_00, IdentityMap.ofParticipants(loaded.getParticipants()).get(bob.getId()).getTotalExpense());
+        assertEquals(event.getDebts().size(), loaded.getDebts().size());
+    }
+
+    @Test
+    @DisplayName("Removed participants and categories are unlinked and their rows deleted")
+    void testSaveDeletesRemovedRows() {
+        Category drinks = new Category("Drinks");
+        event.addCategory(drinks);
+        event.setExpense(bob, drinks, 10_00);
+        event.finalizeCalculations();
+        assertTrue(EventRepository.save(event));
+
+        Event loaded = EventDao.loadEventById(event.getId());
+        Participant loadedBob = IdentityMap.ofParticipants(loaded.getParticipants()).get(bob.getId());
+        Category loadedDrinks = IdentityMap.ofCategories(loaded.getCategories()).get(drinks.getId());
+        loaded.removeCategory(loadedDrinks);
+        loaded.removeParticipant(loadedBob);
+        loaded.finalizeCalculations();
+        assertTrue(EventRepository.save(loaded));
+
+        Event reloaded = EventDao.loadEventById(event.getId());
+        assertEquals(1, reloaded.getParticipants().size());
+        assertEquals(1, reloaded.getCategories().size());
+        assertEquals(0, reloaded.getDebts().size());
+        assertEquals(100_00, reloaded.getParticipants().get(0).getTotalExpense());
+    }
+
+    @Test
+    @DisplayName("A changed phone number is saved by resolving the participant again")
+    void testSaveChangedPhoneNumber() {
+        assertTrue(EventRepository.save(event));
+        int oldId = bob.getId();
+        assertEquals(oldId, LookupCache.getParticipantId(PHONE_PREFIX + "000002"));
+
+        bob.setPhoneNumber(PHONE_PREFIX + "000003");
+        event.finalizeCalculations();
+        assertTrue(EventRepository.save(event));
+        assertNotEquals(oldId, bob.getId());
+        assertNull(LookupCache.getParticipantId(PHONE_PREFIX + "000002"));
+
+        Event loaded = EventDao.loadEventById(event.getId());
+        assertEquals(2, loaded.getParticipants().size());
+        assertNull(IdentityMap.ofParticipants(loaded.getParticipants()).get(oldId));
+        Participant loadedBob = IdentityMap.ofParticipants(loaded.getParticipants()).get(bob.getId());
+        assertEquals(PHONE_PREFIX + "000003", loadedBob.getPhoneNumber());
+        assertEquals(1, loadedBob.getConsumedCategories().size());
+        assertEquals(event.getDebts().size(), loaded.getDebts().size());
+    }
+}
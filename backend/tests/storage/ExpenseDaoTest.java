@@ -20,7 +20,7 @@ public class ExpenseDaoTest {
 
     @BeforeEach
     void setUp() {
-        event = new Event("Test Expenses", 30.0, LocalDate.of(2025, 4, 21));
+        event = new Event("Test Expenses", 30_00, LocalDate.of(2025, 4, 21));
 
         p1 = new Participant("Alice");
         p1.setPhoneNumber("0500000001");
@@ -39,8 +39,8 @@ public class ExpenseDaoTest {
         event.addCategory(drinks);
 
 
-        p1.addExpense(food, 60.0);
-        p2.addExpense(drinks, 40.0);
+        p1.addExpense(food, 60_00);
+        p2.addExpense(drinks, 40_00);
 
 
         p1.setConsumedCategories(List.of(food));
@@ -70,11 +70,11 @@ public class ExpenseDaoTest {
         assertNotNull(loadedAlice);
         assertNotNull(loadedBob);
 
-        Map<Category, Double> aliceExpenses = loadedAlice.getExpenses();
-        Map<Category, Double> bobExpenses = loadedBob.getExpenses();
+        Map<Category, Long> aliceExpenses = loadedAlice.getExpenses();
+        Map<Category, Long> bobExpenses = loadedBob.getExpenses();
 
-        assertEquals(60.0, aliceExpenses.get(food), 0.01, "Alice should have 60 on food");
-        assertEquals(40.0, bobExpenses.get(drinks), 0.01, "Bob should have 40 on drinks");
+        assertEquals(60_00, aliceExpenses.get(food), "Alice should have 60 on food");
+        assertEquals(40_00, bobExpenses.get(drinks), "Bob should have 40 on drinks");
     }
 
     @Test
@@ -0,0 +1,98 @@
+package storage;
+
+import logic.Category;
+import logic.Debt;
+import logic.Event;
+import logic.Participant;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GlobalSettlementDaoTest {
+
+    private Event firstEvent;
+    private Event secondEvent;
+
+    /**
+     * Creates and saves an event where the payer covers one category consumed by all three.
+     */
+    private static Event saveEvent(String name, LocalDate date, int payer) {
+        Event event = new Event(name, 0, date);
+        Participant[] people = {
+                new Participant("Alice", "0509990001"),
+                new Participant("Bob", "0509990002"),
+                new Participant("Carol", "0509990003")
+        };
+        Category food = new Category("Food");
+        event.addCategory(food);
+        for (Participant participant : people) {
+            participant.addConsumedCategory(food);
+            event.addParticipant(participant);
+        }
+        people[payer].addExpense(food, 90_00);
+
+        EventDao.insertOrUpdateEvent(event);
+        ParticipantDao.saveEventParticipants(event);
+        CategoryDao.saveEventCategories(event);
+        ExpenseDao.saveEventExpenses(event);
+        ExpenseDao.saveEventConsumptions(event);
+        event.finalizeCalculations();
+        DebtDao.saveEventDebts(event);
+        return event;
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Alice pays the first event and Bob the second, so Carol owes both of them twice
+        firstEvent = saveEvent("Netting Test 1", LocalDate.of(1990, 1, 1), 0);
+        secondEvent = saveEvent("Netting Test 2", LocalDate.of(1990, 1, 2), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        EventDao.deleteEventById(firstEvent.getId());
+        EventDao.deleteEventById(secondEvent.getId());
+    }
+
+    private static void assertCarolPaysBoth(List<Debt> debts) {
+        assertEquals(2, debts.size(), "Four per-event debts should net to two");
+        for (Debt debt : debts) {
+            assertEquals("Carol", debt.getDebtor().getName());
+            assertEquals(30_00, debt.getAmount());
+        }
+        assertNotEquals(debts.get(0).getCreditor().getId(), debts.get(1).getCreditor().getId());
+    }
+
+    @Test
+    @DisplayName("Debts of selected events are netted per participant")
+    void testSettleEvents() {
+        assertEquals(2, firstEvent.getDebts().size());
+        assertEquals(2, secondEvent.getDebts().size());
+
+        List<Debt> debts = GlobalSettlementDao.settleEvents(List.of(firstEvent.getId(), secondEvent.getId()));
+
+        assertCarolPaysBoth(debts);
+    }
+
+    @Test
+    @DisplayName("Debts of all events in a date range are netted per participant")
+    void testSettleDateRange() {
+        List<Debt> debts = GlobalSettlementDao.settleDateRange(LocalDate.of(1990, 1, 1), LocalDate.of(1990, 1, 2));
+
+        assertCarolPaysBoth(debts);
+    }
+
+    @Test
+    @DisplayName("A single event nets to its own debts")
+    void testSettleSingleEvent() {
+        List<Debt> debts = GlobalSettlementDao.settleEvents(List.of(firstEvent.getId()));
+
+        assertEquals(2, debts.size());
+        for (Debt debt : debts) {
+            assertEquals("Alice", debt.getCreditor().getName());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package storage;
+
+import logic.Participant;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdentityMapTest {
+
+    @Test
+    @DisplayName("Entities are found by ID after the table grows")
+    void testGetAfterGrowth() {
+        IdentityMap<String> map = new IdentityMap<>(0);
+        for (int id = 1; id <= 50_000; id++) {
+            map.put(id, "entity " + id);
+        }
+
+        assertEquals(50_000, map.size());
+        for (int id = 1; id <= 50_000; id++) {
+            assertEquals("entity " + id, map.get(id));
+        }
+        assertNull(map.get(0));
+        assertNull(map.get(50_001));
+    }
+
+    @Test
+    @DisplayName("Sparse, negative and colliding IDs are kept apart")
+    void testSparseIds() {
+        IdentityMap<Integer> map = new IdentityMap<>(4);
+        int[] ids = {Integer.MIN_VALUE, -1, 0, 1, 1 << 16, 1 << 20, 1 << 30, Integer.MAX_VALUE};
+        for (int id : ids) {
+            map.put(id, id);
+        }
+
+        for (int id : ids) {
+            assertEquals(id, map.get(id));
+        }
+        assertNull(map.get(2));
+    }
+
+    @Test
+    @DisplayName("Putting an existing ID replaces the entity")
+    void testPutReplaces() {
+        IdentityMap<String> map = new IdentityMap<>(2);
+        assertNull(map.put(7, "first"));
+        assertEquals("first", map.put(7, "second"));
+
+        assertEquals(1, map.size());
+        assertEquals("second", map.get(7));
+        assertThrows(IllegalArgumentException.class, () -> map.put(8, null));
+    }
+
+    @Test
+    @DisplayName("A map of participants resolves the same instances")
+    void testOfParticipants() {
+        List<Participant> participants = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            Participant participant = new Participant("Guest " + i, "050" + i);
+            participant.setId(i * 3);
+            participants.add(participant);
+        }
+
+        IdentityMap<Participant> byId = IdentityMap.ofParticipants(participants);
+
+        for (Participant participant : participants) {
+            assertSame(participant, byId.get(participant.getId()));
+        }
+        assertNull(byId.get(4));
+    }
+}
@@ -0,0 +1,113 @@
+package storage;
+
+import logic.Category;
+import logic.Event;
+import logic.Participant;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LookupCacheTest {
+
+    private static final String PHONE_PREFIX = "0597";
+    private static final String CATEGORY_NAME = "Lookup Cache Test Category";
+
+    private final List<Event> savedEvents = new ArrayList<>();
+
+    /**
+     * Creates an event of the same two people sharing one category, with new instances each time.
+     */
+    private Event createGroupEvent(String name) {
+        Event event = new Event(name, 0, LocalDate.of(1990, 3, 1));
+        Participant dana = new Participant("Dana", PHONE_PREFIX + "000001");
+        Participant eli = new Participant("Eli", PHONE_PREFIX + "000002");
+        Category rent = new Category(CATEGORY_NAME);
+
+        event.addCategory(rent);
+        event.addParticipant(dana);
+        event.addParticipant(eli);
+        event.setConsumed(dana, rent, true);
+        event.setConsumed(eli, rent, true);
+        event.setExpense(dana, rent, 50_00);
+        event.finalizeCalculations();
+        savedEvents.add(event);
+        return event;
+    }
+
+    private static void execute(String sql, String value) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, value);
+            stmt.executeUpdate();
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        for (Event event : savedEvents) {
+            if (event.getId() != 0) {
+                EventDao.deleteEventById(event.getId());
+            }
+        }
+        execute("DELETE FROM participants WHERE phone LIKE ?", PHONE_PREFIX + "%");
+        execute("DELETE FROM categories WHERE name = ?", CATEGORY_NAME);
+    }
+
+    @Test
+    @DisplayName("A recurring group is resolved from the cache")
+    void testRecurringGroupHitsCache() {
+        Event first = createGroupEvent("Lookup Cache Event 1");
+        assertTrue(EventRepository.save(first));
+
+        long participantHits = LookupCache.getParticipantStats().getHits();
+        long categoryHits = LookupCache.getCategoryStats().getHits();
+
+        Event second = createGroupEvent("Lookup Cache Event 2");
+        assertTrue(EventRepository.save(second));
+
+        assertEquals(participantHits + 2, LookupCache.getParticipantStats().getHits());
+        assertEquals(categoryHits + 1, LookupCache.getCategoryStats().getHits());
+        assertEquals(first.getParticipants().get(0).getId(), second.getParticipants().get(0).getId());
+        assertEquals(first.getCategories().get(0).getId(), second.getCategories().get(0).getId());
+
+        Event loaded = EventDao.loadEventById(second.getId());
+        assertNotNull(loaded);
+        assertEquals(2, loaded.getParticipants().size());
+        assertEquals(1, loaded.getCategories().size());
+    }
+
+    @Test
+    @DisplayName("Cached IDs of deleted rows are replaced by new ones")
+    void testStaleEntriesAreResolvedAgain() throws SQLException {
+        Event first = createGroupEvent("Lookup Cache Event 1");
+        assertTrue(EventRepository.save(first));
+        int oldParticipantId = first.getParticipants().get(0).getId();
+        int oldCategoryId = first.getCategories().get(0).getId();
+
+        // delete the rows behind the cache's back
+        EventDao.deleteEventById(first.getId());
+        execute("DELETE FROM participants WHERE phone LIKE ?", PHONE_PREFIX + "%");
+        execute("DELETE FROM categories WHERE name = ?", CATEGORY_NAME);
+
+        Event second = createGroupEvent("Lookup Cache Event 2");
+        assertTrue(EventRepository.save(second));
+
+        Participant dana = second.getParticipants().get(0);
+        assertNotEquals(oldParticipantId, dana.getId());
+        assertNotEquals(oldCategoryId, second.getCategories().get(0).getId());
+        assertEquals(dana.getId(), LookupCache.getParticipantId(dana.getPhoneNumber()));
+
+        Event loaded = EventDao.loadEventById(second.getId());
+        assertNotNull(loaded);
+        assertEquals(2, loaded.getParticipants().size());
+        assertEquals(1, loaded.getCategories().size());
+        assertEquals(second.getDebts().size(), loaded.getDebts().size());
+    }
+}
@@ -5,6 +5,8 @@ import logic.Event;
 import logic.Participant;
 import org.junit.jupiter.api.*;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,7 +21,7 @@ public class ParticipantDaoTest {
 
     @BeforeEach
     void setUp() {
-        event = new Event("Test Event", 20.0, LocalDate.of(2025, 4, 20));
+        event = new Event("Test Event", 20_00, LocalDate.of(2025, 4, 20));
 
         p1 = new Participant("Alice");
         p1.setPhoneNumber("0501234567");
@@ -66,7 +68,7 @@ public class ParticipantDaoTest {
         List<Category> consumedCategories = new ArrayList<>();
         consumedCategories.add(food);
         p1.setConsumedCategories(consumedCategories);
-        p1.addExpense(food, 50.0);
+        p1.addExpense(food, 50_00);
 
 
         EventDao.insertOrUpdateEvent(event);
@@ -88,11 +90,11 @@ public class ParticipantDaoTest {
 
         assertEquals("Alice", loadedP.getName());
         assertTrue(loadedP.getConsumedCategories().contains(food), "Should contain category 'Food'");
-        assertEquals(50.0, loadedP.getExpenses().get(food), 0.01, "Should have expense of 50 on 'Food'");
+        assertEquals(50_00, loadedP.getExpenses().get(food), "Should have expense of 50 on 'Food'");
     }
 
     @Test
-    @DisplayName("findParticipantById returns the correct participant by ID")
+    @DisplayName("IdentityMap returns the loaded participant by ID")
     void testFindParticipantById() {
         // Arrange
         List<Participant> participants = ParticipantDao.getParticipantsFromEvent(event.getId());
@@ -102,7 +104,7 @@ public class ParticipantDaoTest {
         int knownId = expected.getId();
 
         // Act
-        Participant found = ParticipantDao.findParticipantById(participants, knownId);
+        Participant found = IdentityMap.ofParticipants(participants).get(knownId);
 
         // Assert
         assertNotNull(found, "Participant should be found");
@@ -110,4 +112,69 @@ public class ParticipantDaoTest {
         assertEquals(expected.getName(), found.getName());
     }
 
+    @Test
+    @DisplayName("Saving participants again reuses the existing rows by phone number")
+    void testSaveEventParticipantsReusesExistingParticipants() {
+        Event other = new Event("Other Event", 0, LocalDate.of(2025, 4, 21));
+        Participant aliceAgain = new Participant("Alice Again", p1.getPhoneNumber());
+        Participant bobTwice = new Participant("Bob Twice", p2.getPhoneNumber());
+        other.addParticipant(aliceAgain);
+        other.addParticipant(bobTwice);
+        other.addParticipant(new Participant("Bob Twice", p2.getPhoneNumber()));
+
+        EventDao.insertOrUpdateEvent(other);
+        try {
+            ParticipantDao.saveEventParticipants(other);
+
+            assertEquals(p1.getId(), aliceAgain.getId(), "Same phone should resolve to the same participant");
+            assertEquals(p2.getId(), bobTwice.getId());
+            assertEquals(p2.getId(), other.getParticipants().get(2).getId());
+
+            List<Participant> loaded = ParticipantDao.getParticipantsFromEvent(other.getId());
+            assertEquals(2, loaded.size(), "Each phone should be linked once");
+            assertTrue(loaded.stream().anyMatch(p -> p.getName().equals("Alice")), "Existing name should be kept");
+        } finally {
+            EventDao.deleteEventById(other.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Expense and consumption rows are streamed completely in chunks of the fetch size")
+    void testRowsAreStreamedInChunks() throws SQLException {
+        List<Category> categories = new ArrayList<>();
+        for (int c = 0; c < 40; c++) {
+            Category category = new Category("Streamed " + c);
+            categories.add(category);
+            event.addCategory(category);
+            event.setExpense(p1, category, (c + 1) * 1_00L);
+            event.setConsumed(p2, category, true);
+        }
+        assertTrue(EventRepository.save(event));
+
+        Participant alice = new Participant("Alice");
+        alice.setId(p1.getId());
+        Participant bob = new Participant("Bob");
+        bob.setId(p2.getId());
+        IdentityMap<Participant> participantsById = IdentityMap.ofParticipants(List.of(alice, bob));
+        IdentityMap<Category> categoriesById = IdentityMap.ofCategories(CategoryDao.getCategoriesForEvent(event.getId()));
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            DatabaseManager.beginReadOnlySnapshot(conn);
+            try {
+                ParticipantDao.loadParticipantExpenses(conn, event.getId(), 7, participantsById, categoriesById);
+                ParticipantDao.loadParticipantConsumptions(conn, event.getId(), 7, participantsById, categoriesById);
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+
+        assertEquals(40, alice.getExpenses().size());
+        for (int c = 0; c < 40; c++) {
+            assertEquals((c + 1) * 1_00L, alice.getExpenses().get(categoriesById.get(categories.get(c).getId())));
+        }
+        assertTrue(alice.getConsumedCategories().isEmpty());
+        assertEquals(40, bob.getConsumedCategories().size());
+        assertTrue(bob.getExpenses().isEmpty());
+    }
 }
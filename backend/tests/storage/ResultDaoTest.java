@@ -0,0 +1,147 @@
+package storage;
+
+import logic.Category;
+import logic.Event;
+import logic.Participant;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultDaoTest {
+
+    private static final String PHONE_PREFIX = "0596";
+
+    private Event event;
+    private Participant alice;
+    private Participant bob;
+    private Category food;
+    private Category drinks;
+
+    @BeforeEach
+    void setUp() {
+        event = new Event("Result Test Event", 10_00, LocalDate.of(1990, 4, 1));
+        alice = new Participant("Alice", PHONE_PREFIX + "000001");
+        bob = new Participant("Bob", PHONE_PREFIX + "000002");
+        food = new Category("Food");
+        drinks = new Category("Drinks");
+
+        event.addCategory(food);
+        event.addCategory(drinks);
+        event.addParticipant(alice);
+        event.addParticipant(bob);
+        event.setConsumed(alice, food, true);
+        event.setConsumed(bob, food, true);
+        event.setConsumed(bob, drinks, true);
+        event.setExpense(alice, food, 90_00);
+        event.setExpense(bob, drinks, 30_00);
+        event.finalizeCalculations();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (event.getId() != 0) {
+            EventDao.deleteEventById(event.getId());
+        }
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM participants WHERE phone LIKE ?")) {
+            stmt.setString(1, PHONE_PREFIX + "%");
+            stmt.executeUpdate();
+        }
+    }
+
+    private static Participant byId(Event loaded, Participant participant) {
+        return IdentityMap.ofParticipants(loaded.getParticipants()).get(participant.getId());
+    }
+
+    private static long categoryAmount(Map<Category, Long> amounts, Category category) {
+        for (Map.Entry<Category, Long> entry : amounts.entrySet()) {
+            if (entry.getKey().getId() == category.getId()) {
+                return entry.getValue();
+            }
+        }
+        throw new AssertionError("No amount for " + category.getName());
+    }
+
+    @Test
+    @DisplayName("A loaded event takes its stored results without calculating")
+    void testLoadAppliesStoredResults() {
+        assertTrue(EventRepository.save(event));
+
+        Event loaded = EventDao.loadEventById(event.getId());
+        assertNotNull(loaded);
+        assertTrue(loaded.hasLoadedResults());
+        assertEquals(alice.getBalance(), byId(loaded, alice).getBalance());
+        assertEquals(bob.getTotalConsumed(), byId(loaded, bob).getTotalConsumed());
+        assertEquals(90_00, categoryAmount(loaded.getTotalExpensePerCategory(), food));
+        assertEquals(categoryAmount(event.getAdjustedTotalExpensePerCategory(), drinks),
+                categoryAmount(loaded.getAdjustedTotalExpensePerCategory(), drinks));
+        assertEquals(3, loaded.getConsumedPerCategory().values().stream().mapToInt(java.util.List::size).sum());
+
+        // showing the results keeps the stored values
+        long storedBalance = byId(loaded, alice).getBalance();
+        loaded.updateCalculations();
+        assertEquals(storedBalance, byId(loaded, alice).getBalance());
+    }
+
+    @Test
+    @DisplayName("Results of an older version are ignored and replaced on the next save")
+    void testChangedEventGetsNewResults() {
+        assertTrue(EventRepository.save(event));
+
+        event.setExpense(bob, drinks, 60_00);
+        event.updateCalculations();
+        assertTrue(EventRepository.save(event));
+
+        Event loaded = EventDao.loadEventById(event.getId());
+        assertNotNull(loaded);
+        assertTrue(loaded.hasLoadedResults());
+        assertEquals(bob.getBalance(), byId(loaded, bob).getBalance());
+        assertEquals(60_00, categoryAmount(loaded.getTotalExpensePerCategory(), drinks));
+
+        // an edit after loading drops the stored results
+        loaded.setExpense(byId(loaded, alice), loaded.getCategories().get(0), 10_00);
+        assertFalse(loaded.hasLoadedResults());
+    }
+
+    @Test
+    @DisplayName("An event changed since its last calculation is recalculated before its results are stored")
+    void testSaveStoresCurrentResults() {
+        assertTrue(EventRepository.save(event));
+
+        event.setExpense(bob, drinks, 60_00);
+        assertTrue(EventRepository.save(event));
+
+        Event loaded = EventDao.loadEventById(event.getId());
+        assertNotNull(loaded);
+        assertTrue(loaded.hasLoadedResults());
+        assertEquals(60_00, categoryAmount(loaded.getTotalExpensePerCategory(), drinks));
+
+        Event recalculated = EventDao.loadEventById(event.getId());
+        recalculated.finalizeCalculations();
+        assertEquals(byId(recalculated, bob).getBalance(), byId(loaded, bob).getBalance());
+        assertEquals(recalculated.getDebts().size(), loaded.getDebts().size());
+    }
+
+    @Test
+    @DisplayName("Rows changed outside a save make the stored results stale")
+    void testStaleResultsAreNotApplied() throws SQLException {
+        assertTrue(EventRepository.save(event));
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "UPDATE expenses SET amount = 100 WHERE event_id = ? AND participant_id = ?")) {
+            stmt.setInt(1, event.getId());
+            stmt.setInt(2, alice.getId());
+            assertEquals(1, stmt.executeUpdate());
+        }
+
+        Event loaded = EventDao.loadEventById(event.getId());
+        assertNotNull(loaded);
+        assertFalse(loaded.hasLoadedResults());
+    }
+}
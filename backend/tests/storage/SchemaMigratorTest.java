@@ -0,0 +1,273 @@
+package storage;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchemaMigratorTest {
+
+    private static final String TEST_VERSION_TABLE = "schema_version_test";
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS " + TEST_VERSION_TABLE);
+            stmt.execute("DROP TABLE IF EXISTS migrator_test_a");
+            stmt.execute("DROP TABLE IF EXISTS migrator_test_b");
+        }
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Returns the plan of a query with sequential scans disabled, so the planner picks an index
+     * whenever one can serve the query, however small the test tables are.
+     */
+    private static String explain(Connection conn, String sql, Object... params) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SET LOCAL enable_seqscan = off");
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    stmt.setObject(i + 1, params[i]);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                }
+            }
+        } finally {
+            conn.rollback();
+            conn.setAutoCommit(true);
+        }
+        return plan.toString();
+    }
+
+    /**
+     * Starts a transaction and adds events with debts to it, so plans are made for tables of
+     * some size rather than for whatever the other tests left behind. {@link #explain} rolls
+     * the rows back.
+     */
+    private static void addRowsForPlanner(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                WITH e AS (
+                    INSERT INTO events (name, date, participation_fee)
+                    SELECT 'Index Test Event', DATE '2020-01-01' + n, 0 FROM generate_series(1, 500) n RETURNING id
+                ), p AS (
+                    INSERT INTO participants (name, phone)
+                    VALUES ('Index Test A', '+000-index-a'), ('Index Test B', '+000-index-b') RETURNING id
+                )
+                INSERT INTO debts (event_id, from_participant_id, to_participant_id, amount)
+                SELECT e.id, (SELECT min(id) FROM p), (SELECT max(id) FROM p), 1
+                FROM e, generate_series(1, 10)
+                """);
+            stmt.execute("ANALYZE events, debts");
+        }
+    }
+
+    @Test
+    @DisplayName("Pending migrations are applied once and recorded")
+    void testMigrationsAreAppliedOnce() throws SQLException {
+        List<SchemaMigrator.Migration> migrations = List.of(
+                new SchemaMigrator.Migration("V1__a.sql", 1, "a", "CREATE TABLE migrator_test_a (id INT)"),
+                new SchemaMigrator.Migration("V2__b.sql", 2, "b", "CREATE TABLE migrator_test_b (id INT)"));
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            assertEquals(2, SchemaMigrator.migrate(conn, TEST_VERSION_TABLE, migrations));
+            assertEquals(0, SchemaMigrator.migrate(conn, TEST_VERSION_TABLE, migrations));
+
+            assertTrue(tableExists(conn, "migrator_test_a"));
+            assertTrue(tableExists(conn, "migrator_test_b"));
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT version, description FROM " + TEST_VERSION_TABLE + " ORDER BY version")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+                assertEquals("a", rs.getString(2));
+                assertTrue(rs.next());
+                assertEquals(2, rs.getInt(1));
+                assertFalse(rs.next());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A failing migration leaves the schema unchanged")
+    void testFailingMigrationRollsBack() throws SQLException {
+        List<SchemaMigrator.Migration> migrations = List.of(
+                new SchemaMigrator.Migration("V1__a.sql", 1, "a", "CREATE TABLE migrator_test_a (id INT)"),
+                new SchemaMigrator.Migration("V2__b.sql", 2, "b", "CREATE TABLE migrator_test_b (id no_such_type)"));
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            assertThrows(SQLException.class, () -> SchemaMigrator.migrate(conn, TEST_VERSION_TABLE, migrations));
+            assertTrue(conn.getAutoCommit());
+            assertFalse(tableExists(conn, "migrator_test_a"));
+            assertFalse(tableExists(conn, TEST_VERSION_TABLE));
+        }
+
+        List<SchemaMigrator.Migration> unordered = List.of(migrations.get(1), migrations.get(0));
+        try (Connection conn = DatabaseManager.getConnection()) {
+            assertThrows(SQLException.class, () -> SchemaMigrator.migrate(conn, TEST_VERSION_TABLE, unordered));
+        }
+    }
+
+    @Test
+    @DisplayName("The application's migrations are on the classpath and applied")
+    void testApplicationMigrationsAreApplied() throws SQLException {
+        for (String script : SchemaMigrator.SCRIPTS) {
+            assertFalse(SchemaMigrator.Migration.load(script).getSql().isBlank());
+        }
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            assertEquals(0, SchemaMigrator.migrate(conn));
+            assertEquals(SchemaMigrator.SCRIPTS.size(), SchemaMigrator.getCurrentVersion(conn));
+        }
+    }
+
+    @Test
+    @DisplayName("Only a lost connection lets a failed migration be tried again")
+    void testOnlyConnectionErrorsAreRetried() {
+        SQLException lost = new SQLException("connection lost", "08006");
+        assertTrue(DatabaseManager.isConnectionError(lost));
+        assertTrue(DatabaseManager.isConnectionError(new SQLException("Migration V1 failed", lost)));
+        assertFalse(DatabaseManager.isConnectionError(new SQLException("syntax error", "42601")));
+        assertFalse(DatabaseManager.isConnectionError(new SQLException("Malformed migration name: x.sql")));
+    }
+
+    @Test
+    @DisplayName("Categories of the same name are merged before their names become unique")
+    void testDuplicateCategoryNamesAreMerged() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                // the state of a database from before categories_name_key
+                stmt.execute("DROP INDEX categories_name_key");
+                stmt.execute("""
+                    WITH e AS (
+                        INSERT INTO events (name, date, participation_fee)
+                        VALUES ('Merge Test Event', DATE '2024-01-01', 0) RETURNING id
+                    ), p AS (
+                        INSERT INTO participants (name, phone) VALUES ('Merge Test', '+000-merge') RETURNING id
+                    ), c AS (
+                        INSERT INTO categories (name) VALUES ('Merge Test'), ('Merge Test') RETURNING id
+                    ), links AS (
+                        INSERT INTO event_categories (event_id, category_id) SELECT e.id, c.id FROM e, c
+                    ), consumed AS (
+                        INSERT INTO consumptions (event_id, participant_id, category_id)
+                        SELECT e.id, p.id, c.id FROM e, p, c
+                    )
+                    INSERT INTO expenses (event_id, participant_id, category_id, amount)
+                    SELECT e.id, p.id, c.id, 10 FROM e, p, c
+                    """);
+                stmt.execute(SchemaMigrator.Migration.load("V1__performance_indexes.sql").getSql());
+
+                try (ResultSet rs = stmt.executeQuery("""
+                        SELECT count(DISTINCT c.id), count(DISTINCT ec.category_id), (sum(x.amount) * 100)::bigint, count(DISTINCT cs.category_id)
+                        FROM categories c
+                        JOIN event_categories ec ON ec.category_id = c.id
+                        JOIN expenses x ON x.category_id = c.id
+                        JOIN consumptions cs ON cs.category_id = c.id
+                        WHERE c.name = 'Merge Test'
+                        """)) {
+                    assertTrue(rs.next());
+                    assertEquals(1, rs.getInt(1));
+                    assertEquals(1, rs.getInt(2));
+                    assertEquals(20_00, rs.getLong(3));
+                    assertEquals(1, rs.getInt(4));
+                }
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Loading an event reads its debts through the debts index")
+    void testLoadEventUsesDebtsIndex() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            // on a nearly empty debts table the planner may walk the primary key instead
+            addRowsForPlanner(conn);
+            String plan = explain(conn, EventDao.LOAD_EVENT_SQL, 1);
+            assertTrue(plan.contains("debts_event_pair_idx"), plan);
+        }
+    }
+
+    @Test
+    @DisplayName("The event list is read in date order from the date index")
+    void testListEventsUsesDateIndex() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            addRowsForPlanner(conn);
+            String plan = explain(conn, EventDao.LIST_EVENTS_SQL);
+            assertTrue(plan.contains("events_date_idx"), plan);
+            assertFalse(plan.contains("Sort"), plan);
+        }
+    }
+
+    @Test
+    @DisplayName("Link rows of a participant or category are found by index")
+    void testLinkTablesHaveReverseIndexes() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            // the statements ON DELETE CASCADE runs when a participant or category is deleted
+            String participantPlan = explain(conn, "DELETE FROM event_participants WHERE participant_id = ?", 1);
+            assertTrue(participantPlan.contains("event_participants_participant_id_idx"), participantPlan);
+
+            String categoryPlan = explain(conn, "DELETE FROM event_categories WHERE category_id = ?", 1);
+            assertTrue(categoryPlan.contains("event_categories_category_id_idx"), categoryPlan);
+        }
+    }
+
+    @Test
+    @DisplayName("Event list pages are read from the date index without sorting")
+    void testListEventPagesUseDateIndex() throws SQLException {
+        EventDao.EventSummary after = new EventDao.EventSummary(100, "Previous page", java.time.LocalDate.of(2024, 1, 1), 0, 0);
+        EventDao.EventFilter filter = EventDao.EventFilter.all();
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            addRowsForPlanner(conn);
+            String plan = explain(conn, EventDao.listEventsSql(filter, true),
+                    EventDao.listEventsParams(filter, after, 21).toArray());
+            assertTrue(plan.contains("Index Scan Backward using events_date_idx"), plan);
+            assertTrue(plan.contains("Index Cond"), plan);
+        }
+    }
+
+    @Test
+    @DisplayName("A name prefix filter is served by the lower(name) index")
+    void testNamePrefixUsesNameIndex() throws SQLException {
+        EventDao.EventFilter filter = new EventDao.EventFilter("Trip", null, null);
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                // rules out walking the date index in order, so the plan shows what serves the prefix
+                stmt.execute("SET LOCAL enable_indexscan = off");
+            }
+            addRowsForPlanner(conn);
+            String plan = explain(conn, EventDao.listEventsSql(filter, false),
+                    EventDao.listEventsParams(filter, null, 21).toArray());
+            assertTrue(plan.contains("events_lower_name_idx"), plan);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package storage;
+
+import logic.Event;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindSaverTest {
+
+    private static final long HOUR = 3_600_000;
+
+    private final List<Event> written = Collections.synchronizedList(new ArrayList<>());
+    private WriteBehindSaver saver;
+
+    @AfterEach
+    void tearDown() {
+        if (saver != null) {
+            saver.close();
+        }
+    }
+
+    private static WriteBehindSaver.Options options(long delayMillis, long maxLagMillis, int maxPending, boolean flushOnExit) {
+        return new WriteBehindSaver.Options(true, delayMillis, maxLagMillis, maxPending, flushOnExit);
+    }
+
+    private static Event event(int n) {
+        return new Event("Queued Event " + n, 0, LocalDate.of(2024, 1, 1));
+    }
+
+    @Test
+    @DisplayName("Repeated saves of the same event are written once")
+    void testSavesAreMerged() {
+        saver = new WriteBehindSaver(options(HOUR, HOUR, 10, true), written::add);
+        Event first = event(1);
+        Event other = event(2);
+        for (int i = 0; i < 5; i++) {
+            saver.save(first);
+        }
+        saver.save(other);
+
+        // a reloaded copy of a saved event replaces the queued one
+        other.setId(42);
+        Event reloaded = event(2);
+        reloaded.setId(42);
+        saver.save(reloaded);
+
+        assertEquals(2, saver.getPendingCount());
+        assertTrue(saver.flush());
+        assertEquals(List.of(first, reloaded), written);
+        assertEquals(0, saver.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("The flusher writes an event once it was not saved for the delay")
+    void testFlusherWritesAfterDelay() throws InterruptedException {
+        CountDownLatch writes = new CountDownLatch(1);
+        saver = new WriteBehindSaver(options(50, 1_000, 10, true), event -> {
+            written.add(event);
+            writes.countDown();
+            return true;
+        });
+        Event event = event(1);
+        saver.save(event);
+
+        assertTrue(writes.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(event), written);
+        assertEquals(0, saver.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("An event saved over and over is still written within the maximum lag")
+    void testMaxLagBoundsDelay() throws InterruptedException {
+        saver = new WriteBehindSaver(options(200, 300, 10, true), written::add);
+        Event event = event(1);
+
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (System.nanoTime() - end < 0) {
+            saver.save(event);
+            Thread.sleep(10);
+        }
+
+        assertFalse(written.isEmpty());
+    }
+
+    @Test
+    @DisplayName("A full queue makes the caller write the oldest event")
+    void testBackpressureWritesOldest() {
+        List<Thread> writers = Collections.synchronizedList(new ArrayList<>());
+        saver = new WriteBehindSaver(options(HOUR, HOUR, 2, true), event -> {
+            writers.add(Thread.currentThread());
+            return written.add(event);
+        });
+        Event oldest = event(1);
+        saver.save(oldest);
+        saver.save(event(2));
+        assertTrue(written.isEmpty());
+
+        saver.save(event(3));
+
+        assertEquals(List.of(oldest), written);
+        assertEquals(List.of(Thread.currentThread()), writers);
+        assertEquals(2, saver.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("A failed write stays queued and is written on close")
+    void testFailedWriteIsRetried() {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        saver = new WriteBehindSaver(options(HOUR, HOUR, 10, true), event -> !failing.get() && written.add(event));
+        Event event = event(1);
+        saver.save(event);
+
+        assertFalse(saver.flush());
+        assertEquals(1, saver.getPendingCount());
+
+        failing.set(false);
+        saver.close();
+
+        assertEquals(List.of(event), written);
+        assertEquals(0, saver.getPendingCount());
+        assertThrows(IllegalStateException.class, () -> saver.save(event));
+    }
+
+    @Test
+    @DisplayName("A save that keeps failing is dropped after the last attempt")
+    void testFailingWriteIsDroppedEventually() {
+        List<Event> attempts = Collections.synchronizedList(new ArrayList<>());
+        saver = new WriteBehindSaver(options(HOUR, HOUR, 10, true), event -> !attempts.add(event));
+        Event event = event(1);
+        saver.save(event);
+
+        for (int i = 1; i < WriteBehindSaver.MAX_WRITE_ATTEMPTS; i++) {
+            assertFalse(saver.flush());
+            assertEquals(1, saver.getPendingCount());
+        }
+        assertFalse(saver.flush());
+        assertEquals(0, saver.getPendingCount());
+        assertEquals(WriteBehindSaver.MAX_WRITE_ATTEMPTS, attempts.size());
+
+        // saving the event again queues it with fresh attempts
+        saver.save(event);
+        assertEquals(1, saver.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("Closing without flush on exit drops the queue, and discarded saves are never written")
+    void testCloseWithoutFlushAndDiscard() {
+        saver = new WriteBehindSaver(options(HOUR, HOUR, 10, false), written::add);
+        Event kept = event(1);
+        Event deleted = event(2);
+        saver.save(kept);
+        saver.save(deleted);
+
+        assertTrue(saver.discard(deleted));
+        assertFalse(saver.discard(deleted));
+        assertEquals(1, saver.getPendingCount());
+
+        saver.close();
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Nothing is written while an exclusive action runs")
+    void testExclusiveActionHoldsFlusher() throws InterruptedException {
+        CountDownLatch writes = new CountDownLatch(1);
+        saver = new WriteBehindSaver(options(0, 0, 10, true), event -> {
+            written.add(event);
+            writes.countDown();
+            return true;
+        });
+
+        saver.runExclusive(() -> {
+            saver.save(event(1));
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            assertTrue(written.isEmpty());
+        });
+
+        assertTrue(writes.await(5, TimeUnit.SECONDS));
+        assertEquals(1, written.size());
+    }
+}
@@ -2,7 +2,8 @@ CREATE TABLE events (
     id SERIAL PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     date DATE NOT NULL,
-    participation_fee DECIMAL(10, 2) NOT NULL
+    participation_fee DECIMAL(10, 2) NOT NULL,
+    results_version BIGINT
 );
 
 CREATE TABLE participants (
@@ -17,6 +18,8 @@ CREATE TABLE categories (
     name VARCHAR(255) NOT NULL
 );
 
+CREATE UNIQUE INDEX categories_name_key ON categories (name);
+
 CREATE TABLE event_participants (
     event_id INT NOT NULL,
     participant_id INT NOT NULL,
@@ -64,3 +67,23 @@ CREATE TABLE debts (
     FOREIGN KEY (from_participant_id) REFERENCES participants(id) ON DELETE CASCADE,
     FOREIGN KEY (to_participant_id) REFERENCES participants(id) ON DELETE CASCADE
 );
+
+CREATE TABLE participant_results (
+    event_id INT NOT NULL,
+    participant_id INT NOT NULL,
+    total_consumed DECIMAL(12, 2) NOT NULL,
+    balance DECIMAL(12, 2) NOT NULL,
+    PRIMARY KEY (event_id, participant_id),
+    FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE,
+    FOREIGN KEY (participant_id) REFERENCES participants(id) ON DELETE CASCADE
+);
+
+CREATE TABLE category_results (
+    event_id INT NOT NULL,
+    category_id INT NOT NULL,
+    total_expense DECIMAL(12, 2) NOT NULL,
+    adjusted_expense DECIMAL(12, 2) NOT NULL,
+    PRIMARY KEY (event_id, category_id),
+    FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE,
+    FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE CASCADE
+);